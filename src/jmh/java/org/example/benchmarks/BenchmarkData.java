@@ -0,0 +1,111 @@
+package org.example.benchmarks;
+
+import org.example.Publication;
+import org.example.Subscription;
+import org.example.columnar.PublicationBatch;
+import org.example.columnar.SubscriptionBatch;
+import org.example.schema.Schema;
+import org.example.schema.SchemaField;
+import org.example.schema.SchemaFields;
+import org.example.storage.PublicationSaver;
+import org.example.storage.SubscriptionSaver;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class BenchmarkData {
+    static final Schema SCHEMA = new Schema(
+            List.of(
+                    SchemaFields.STATION,
+                    SchemaFields.CITY,
+                    SchemaFields.TEMP,
+                    SchemaFields.RAIN,
+                    SchemaFields.WIND,
+                    SchemaFields.DIRECTION,
+                    SchemaFields.DATE
+            )
+    );
+
+    static final long SEED = 2025;
+
+    private BenchmarkData() {
+    }
+
+    // Field frequency percentages for the named configurations
+    static Map<SchemaField, Double> fieldsFrequency(String config) {
+        Map<SchemaField, Double> frequency = new HashMap<>();
+        switch (config) {
+            case "readme" -> {
+                for (SchemaField field : SCHEMA.fields) {
+                    frequency.put(field, 50.0);
+                }
+                frequency.put(SchemaFields.CITY, 70.0);
+                frequency.put(SchemaFields.WIND, 30.0);
+            }
+            case "dense" -> {
+                for (SchemaField field : SCHEMA.fields) {
+                    frequency.put(field, 100.0);
+                }
+            }
+            case "sparse" -> {
+                // only some fields are restricted, the others are picked with 50% probability
+                frequency.put(SchemaFields.CITY, 90.0);
+                frequency.put(SchemaFields.TEMP, 20.0);
+            }
+            default -> throw new IllegalArgumentException("Unknown config: " + config);
+        }
+        return frequency;
+    }
+
+    static Map<SchemaField, Double> equalOpFrequency(String config) {
+        Map<SchemaField, Double> frequency = new HashMap<>();
+        for (SchemaField field : SCHEMA.fields) {
+            frequency.put(field, config.equals("dense") ? 10.0 : 50.0);
+        }
+        if (config.equals("readme")) {
+            frequency.put(SchemaFields.CITY, 60.0);
+            frequency.put(SchemaFields.WIND, 40.0);
+        }
+        return frequency;
+    }
+
+    // Savers that only hand what they get to the Blackhole, so the generation is not dead code;
+    // batches are consumed as they are, without going back through the row-based records
+    static PublicationSaver discardingPublicationSaver(Blackhole blackhole) {
+        return new PublicationSaver() {
+            @Override
+            public void save(Publication publication) {
+                blackhole.consume(publication);
+            }
+
+            @Override
+            public void save(PublicationBatch batch) {
+                blackhole.consume(batch);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    static SubscriptionSaver discardingSubscriptionSaver(Blackhole blackhole) {
+        return new SubscriptionSaver() {
+            @Override
+            public void save(Subscription subscription) {
+                blackhole.consume(subscription);
+            }
+
+            @Override
+            public void save(SubscriptionBatch batch) {
+                blackhole.consume(batch);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.benchmarks;
+
+import org.example.columnar.PublicationBatch;
+import org.example.generators.FieldDistributions;
+import org.example.generators.PublicationsGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Publication batches with every field uniform against every field skewed
+// (alias tables from FieldDistributions)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DistributionBenchmark {
+    @Param({"uniform", "zipf", "normal", "weighted"})
+    public String distribution;
+
+    @Param({"4096"})
+    public int records;
+
+    private PublicationsGenerator generator;
+    private PublicationBatch batch;
+
+    @Setup
+    public void setUp() {
+        Properties props = new Properties();
+        switch (distribution) {
+            case "zipf" -> {
+                for (String field : new String[]{"STATION", "CITY", "TEMP", "RAIN", "WIND", "DIRECTION", "DATE"}) {
+                    props.setProperty("distribution." + field, "zipf:1.1");
+                }
+            }
+            case "normal" -> {
+                props.setProperty("distribution.STATION", "normal:50,15");
+                props.setProperty("distribution.CITY", "normal:2,1");
+                props.setProperty("distribution.TEMP", "normal:12,10");
+                props.setProperty("distribution.RAIN", "normal:20,15");
+                props.setProperty("distribution.WIND", "normal:30,20");
+                props.setProperty("distribution.DIRECTION", "normal:3,2");
+                props.setProperty("distribution.DATE", "normal:15.07.2025,60");
+            }
+            case "weighted" -> {
+                props.setProperty("distribution.CITY", "weighted:40,25,15,12,8");
+                props.setProperty("distribution.DIRECTION", "weighted:30,5,5,5,30,5,10,10");
+            }
+            default -> {
+            }
+        }
+        FieldDistributions.configure(props);
+
+        generator = new PublicationsGenerator(BenchmarkData.SCHEMA, records);
+        generator.setRandom(new SplittableRandom(BenchmarkData.SEED));
+        batch = new PublicationBatch(BenchmarkData.SCHEMA, records);
+    }
+
+    @TearDown
+    public void tearDown() {
+        FieldDistributions.configure(new Properties());
+    }
+
+    @Benchmark
+    public int generate() {
+        batch.clear();
+        return generator.generatePublicationsInto(batch, records);
+    }
+}
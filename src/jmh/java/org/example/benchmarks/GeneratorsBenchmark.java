@@ -0,0 +1,123 @@
+package org.example.benchmarks;
+
+import org.example.generators.ParallelPublicationsGenerator;
+import org.example.generators.ParallelSubscriptionsGenerator;
+import org.example.generators.PublicationsGenerator;
+import org.example.generators.SubscriptionsGenerator;
+import org.example.generators.WorkerThreads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// The worker pool is created once per trial, outside the measured methods, and the parallel
+// generators are called through the variants that print nothing
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeneratorsBenchmark {
+    @Param({"1", "4"})
+    public int threads;
+
+    @Param({"10000", "100000"})
+    public int records;
+
+    @Param({"0", "1024"})
+    public int batchSize;
+
+    private ExecutorService executor;
+
+    // Only read by generateSubscriptions, so the publications are not run once per value
+    @State(Scope.Benchmark)
+    public static class SubscriptionParams {
+        @Param({"readme", "dense", "sparse"})
+        public String config;
+
+        @Param({"random", "planned"})
+        public String fieldAssignment;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = threads == 1 ? null : WorkerThreads.PLATFORM.newExecutor(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Benchmark
+    public long generatePublications(Blackhole blackhole) throws Exception {
+        if (threads == 1) {
+            PublicationsGenerator generator = new PublicationsGenerator(BenchmarkData.SCHEMA, records);
+            generator.setPublicationSaver(BenchmarkData.discardingPublicationSaver(blackhole));
+            generator.setRandom(new SplittableRandom(BenchmarkData.SEED));
+            generator.setBatchSize(batchSize);
+            return generator.generatePublications();
+        }
+
+        return ParallelPublicationsGenerator.generatePublications(
+                BenchmarkData.SCHEMA,
+                executor,
+                threads,
+                records,
+                BenchmarkData.discardingPublicationSaver(blackhole),
+                new SplittableRandom(BenchmarkData.SEED),
+                batchSize,
+                null
+        ).size();
+    }
+
+    @Benchmark
+    public long generateSubscriptions(SubscriptionParams params, Blackhole blackhole) throws Exception {
+        if (threads == 1) {
+            SubscriptionsGenerator generator = new SubscriptionsGenerator(
+                    BenchmarkData.SCHEMA,
+                    BenchmarkData.fieldsFrequency(params.config),
+                    BenchmarkData.equalOpFrequency(params.config),
+                    records,
+                    0.1
+            );
+            generator.setSubscriptionSaver(BenchmarkData.discardingSubscriptionSaver(blackhole));
+            generator.setRandom(new SplittableRandom(BenchmarkData.SEED));
+            generator.setBatchSize(batchSize);
+            generator.setPlannedFieldAssignment("planned".equals(params.fieldAssignment));
+            return generator.generateSubscriptions().totalRecords();
+        }
+
+        return ParallelSubscriptionsGenerator.generateSubscriptions(
+                BenchmarkData.SCHEMA,
+                executor,
+                records,
+                threads,
+                BenchmarkData.fieldsFrequency(params.config),
+                BenchmarkData.equalOpFrequency(params.config),
+                0.1,
+                BenchmarkData.discardingSubscriptionSaver(blackhole),
+                new SplittableRandom(BenchmarkData.SEED),
+                batchSize,
+                "planned".equals(params.fieldAssignment),
+                null
+        ).size();
+    }
+}
@@ -0,0 +1,164 @@
+package org.example.benchmarks;
+
+import org.example.Publication;
+import org.example.Subscription;
+import org.example.generators.PublicationsGenerator;
+import org.example.generators.SubscriptionsGenerator;
+import org.example.storage.AsyncTextFilePublicationSaver;
+import org.example.storage.AsyncTextFileSubscriptionSaver;
+import org.example.storage.BinaryPublicationSaver;
+import org.example.storage.BinarySubscriptionSaver;
+import org.example.storage.FsyncPolicy;
+import org.example.storage.GzipTextFilePublicationSaver;
+import org.example.storage.GzipTextFileSubscriptionSaver;
+import org.example.storage.InMemoryPublicationSaver;
+import org.example.storage.InMemorySubscriptionSaver;
+import org.example.storage.PublicationSaver;
+import org.example.storage.ShardedTextFilePublicationSaver;
+import org.example.storage.ShardedTextFileSubscriptionSaver;
+import org.example.storage.SubscriptionSaver;
+import org.example.storage.TextFilePublicationSaver;
+import org.example.storage.TextFileSubscriptionSaver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Saves pre-generated records, so only serialization and I/O are measured
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SaversBenchmark {
+    @Param({"text", "sharded", "binary", "async", "gzip"})
+    public String saver;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    @Param({"10000", "100000"})
+    public int records;
+
+    private List<Publication> publications;
+    private List<Subscription> subscriptions;
+    private ExecutorService executor;
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        InMemoryPublicationSaver publicationSaver = new InMemoryPublicationSaver();
+        PublicationsGenerator publicationsGenerator = new PublicationsGenerator(BenchmarkData.SCHEMA, records);
+        publicationsGenerator.setPublicationSaver(publicationSaver);
+        publicationsGenerator.setRandom(new SplittableRandom(BenchmarkData.SEED));
+        publicationsGenerator.generatePublications();
+        publications = publicationSaver.getPublications();
+
+        InMemorySubscriptionSaver subscriptionSaver = new InMemorySubscriptionSaver();
+        SubscriptionsGenerator subscriptionsGenerator = new SubscriptionsGenerator(
+                BenchmarkData.SCHEMA,
+                BenchmarkData.fieldsFrequency("readme"),
+                BenchmarkData.equalOpFrequency("readme"),
+                records,
+                0.1
+        );
+        subscriptionsGenerator.setSubscriptionSaver(subscriptionSaver);
+        subscriptionsGenerator.setRandom(new SplittableRandom(BenchmarkData.SEED));
+        subscriptionsGenerator.generateSubscriptions();
+        subscriptions = subscriptionSaver.getSubscriptions();
+
+        executor = Executors.newFixedThreadPool(threads);
+        directory = Files.createTempDirectory("savers-benchmark");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        executor.shutdown();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public void savePublications() throws Exception {
+        String fileName = directory.resolve("publications.out").toString();
+        PublicationSaver publicationSaver = switch (saver) {
+            case "text" -> new TextFilePublicationSaver(fileName);
+            case "sharded" -> new ShardedTextFilePublicationSaver(fileName, true);
+            case "binary" -> new BinaryPublicationSaver(fileName, BenchmarkData.SCHEMA);
+            case "async" -> new AsyncTextFilePublicationSaver(fileName, 1 << 20, 4, FsyncPolicy.NONE, 0);
+            case "gzip" -> new GzipTextFilePublicationSaver(fileName, 1 << 20, 4, 6);
+            default -> throw new IllegalArgumentException(saver);
+        };
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            PublicationSaver workerSaver = publicationSaver.forWorker(i);
+            List<Publication> chunk = publications.subList(records * i / threads, records * (i + 1) / threads);
+            futures.add(executor.submit(() -> {
+                for (Publication publication : chunk) {
+                    workerSaver.save(publication);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        publicationSaver.close();
+    }
+
+    @Benchmark
+    public void saveSubscriptions() throws Exception {
+        String fileName = directory.resolve("subscriptions.out").toString();
+        SubscriptionSaver subscriptionSaver = switch (saver) {
+            case "text" -> new TextFileSubscriptionSaver(fileName);
+            case "sharded" -> new ShardedTextFileSubscriptionSaver(fileName, true);
+            case "binary" -> new BinarySubscriptionSaver(fileName, BenchmarkData.SCHEMA);
+            case "async" -> new AsyncTextFileSubscriptionSaver(fileName, 1 << 20, 4, FsyncPolicy.NONE, 0);
+            case "gzip" -> new GzipTextFileSubscriptionSaver(fileName, 1 << 20, 4, 6);
+            default -> throw new IllegalArgumentException(saver);
+        };
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            SubscriptionSaver workerSaver = subscriptionSaver.forWorker(i);
+            List<Subscription> chunk = subscriptions.subList(records * i / threads, records * (i + 1) / threads);
+            futures.add(executor.submit(() -> {
+                for (Subscription subscription : chunk) {
+                    workerSaver.save(subscription);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        subscriptionSaver.close();
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.benchmarks;
+
+import org.example.columnar.PublicationBatch;
+import org.example.columnar.RecordBatch;
+import org.example.generators.CompiledRecordGenerator;
+import org.example.generators.GeneratorsParams;
+import org.example.generators.PublicationsGenerator;
+import org.example.schema.Schema;
+import org.example.schema.SchemaDefinition;
+import org.example.schema.SchemaField;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Filling one batch through the per-field switch of PublicationsGenerator against the
+// per-type compiled generators of CompiledRecordGenerator. For the switch, `fields` cycles
+// through the 7 schema fields, so wider schemas repeat them.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchemaGeneratorBenchmark {
+    @Param({"7", "64"})
+    public int fields;
+
+    @Param({"4096"})
+    public int records;
+
+    private PublicationsGenerator switchGenerator;
+    private PublicationBatch publicationBatch;
+    private CompiledRecordGenerator compiledGenerator;
+    private RecordBatch recordBatch;
+
+    @Setup
+    public void setUp() {
+        List<SchemaField> schemaFields = new ArrayList<>(fields);
+        for (int i = 0; i < fields; i++) {
+            schemaFields.add(BenchmarkData.SCHEMA.fields.get(i % BenchmarkData.SCHEMA.fields.size()));
+        }
+        Schema schema = new Schema(schemaFields);
+        switchGenerator = new PublicationsGenerator(schema, records);
+        switchGenerator.setRandom(new SplittableRandom(BenchmarkData.SEED));
+        publicationBatch = new PublicationBatch(schema, records);
+
+        SchemaDefinition definition = fields == GeneratorsParams.schemaDefinition.size()
+                ? GeneratorsParams.schemaDefinition
+                : GeneratorsParams.schemaDefinition.widen(fields);
+        compiledGenerator = new CompiledRecordGenerator(definition);
+        compiledGenerator.setRandom(new SplittableRandom(BenchmarkData.SEED));
+        recordBatch = new RecordBatch(definition, records);
+    }
+
+    @Benchmark
+    public int fieldSwitch() {
+        publicationBatch.clear();
+        return switchGenerator.generatePublicationsInto(publicationBatch, records);
+    }
+
+    @Benchmark
+    public int compiled() {
+        recordBatch.clear();
+        return compiledGenerator.generateInto(recordBatch, records);
+    }
+}
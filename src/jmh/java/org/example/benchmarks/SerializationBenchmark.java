@@ -0,0 +1,136 @@
+package org.example.benchmarks;
+
+import org.example.Publication;
+import org.example.Subscription;
+import org.example.columnar.PublicationBatch;
+import org.example.columnar.SubscriptionBatch;
+import org.example.generators.PublicationsGenerator;
+import org.example.generators.SubscriptionsGenerator;
+import org.example.storage.InMemoryPublicationSaver;
+import org.example.storage.InMemorySubscriptionSaver;
+import org.example.storage.JsonByteSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+    @Param({"1000", "10000"})
+    public int records;
+
+    private List<Publication> publications;
+    private List<Subscription> subscriptions;
+    private PublicationBatch publicationBatch;
+    private SubscriptionBatch subscriptionBatch;
+    private final JsonByteSerializer json = new JsonByteSerializer(1 << 16);
+
+    @Setup
+    public void setUp() throws Exception {
+        InMemoryPublicationSaver publicationSaver = new InMemoryPublicationSaver();
+        PublicationsGenerator publicationsGenerator = new PublicationsGenerator(BenchmarkData.SCHEMA, records);
+        publicationsGenerator.setPublicationSaver(publicationSaver);
+        publicationsGenerator.setRandom(new SplittableRandom(BenchmarkData.SEED));
+        publicationsGenerator.generatePublications();
+        publications = publicationSaver.getPublications();
+
+        InMemorySubscriptionSaver subscriptionSaver = new InMemorySubscriptionSaver();
+        SubscriptionsGenerator subscriptionsGenerator = new SubscriptionsGenerator(
+                BenchmarkData.SCHEMA,
+                BenchmarkData.fieldsFrequency("readme"),
+                BenchmarkData.equalOpFrequency("readme"),
+                records,
+                0.1
+        );
+        subscriptionsGenerator.setSubscriptionSaver(subscriptionSaver);
+        subscriptionsGenerator.setRandom(new SplittableRandom(BenchmarkData.SEED));
+        subscriptionsGenerator.generateSubscriptions();
+        subscriptions = subscriptionSaver.getSubscriptions();
+
+        publicationBatch = new PublicationBatch(BenchmarkData.SCHEMA, records);
+        publications.forEach(publicationBatch::add);
+        subscriptionBatch = new SubscriptionBatch(records);
+        subscriptions.forEach(subscriptionBatch::add);
+    }
+
+    @Benchmark
+    public void publicationToJson(Blackhole blackhole) {
+        for (Publication publication : publications) {
+            blackhole.consume(publication.toJson());
+        }
+    }
+
+    @Benchmark
+    public void subscriptionToJson(Blackhole blackhole) {
+        for (Subscription subscription : subscriptions) {
+            blackhole.consume(subscription.toJson());
+        }
+    }
+
+    @Benchmark
+    public void publicationBatchToJson(Blackhole blackhole) {
+        for (int row = 0; row < publicationBatch.size; row++) {
+            blackhole.consume(publicationBatch.toJson(row));
+        }
+    }
+
+    @Benchmark
+    public void subscriptionBatchToJson(Blackhole blackhole) {
+        for (int row = 0; row < subscriptionBatch.size; row++) {
+            blackhole.consume(subscriptionBatch.toJson(row));
+        }
+    }
+
+    @Benchmark
+    public void publicationToBytes(Blackhole blackhole) {
+        for (Publication publication : publications) {
+            json.clear();
+            json.writePublication(publication);
+            blackhole.consume(json.size());
+        }
+    }
+
+    @Benchmark
+    public void subscriptionToBytes(Blackhole blackhole) {
+        for (Subscription subscription : subscriptions) {
+            json.clear();
+            json.writeSubscription(subscription);
+            blackhole.consume(json.size());
+        }
+    }
+
+    @Benchmark
+    public void publicationBatchToBytes(Blackhole blackhole) {
+        for (int row = 0; row < publicationBatch.size; row++) {
+            json.clear();
+            json.writePublication(publicationBatch, row);
+            blackhole.consume(json.size());
+        }
+    }
+
+    @Benchmark
+    public void subscriptionBatchToBytes(Blackhole blackhole) {
+        for (int row = 0; row < subscriptionBatch.size; row++) {
+            json.clear();
+            json.writeSubscription(subscriptionBatch, row);
+            blackhole.consume(json.size());
+        }
+    }
+}
@@ -1,25 +1,64 @@
 package org.example;
 
 import com.sun.management.OperatingSystemMXBean;
+import org.example.columnar.PublicationBatch;
+import org.example.columnar.RecordBatch;
+import org.example.generators.CompiledRecordGenerator;
+import org.example.generators.FieldDistributions;
 import org.example.generators.ParallelPublicationsGenerator;
 import org.example.generators.ParallelSubscriptionsGenerator;
 import org.example.generators.PublicationsGenerator;
 import org.example.generators.SubscriptionsGenerator;
+import org.example.generators.WorkerThreads;
+import org.example.matching.CoveringAnalyzer;
+import org.example.matching.CoveringStatistics;
+import org.example.matching.MatchingEngine;
+import org.example.matching.MatchingStatistics;
+import org.example.matching.WindowType;
+import org.example.matching.WindowedAggregator;
+import org.example.metrics.GenerationMetrics;
+import org.example.metrics.MetricsReporter;
+import org.example.metrics.WorkerMetrics;
+import org.example.schema.FieldDefinition;
 import org.example.schema.Schema;
+import org.example.schema.SchemaDefinition;
 import org.example.schema.SchemaField;
+import org.example.schema.SchemaFieldDataTypes;
+import org.example.schema.SchemaFieldNames;
 import org.example.schema.SchemaFields;
+import org.example.storage.AsyncTextFilePublicationSaver;
+import org.example.storage.AsyncTextFileSubscriptionSaver;
+import org.example.storage.AsyncWriterStatistics;
+import org.example.storage.BinaryPublicationSaver;
+import org.example.storage.BinarySubscriptionSaver;
+import org.example.storage.CompressionThreadStatistics;
+import org.example.storage.FsyncPolicy;
+import org.example.storage.GzipTextFilePublicationSaver;
+import org.example.storage.GzipTextFileSubscriptionSaver;
+import org.example.storage.GzipWriterStatistics;
+import org.example.storage.InMemoryPublicationSaver;
+import org.example.storage.InMemorySubscriptionSaver;
+import org.example.storage.ParallelGzipReader;
 import org.example.storage.PublicationSaver;
+import org.example.storage.RecordFileSaver;
+import org.example.storage.ShardedTextFilePublicationSaver;
+import org.example.storage.ShardedTextFileSubscriptionSaver;
 import org.example.storage.SubscriptionSaver;
 import org.example.storage.TextFilePublicationSaver;
 import org.example.storage.TextFileSubscriptionSaver;
+import org.example.validation.OutputValidator;
+import org.example.validation.ValidationReport;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
 
 public class Main {
     public static void main(String[] args) throws Exception {
@@ -52,8 +91,14 @@ public class Main {
         int numberOfSubscriptions  = Integer.parseInt(props.getProperty("numberOfSubscriptions", "10"));
         int numberOfPublications   = Integer.parseInt(props.getProperty("numberOfPublications", "10"));
         int numberOfThreads        = Integer.parseInt(props.getProperty("numberOfThreads", "4"));
+        int batchSize              = Integer.parseInt(props.getProperty("generation.batchSize", "0"));
         double avgFieldProbability = Double.parseDouble(props.getProperty("probability.avgField", "0.0"));
 
+        // Every generator draws from its own stream split from this one,
+        // so a fixed seed reproduces the same dataset
+        String seed = props.getProperty("random.seed", "");
+        SplittableRandom masterRandom = seed.isBlank() ? new SplittableRandom() : new SplittableRandom(Long.parseLong(seed));
+
         // OS stats
         OperatingSystemMXBean osBean =
                 (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
@@ -80,55 +125,368 @@ public class Main {
             equalOpFrequency.put(field, eFreq);
         }
 
+        // Value distributions: the alias tables are built here, once, before any generator runs
+        Map<SchemaFieldNames, String> distributions = FieldDistributions.configure(props);
+        if (!distributions.isEmpty()) {
+            System.out.println("\n=== Value Distributions ===");
+            distributions.forEach((field, spec) -> System.out.printf("%-15s | %s%n", field, spec));
+        }
+
+        // Threads of the parallel generators: platform, virtual, or compare (platform for the
+        // runs below, then both kinds on the same config in THREADS COMPARISON)
+        String threadsMode = props.getProperty("execution.threads", "platform");
+        int maxConcurrency = Integer.parseInt(props.getProperty("execution.maxConcurrency", String.valueOf(numberOfThreads)));
+        WorkerThreads workerThreads = switch (threadsMode) {
+            case "platform", "compare" -> WorkerThreads.PLATFORM;
+            case "virtual" -> new WorkerThreads(true, maxConcurrency);
+            default -> throw new IllegalArgumentException("Unknown execution threads: " + threadsMode);
+        };
+        System.out.println("Worker threads:  " + workerThreads.describe());
+
+        // Latency histograms per worker, published over JMX and printed periodically while running
+        boolean metricsEnabled = Boolean.parseBoolean(props.getProperty("metrics.enabled", "false"));
+        MetricsReporter metricsReporter = metricsEnabled
+                ? new MetricsReporter(Long.parseLong(props.getProperty("metrics.reportIntervalMillis", "1000")))
+                : null;
+
         // SINGLE-THREADED SUBSCRIPTIONS
+        GenerationMetrics metrics = createMetrics(props, metricsReporter, "subscriptions-single");
         long start = System.nanoTime();
         getSubscriptions(schema, props, fieldsFrequency, equalOpFrequency,
-                numberOfSubscriptions, avgFieldProbability);
+                numberOfSubscriptions, avgFieldProbability, masterRandom.split(), batchSize, metrics);
         long end = System.nanoTime();
 
         System.out.println("\n\nSUBSCRIPTIONS GENERATION");
         System.out.println("==========================");
         System.out.println("\nSingle-threaded execution\n");
         System.out.println("** Duration: " + (end - start) / 1_000_000 + " ms\n");
+        printMetrics(metrics);
 
         // PARALLEL SUBSCRIPTIONS
         System.out.println("\nMulti-threaded execution");
 
+        metrics = createMetrics(props, metricsReporter, "subscriptions-multi");
         start = System.nanoTime();
         getSubscriptionsGeneratedInParallel(schema, props, fieldsFrequency, equalOpFrequency,
-                numberOfSubscriptions, numberOfThreads, avgFieldProbability);
+                numberOfSubscriptions, numberOfThreads, avgFieldProbability, masterRandom.split(), batchSize,
+                workerThreads, metrics);
         end = System.nanoTime();
 
         System.out.println("\n** Number of threads: " + numberOfThreads);
         System.out.println("** Duration " + (end - start) / 1_000_000 + " ms\n");
+        printMetrics(metrics);
 
         // SINGLE-THREADED PUBLICATIONS
         System.out.println("\nPUBLICATIONS GENERATION");
         System.out.println("==========================");
 
+        metrics = createMetrics(props, metricsReporter, "publications-single");
         start = System.nanoTime();
-        getPublications(schema, props, numberOfPublications);
+        getPublications(schema, props, numberOfPublications, masterRandom.split(), batchSize, metrics);
         end = System.nanoTime();
 
         System.out.println("\nSingle-threaded execution\n");
         System.out.println("** Duration: " + (end - start) / 1_000_000 + " ms");
+        printMetrics(metrics);
 
         // PARALLEL PUBLICATIONS
         System.out.println("\nMulti-threaded execution");
 
+        // Created before timing, so pool startup is not part of the measured duration
+        ExecutorService publicationsExecutor = workerThreads.newExecutor(numberOfThreads);
+
+        metrics = createMetrics(props, metricsReporter, "publications-multi");
         start = System.nanoTime();
-        getPublicationsGeneratedInParallel(schema, props, numberOfPublications, numberOfThreads);
+        getPublicationsGeneratedInParallel(schema, props, numberOfPublications, numberOfThreads, masterRandom.split(),
+                batchSize, publicationsExecutor, metrics);
         end = System.nanoTime();
 
+        publicationsExecutor.shutdown();
+
         System.out.println("\n** Number of threads: " + numberOfThreads);
         System.out.println("** Duration " + (end - start) / 1_000_000 + " ms\n");
+        printMetrics(metrics);
+
+        if (metricsReporter != null) {
+            metricsReporter.close();
+        }
+
+        // THREADS COMPARISON
+        if (threadsMode.equals("compare")) {
+            System.out.println("\nTHREADS COMPARISON");
+            System.out.println("==========================");
+
+            compareWorkerThreads(schema, props, fieldsFrequency, equalOpFrequency, numberOfSubscriptions,
+                    numberOfPublications, numberOfThreads, avgFieldProbability, masterRandom, batchSize,
+                    List.of(WorkerThreads.PLATFORM, new WorkerThreads(true, maxConcurrency)));
+        }
+
+        // MATCHING
+        if (Boolean.parseBoolean(props.getProperty("matching.enabled", "false"))) {
+            int matchingSubscriptions = Integer.parseInt(
+                    props.getProperty("matching.numberOfSubscriptions", String.valueOf(numberOfSubscriptions)));
+            int matchingPublications = Integer.parseInt(
+                    props.getProperty("matching.numberOfPublications", String.valueOf(numberOfPublications)));
+
+            System.out.println("\nMATCHING");
+            System.out.println("==========================");
+
+            getMatchingStatistics(schema, fieldsFrequency, equalOpFrequency, matchingSubscriptions,
+                    matchingPublications, numberOfThreads, avgFieldProbability, isPlannedFieldAssignment(props),
+                    props, masterRandom.split());
+        }
+
+        // VALIDATION
+        if (Boolean.parseBoolean(props.getProperty("validation.enabled", "false"))) {
+            System.out.println("\nVALIDATION");
+            System.out.println("==========================");
+
+            validateOutputs(props, fieldsFrequency, equalOpFrequency, numberOfThreads);
+        }
+
+        // SCHEMA RECORDS
+        SchemaDefinition schemaDefinition = SchemaDefinition.fromProperties(props);
+        if (schemaDefinition != null) {
+            System.out.println("\nSCHEMA RECORDS");
+            System.out.println("==========================");
+
+            generateSchemaRecords(schemaDefinition, props,
+                    Integer.parseInt(props.getProperty("schema.records", String.valueOf(numberOfPublications))),
+                    masterRandom.split());
+        }
+
+        // PACED PUBLICATIONS
+        if (Boolean.parseBoolean(props.getProperty("paced.enabled", "false"))) {
+            System.out.println("\nPACED PUBLICATIONS");
+            System.out.println("==========================");
+
+            emitPublicationsPaced(schema, props, numberOfThreads, masterRandom.split(), batchSize, workerThreads);
+        }
+
+        // COVERING
+        if (Boolean.parseBoolean(props.getProperty("covering.enabled", "false"))) {
+            System.out.println("\nCOVERING");
+            System.out.println("==========================");
+
+            getCoveringStatistics(schema, props, fieldsFrequency, equalOpFrequency, numberOfThreads,
+                    avgFieldProbability, masterRandom.split());
+        }
+    }
+
+    // Redundant subscriptions (duplicates and covered ones) of the configured frequencies, for
+    // every number of subscriptions in covering.numberOfSubscriptions; the covering set of the
+    // last one is written to output.subscriptions.covering
+    private static void getCoveringStatistics(Schema schema, Properties props,
+                                              Map<SchemaField, Double> fieldsFrequency,
+                                              Map<SchemaField, Double> equalOpFrequency,
+                                              int numberOfThreads, double avgFieldProbability,
+                                              SplittableRandom random) throws Exception {
+        String[] counts = props.getProperty("covering.numberOfSubscriptions", "10000").split(",");
+        List<Subscription> coveringSet = List.of();
+
+        System.out.printf("%-10s | %-8s | %-10s | %-10s | %-10s | %-10s | %-12s | %-12s | %-8s%n",
+                "Subs", "Average", "Duplicates", "Covered", "Remaining", "Reduction", "Comparisons", "Naive pairs", "ms");
+        System.out.println("--------------------------------------------------------------------------------------------------------------");
+        for (String count : counts) {
+            InMemorySubscriptionSaver subSaver = new InMemorySubscriptionSaver();
+            SubscriptionsGenerator subGen = new SubscriptionsGenerator(
+                    schema,
+                    fieldsFrequency,
+                    equalOpFrequency,
+                    Integer.parseInt(count.trim()),
+                    avgFieldProbability
+            );
+            subGen.setSubscriptionSaver(subSaver);
+            subGen.setRandom(random.split());
+            subGen.setPlannedFieldAssignment(isPlannedFieldAssignment(props));
+            subGen.generateSubscriptions();
+
+            CoveringAnalyzer analyzer = new CoveringAnalyzer(schema, subSaver.getSubscriptions());
+            CoveringStatistics stats = analyzer.analyze(numberOfThreads);
+            coveringSet = analyzer.getCoveringSet();
+
+            System.out.printf("%-10d | %-8d | %-10d | %-10d | %-10d | %9.2f%% | %-12d | %-12d | %-8d%n",
+                    stats.totalSubscriptions(), stats.skippedSubscriptions(), stats.duplicates(), stats.covered(),
+                    stats.coveringSetSize(), stats.reductionPercent(), stats.comparisons(), stats.naiveComparisons(),
+                    stats.totalTimeInMillis());
+        }
+
+        String fileName = props.getProperty("output.subscriptions.covering", "output/subscriptions_covering.txt");
+        SubscriptionSaver saver = new TextFileSubscriptionSaver(fileName);
+        for (Subscription subscription : coveringSet) {
+            saver.save(subscription);
+        }
+        saver.close();
+        System.out.println("\n** Covering set: " + coveringSet.size() + " subscriptions -> " + fileName);
+    }
+
+    // Publications sent at a constant rate; latencies are measured from the intended send times
+    private static void emitPublicationsPaced(Schema schema, Properties props, int numberOfThreads,
+                                              SplittableRandom random, int batchSize,
+                                              WorkerThreads workerThreads) throws Exception {
+        PublicationSaver pubSaverPaced = createPublicationSaver(
+                props.getProperty("output.paced.mode", "async"),
+                props,
+                schema,
+                props.getProperty("output.publications.paced", "output/publications_paced.txt")
+        );
+        ParallelPublicationsGenerator.emitPublicationsPaced(
+                schema,
+                numberOfThreads,
+                Integer.parseInt(props.getProperty("paced.numberOfPublications", "1000000")),
+                Double.parseDouble(props.getProperty("paced.ratePerSecond", "1000000")),
+                Long.parseLong(props.getProperty("paced.onTimeMicros", "1000")) * 1000,
+                pubSaverPaced,
+                random,
+                batchSize,
+                workerThreads
+        );
+        pubSaverPaced.close();
+        printWriterStatistics(pubSaverPaced);
+    }
+
+    // Records of the schema defined in the config, generated by the compiled per-type generators
+    private static void generateSchemaRecords(SchemaDefinition definition, Properties props, int numberOfRecords,
+                                              SplittableRandom random) throws Exception {
+        int batchSize = Integer.parseInt(props.getProperty("schema.batchSize", "4096"));
+        String fileName = props.getProperty("output.records", "output/records.txt");
+
+        CompiledRecordGenerator generator = new CompiledRecordGenerator(definition);
+        generator.setRandom(random);
+        RecordBatch batch = new RecordBatch(definition, batchSize);
+
+        long generateNanos = 0;
+        long saveNanos = 0;
+        try (RecordFileSaver saver = new RecordFileSaver(fileName)) {
+            int remaining = numberOfRecords;
+            while (remaining > 0) {
+                long start = System.nanoTime();
+                batch.clear();
+                remaining -= generator.generateInto(batch, remaining);
+                long generated = System.nanoTime();
+                saver.save(batch);
+                generateNanos += generated - start;
+                saveNanos += System.nanoTime() - generated;
+            }
+        }
+
+        Map<SchemaFieldDataTypes, Integer> types = new EnumMap<>(SchemaFieldDataTypes.class);
+        for (FieldDefinition field : definition.fields) {
+            types.merge(field.dataType(), 1, Integer::sum);
+        }
+        long values = (long) numberOfRecords * definition.size();
+        System.out.println("** Fields:     " + definition.size() + " " + types);
+        System.out.println("** Records:    " + numberOfRecords + " -> " + fileName);
+        System.out.printf("** Generation: %d ms (%.1f ns/record, %.2f ns/value)%n", generateNanos / 1_000_000,
+                numberOfRecords == 0 ? 0 : (double) generateNanos / numberOfRecords,
+                values == 0 ? 0 : (double) generateNanos / values);
+        System.out.println("** Save:       " + saveNanos / 1_000_000 + " ms");
+    }
+
+    // Recomputes the reports from the text files that were actually written (binary output is skipped)
+    private static void validateOutputs(Properties props,
+                                        Map<SchemaField, Double> fieldsFrequency,
+                                        Map<SchemaField, Double> equalOpFrequency,
+                                        int numberOfThreads) throws Exception {
+        String singleMode = props.getProperty("output.single.mode", "text");
+        String multiMode = props.getProperty("output.multi.mode", "text");
+
+        if (!singleMode.equals("binary")) {
+            validateFiles(singleMode,
+                    props.getProperty("output.subscriptions.single", "output/subscriptions_single_thread.json"),
+                    props.getProperty("output.publications.single", "output/publications_single_thread.json"),
+                    fieldsFrequency, equalOpFrequency, numberOfThreads);
+        }
+
+        // sharded output is validated only once merged
+        boolean multiMerged = !multiMode.equals("sharded")
+                || Boolean.parseBoolean(props.getProperty("output.sharded.merge", "true"));
+        if (!multiMode.equals("binary") && multiMerged) {
+            validateFiles(multiMode,
+                    props.getProperty("output.subscriptions.multi", "output/subscriptions_multi_thread.json"),
+                    props.getProperty("output.publications.multi", "output/publications_multi_thread.json"),
+                    fieldsFrequency, equalOpFrequency, numberOfThreads);
+        }
+    }
+
+    private static void validateFiles(String mode, String subscriptionsFile, String publicationsFile,
+                                      Map<SchemaField, Double> fieldsFrequency,
+                                      Map<SchemaField, Double> equalOpFrequency,
+                                      int numberOfThreads) throws Exception {
+        // compressed output is first inflated back to the text file, block by block in parallel
+        if (mode.equals("gzip")) {
+            decompressOutput(subscriptionsFile, numberOfThreads);
+            decompressOutput(publicationsFile, numberOfThreads);
+        }
+        printValidationReport(subscriptionsFile,
+                OutputValidator.validateSubscriptions(subscriptionsFile, numberOfThreads),
+                fieldsFrequency, equalOpFrequency);
+        printValidationReport(publicationsFile,
+                OutputValidator.validatePublications(publicationsFile, numberOfThreads),
+                null, null);
+    }
+
+    private static void decompressOutput(String fileName, int numberOfThreads) throws Exception {
+        long start = System.nanoTime();
+        long bytes = ParallelGzipReader.decompress(gzipFileName(fileName), fileName, numberOfThreads);
+        long end = System.nanoTime();
+        System.out.printf("%n** Decompressed %s: %.2f MB in %d ms%n",
+                gzipFileName(fileName), bytes / 1_048_576.0, (end - start) / 1_000_000);
+    }
+
+    // Expected counts are only printed for subscriptions (fieldsFrequency != null)
+    private static void printValidationReport(String fileName, ValidationReport report,
+                                              Map<SchemaField, Double> fieldsFrequency,
+                                              Map<SchemaField, Double> equalOpFrequency) {
+        System.out.println("\n=== " + fileName + " ===");
+        System.out.println("** Records:   " + report.records());
+        System.out.println("** Malformed: " + report.malformedRecords());
+        System.out.println("** Empty:     " + report.emptyRecords());
+        System.out.printf("** Read:      %.2f MB in %d ms (%.0f MB/s)%n",
+                report.bytes() / 1_048_576.0, report.totalTimeInMillis(), report.megabytesPerSecond());
+
+        if (fieldsFrequency == null) {
+            System.out.printf("%n%-15s | %-10s | %-10s%n", "Field", "Actual", "Invalid");
+            System.out.println("--------------------------------------");
+            for (SchemaFieldNames field : SchemaFieldNames.values()) {
+                System.out.printf("%-15s | %-10d | %10d%n", field, report.fieldCount(field), report.invalidValues(field));
+            }
+            return;
+        }
+
+        System.out.printf("%n%-15s | %-20s | %-10s | %-10s | %-10s | %-10s | %-10s%n",
+                "Field", "Expected (Percent)", "Actual", "Diff", "EQ exp.", "EQ actual", "Invalid");
+        System.out.println("------------------------------------------------------------------------------------------------------");
+        for (SchemaFieldNames field : SchemaFieldNames.values()) {
+            SchemaField schemaField = SchemaFields.of(field);
+            Double percent = fieldsFrequency.get(schemaField);
+            if (percent == null) continue;
+
+            long expected = Math.round(percent * report.records() / 100.0);
+            long actual = report.fieldCount(field);
+            Double equalPercent = equalOpFrequency.get(schemaField);
+            long equalExpected = equalPercent == null ? 0 : Math.round(equalPercent * expected / 100.0);
+            System.out.printf("%-15s | %-20s | %-10d | %+10d | %-10d | %-10d | %10d%n",
+                    field,
+                    String.format("%d (%.2f%%)", expected, percent),
+                    actual,
+                    actual - expected,
+                    equalExpected,
+                    report.equalCount(field),
+                    report.invalidValues(field));
+        }
     }
 
     private static void getSubscriptions(Schema schema, Properties props,
                                          Map<SchemaField, Double> fieldsFrequency,
                                          Map<SchemaField, Double> equalOpFrequency,
-                                         int numberOfSubscriptions, double avgFieldProbability) throws Exception {
-        SubscriptionSaver subSaverSingle = new TextFileSubscriptionSaver(
+                                         int numberOfSubscriptions, double avgFieldProbability,
+                                         SplittableRandom random, int batchSize,
+                                         GenerationMetrics metrics) throws Exception {
+        SubscriptionSaver subSaverSingle = createSubscriptionSaver(
+                props.getProperty("output.single.mode", "text"),
+                props,
+                schema,
                 props.getProperty("output.subscriptions.single", "output/subscriptions_single_thread.json")
         );
         SubscriptionsGenerator subGen = new SubscriptionsGenerator(
@@ -139,16 +497,34 @@ public class Main {
                 avgFieldProbability
         );
         subGen.setSubscriptionSaver(subSaverSingle);
+        subGen.setRandom(random);
+        subGen.setBatchSize(batchSize);
+        subGen.setPlannedFieldAssignment(isPlannedFieldAssignment(props));
+        WorkerMetrics workerMetrics = metrics != null ? metrics.worker(0) : null;
+        if (workerMetrics != null) {
+            subGen.setMetrics(workerMetrics);
+            workerMetrics.start();
+        }
         subGen.generateSubscriptions();
+        if (workerMetrics != null) {
+            workerMetrics.finish();
+        }
         subSaverSingle.close();
+        printWriterStatistics(subSaverSingle);
     }
 
     private static void getSubscriptionsGeneratedInParallel(Schema schema, Properties props,
                                                             Map<SchemaField, Double> fieldsFrequency,
                                                             Map<SchemaField, Double> equalOpFrequency,
                                                             int numberOfSubscriptions, int numberOfThreads,
-                                                            double avgFieldProbability) throws Exception {
-        SubscriptionSaver subSaverMulti = new TextFileSubscriptionSaver(
+                                                            double avgFieldProbability,
+                                                            SplittableRandom random, int batchSize,
+                                                            WorkerThreads workerThreads,
+                                                            GenerationMetrics metrics) throws Exception {
+        SubscriptionSaver subSaverMulti = createSubscriptionSaver(
+                props.getProperty("output.multi.mode", "text"),
+                props,
+                schema,
                 props.getProperty("output.subscriptions.multi", "output/subscriptions_multi_thread.json")
         );
         ParallelSubscriptionsGenerator.generateSubscriptionsMultiThreaded(
@@ -158,33 +534,330 @@ public class Main {
                 fieldsFrequency,
                 equalOpFrequency,
                 avgFieldProbability,
-                subSaverMulti
+                subSaverMulti,
+                random,
+                batchSize,
+                isPlannedFieldAssignment(props),
+                workerThreads,
+                metrics
         );
         subSaverMulti.close();
+        printWriterStatistics(subSaverMulti);
     }
 
     private static void getPublications(Schema schema, Properties props,
-                                        int numberOfPublications) throws IOException {
-        PublicationSaver pubSaverSingle = new TextFilePublicationSaver(
+                                        int numberOfPublications, SplittableRandom random,
+                                        int batchSize, GenerationMetrics metrics) throws IOException {
+        PublicationSaver pubSaverSingle = createPublicationSaver(
+                props.getProperty("output.single.mode", "text"),
+                props,
+                schema,
                 props.getProperty("output.publications.single", "output/publications_single_thread.json")
         );
         PublicationsGenerator pubGen = new PublicationsGenerator(schema, numberOfPublications);
         pubGen.setPublicationSaver(pubSaverSingle);
+        pubGen.setRandom(random);
+        pubGen.setBatchSize(batchSize);
+        WorkerMetrics workerMetrics = metrics != null ? metrics.worker(0) : null;
+        if (workerMetrics != null) {
+            pubGen.setMetrics(workerMetrics);
+            workerMetrics.start();
+        }
         pubGen.generatePublications();
+        if (workerMetrics != null) {
+            workerMetrics.finish();
+        }
         pubSaverSingle.close();
+        printWriterStatistics(pubSaverSingle);
     }
 
     private static void getPublicationsGeneratedInParallel(Schema schema, Properties props,
-                                                           int numberOfPublications, int numberOfThreads) throws Exception {
-        PublicationSaver pubSaverMulti = new TextFilePublicationSaver(
+                                                           int numberOfPublications, int numberOfThreads,
+                                                           SplittableRandom random, int batchSize,
+                                                           ExecutorService executor,
+                                                           GenerationMetrics metrics) throws Exception {
+        PublicationSaver pubSaverMulti = createPublicationSaver(
+                props.getProperty("output.multi.mode", "text"),
+                props,
+                schema,
                 props.getProperty("output.publications.multi", "output/publications_multi_thread.json")
         );
-        ParallelPublicationsGenerator.generatePublicationsMultithreaded(
+        String scheduler = props.getProperty("publications.scheduler", "static");
+        switch (scheduler) {
+            case "static" -> ParallelPublicationsGenerator.generatePublicationsMultithreaded(
+                    schema,
+                    executor,
+                    numberOfThreads,
+                    numberOfPublications,
+                    pubSaverMulti,
+                    random,
+                    batchSize,
+                    metrics
+            );
+            case "dynamic" -> ParallelPublicationsGenerator.generatePublicationsDynamic(
+                    schema,
+                    executor,
+                    numberOfThreads,
+                    numberOfPublications,
+                    Integer.parseInt(props.getProperty("publications.claimSize", "1024")),
+                    pubSaverMulti,
+                    random,
+                    batchSize,
+                    metrics
+            );
+            default -> throw new IllegalArgumentException("Unknown publications scheduler: " + scheduler);
+        }
+        pubSaverMulti.close();
+        printWriterStatistics(pubSaverMulti);
+    }
+
+    private static SubscriptionSaver createSubscriptionSaver(String mode, Properties props, Schema schema,
+                                                             String fileName) throws IOException {
+        return switch (mode) {
+            case "text" -> new TextFileSubscriptionSaver(fileName);
+            case "binary" -> new BinarySubscriptionSaver(binaryFileName(fileName), schema);
+            case "sharded" -> new ShardedTextFileSubscriptionSaver(fileName,
+                    Boolean.parseBoolean(props.getProperty("output.sharded.merge", "true")));
+            case "async" -> new AsyncTextFileSubscriptionSaver(fileName,
+                    Integer.parseInt(props.getProperty("output.async.bufferSize", "1048576")),
+                    Integer.parseInt(props.getProperty("output.async.queueCapacity", "4")),
+                    fsyncPolicy(props),
+                    Long.parseLong(props.getProperty("output.async.fsyncIntervalMillis", "1000")));
+            case "gzip" -> new GzipTextFileSubscriptionSaver(gzipFileName(fileName),
+                    Integer.parseInt(props.getProperty("output.gzip.blockSize", "1048576")),
+                    Integer.parseInt(props.getProperty("output.gzip.threads", "4")),
+                    Integer.parseInt(props.getProperty("output.gzip.level", "6")));
+            default -> throw new IllegalArgumentException("Unknown output mode: " + mode);
+        };
+    }
+
+    private static PublicationSaver createPublicationSaver(String mode, Properties props, Schema schema,
+                                                           String fileName) throws IOException {
+        return switch (mode) {
+            case "text" -> new TextFilePublicationSaver(fileName);
+            case "binary" -> new BinaryPublicationSaver(binaryFileName(fileName), schema);
+            case "sharded" -> new ShardedTextFilePublicationSaver(fileName,
+                    Boolean.parseBoolean(props.getProperty("output.sharded.merge", "true")));
+            case "async" -> new AsyncTextFilePublicationSaver(fileName,
+                    Integer.parseInt(props.getProperty("output.async.bufferSize", "1048576")),
+                    Integer.parseInt(props.getProperty("output.async.queueCapacity", "4")),
+                    fsyncPolicy(props),
+                    Long.parseLong(props.getProperty("output.async.fsyncIntervalMillis", "1000")));
+            case "gzip" -> new GzipTextFilePublicationSaver(gzipFileName(fileName),
+                    Integer.parseInt(props.getProperty("output.gzip.blockSize", "1048576")),
+                    Integer.parseInt(props.getProperty("output.gzip.threads", "4")),
+                    Integer.parseInt(props.getProperty("output.gzip.level", "6")));
+            default -> throw new IllegalArgumentException("Unknown output mode: " + mode);
+        };
+    }
+
+    // Runs the parallel subscriptions and publications once per kind of worker threads,
+    // each run with its own copy of the same random stream, and compares the throughput
+    private static void compareWorkerThreads(Schema schema, Properties props,
+                                             Map<SchemaField, Double> fieldsFrequency,
+                                             Map<SchemaField, Double> equalOpFrequency,
+                                             int numberOfSubscriptions, int numberOfPublications,
+                                             int numberOfThreads, double avgFieldProbability,
+                                             SplittableRandom random, int batchSize,
+                                             List<WorkerThreads> candidates) throws Exception {
+        long subscriptionsSeed = random.nextLong();
+        long publicationsSeed = random.nextLong();
+        long[][] durations = new long[candidates.size()][2];
+
+        for (int i = 0; i < candidates.size(); i++) {
+            WorkerThreads workerThreads = candidates.get(i);
+            System.out.println("\n--- " + workerThreads.describe() + " ---");
+
+            long start = System.nanoTime();
+            getSubscriptionsGeneratedInParallel(schema, props, fieldsFrequency, equalOpFrequency,
+                    numberOfSubscriptions, numberOfThreads, avgFieldProbability,
+                    new SplittableRandom(subscriptionsSeed), batchSize, workerThreads, null);
+            durations[i][0] = System.nanoTime() - start;
+
+            ExecutorService executor = workerThreads.newExecutor(numberOfThreads);
+            start = System.nanoTime();
+            getPublicationsGeneratedInParallel(schema, props, numberOfPublications, numberOfThreads,
+                    new SplittableRandom(publicationsSeed), batchSize, executor, null);
+            durations[i][1] = System.nanoTime() - start;
+            executor.shutdown();
+        }
+
+        System.out.println("\n=== Worker Threads Comparison ===");
+        System.out.printf("%-32s | %-12s | %-12s | %-12s | %-12s%n",
+                "Threads", "Subs (ms)", "Subs/s", "Pubs (ms)", "Pubs/s");
+        System.out.println("---------------------------------------------------------------------------------------------");
+        for (int i = 0; i < candidates.size(); i++) {
+            System.out.printf("%-32s | %12d | %12.0f | %12d | %12.0f%n",
+                    candidates.get(i).describe(),
+                    durations[i][0] / 1_000_000, numberOfSubscriptions * 1e9 / durations[i][0],
+                    durations[i][1] / 1_000_000, numberOfPublications * 1e9 / durations[i][1]);
+        }
+    }
+
+    // null when metrics are disabled
+    private static GenerationMetrics createMetrics(Properties props, MetricsReporter reporter,
+                                                   String name) throws Exception {
+        if (reporter == null) {
+            return null;
+        }
+        GenerationMetrics metrics = new GenerationMetrics(name);
+        if (Boolean.parseBoolean(props.getProperty("metrics.jmx", "true"))) {
+            metrics.register();
+        }
+        reporter.add(metrics);
+        return metrics;
+    }
+
+    private static void printMetrics(GenerationMetrics metrics) {
+        if (metrics != null) {
+            metrics.printReport();
+        }
+    }
+
+    private static FsyncPolicy fsyncPolicy(Properties props) {
+        return FsyncPolicy.valueOf(props.getProperty("output.async.fsync", "on_close").toUpperCase());
+    }
+
+    private static void printWriterStatistics(Object saver) {
+        if (saver instanceof GzipTextFilePublicationSaver gzip) {
+            printGzipStatistics(gzip.getStatistics());
+            return;
+        } else if (saver instanceof GzipTextFileSubscriptionSaver gzip) {
+            printGzipStatistics(gzip.getStatistics());
+            return;
+        }
+
+        AsyncWriterStatistics stats;
+        if (saver instanceof AsyncTextFilePublicationSaver async) {
+            stats = async.getStatistics();
+        } else if (saver instanceof AsyncTextFileSubscriptionSaver async) {
+            stats = async.getStatistics();
+        } else {
+            return;
+        }
+
+        System.out.println("\n=== Async Writer Statistics ===");
+        System.out.printf("%-8s | %-10s | %-10s | %-10s | %-10s | %-8s%n",
+                "Buffers", "MB", "Max queue", "Stall (ms)", "Write (ms)", "Fsyncs");
+        System.out.println("---------------------------------------------------------------------");
+        System.out.printf("%-8d | %-10.2f | %-10d | %10d | %10d | %8d%n",
+                stats.buffersWritten(), stats.bytesWritten() / 1_048_576.0, stats.maxQueueDepth(),
+                stats.stallTimeInMillis(), stats.writeTimeInMillis(), stats.fsyncs());
+    }
+
+    private static void printGzipStatistics(GzipWriterStatistics stats) {
+        System.out.println("\n=== Gzip Writer Statistics ===");
+        System.out.printf("%-8s | %-8s | %-10s | %-10s | %-8s | %-10s%n",
+                "Thread", "Blocks", "MB in", "MB out", "Ratio", "MB/s");
+        System.out.println("---------------------------------------------------------------------------");
+        for (CompressionThreadStatistics thread : stats.threads()) {
+            System.out.printf("%-8s | %-8d | %-10.2f | %-10.2f | %8.2f | %10.1f%n",
+                    thread.thread().substring(thread.thread().lastIndexOf('-') + 1),
+                    thread.blocks(), thread.uncompressedBytes() / 1_048_576.0, thread.compressedBytes() / 1_048_576.0,
+                    thread.ratio(), thread.megabytesPerSecond());
+        }
+        System.out.printf("%-8s | %-8d | %-10.2f | %-10.2f | %8.2f | %10s%n",
+                "all", stats.blocks(), stats.uncompressedBytes() / 1_048_576.0, stats.compressedBytes() / 1_048_576.0,
+                stats.ratio(), "");
+        System.out.println("** Producer stall: " + stats.stallTimeInMillis() + " ms");
+    }
+
+    private static boolean isPlannedFieldAssignment(Properties props) {
+        String algorithm = props.getProperty("subscriptions.fieldAssignment", "random");
+        return switch (algorithm) {
+            case "random" -> false;
+            case "planned" -> true;
+            default -> throw new IllegalArgumentException("Unknown field assignment: " + algorithm);
+        };
+    }
+
+    // Compressed output goes next to the text one, with .gz appended
+    private static String gzipFileName(String fileName) {
+        return fileName + ".gz";
+    }
+
+    // Binary output goes next to the text one, with the .bin extension
+    private static String binaryFileName(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        int slash = Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\'));
+        return (dot > slash ? fileName.substring(0, dot) : fileName) + ".bin";
+    }
+
+    private static void getMatchingStatistics(Schema schema,
+                                              Map<SchemaField, Double> fieldsFrequency,
+                                              Map<SchemaField, Double> equalOpFrequency,
+                                              int numberOfSubscriptions, int numberOfPublications,
+                                              int numberOfThreads, double avgFieldProbability,
+                                              boolean plannedFieldAssignment, Properties props,
+                                              SplittableRandom random) throws Exception {
+        InMemorySubscriptionSaver subSaver = new InMemorySubscriptionSaver();
+        SubscriptionsGenerator subGen = new SubscriptionsGenerator(
                 schema,
-                numberOfThreads,
-                numberOfPublications,
-                pubSaverMulti
+                fieldsFrequency,
+                equalOpFrequency,
+                numberOfSubscriptions,
+                avgFieldProbability
         );
-        pubSaverMulti.close();
+        subGen.setSubscriptionSaver(subSaver);
+        subGen.setRandom(random.split());
+        subGen.setPlannedFieldAssignment(plannedFieldAssignment);
+        subGen.generateSubscriptions();
+
+        InMemoryPublicationSaver pubSaver = new InMemoryPublicationSaver();
+        PublicationsGenerator pubGen = new PublicationsGenerator(schema, numberOfPublications);
+        pubGen.setPublicationSaver(pubSaver);
+        pubGen.setRandom(random.split());
+        pubGen.generatePublications();
+
+        long start = System.nanoTime();
+        MatchingEngine engine = new MatchingEngine(schema, subSaver.getSubscriptions(), numberOfThreads);
+        long end = System.nanoTime();
+
+        MatchingStatistics stats = engine.matchPublications(pubSaver.getPublications(), numberOfThreads);
+
+        System.out.println("\n** Indexed subscriptions:  " + stats.indexedSubscriptions());
+        System.out.println("** Skipped (average) subs: " + stats.skippedSubscriptions());
+        System.out.println("** Distinct predicates:    " + engine.getPredicatesCount());
+        System.out.println("** Build duration:         " + (end - start) / 1_000_000 + " ms");
+        System.out.println("** Publications:           " + stats.totalPublications());
+        System.out.println("** Matches:                " + stats.totalMatches());
+        System.out.println("** Match duration:         " + stats.totalTimeInMillis() + " ms");
+        System.out.printf("** Publications/sec:       %.0f%n", stats.publicationsPerSecond());
+        System.out.printf("** Matches/sec:            %.0f%n", stats.matchesPerSecond());
+        System.out.printf("** Matches/publication:    %.2f%n", stats.matchesPerPublication());
+
+        // Subscriptions with average conditions, over windows of publications
+        SchemaFieldNames windowKey = SchemaFieldNames.valueOf(
+                capitalize(props.getProperty("matching.window.key", "station")));
+        WindowType windowType = WindowType.valueOf(props.getProperty("matching.window.type", "tumbling").toUpperCase());
+        int windowSize = Integer.parseInt(props.getProperty("matching.window.size", "10"));
+        int windowSlide = Integer.parseInt(props.getProperty("matching.window.slide", "1"));
+
+        WindowedAggregator aggregator = new WindowedAggregator(schema, subSaver.getSubscriptions(), windowKey,
+                windowType, windowSize, windowSlide);
+
+        PublicationBatch publications = new PublicationBatch(schema, numberOfPublications);
+        pubSaver.getPublications().forEach(publications::add);
+
+        start = System.nanoTime();
+        for (int row = 0; row < publications.size; row++) {
+            aggregator.accept(publications, row, subscription -> { });
+        }
+        end = System.nanoTime();
+
+        MatchingStatistics windowStats = aggregator.getStatistics((end - start) / 1_000_000);
+
+        System.out.println("\n** Window:                 " + windowType.toString().toLowerCase() + ", size " + windowSize
+                + (windowType == WindowType.SLIDING ? ", slide " + windowSlide : "") + ", by " + windowKey);
+        System.out.println("** Average subscriptions:  " + windowStats.indexedSubscriptions());
+        System.out.println("** Keys:                   " + aggregator.getKeysCount());
+        System.out.println("** Windows closed:         " + aggregator.getWindowsClosed());
+        System.out.println("** Matches:                " + windowStats.totalMatches());
+        System.out.println("** Aggregation duration:   " + windowStats.totalTimeInMillis() + " ms");
+        System.out.printf("** Publications/sec:       %.0f%n", windowStats.publicationsPerSecond());
+    }
+
+    private static String capitalize(String value) {
+        return value.isEmpty() ? value : Character.toUpperCase(value.charAt(0)) + value.substring(1).toLowerCase();
     }
 }
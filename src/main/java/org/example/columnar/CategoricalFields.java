@@ -0,0 +1,37 @@
+package org.example.columnar;
+
+import org.example.schema.SchemaFieldNames;
+
+import java.util.List;
+
+// Dictionary ids of the String fields of SchemaFieldNames (see FieldDictionary); the ids of
+// the generated values are their positions in GeneratorsParams.cities / directions.
+// Ids are kept in a byte, read them back with & 0xFF.
+public class CategoricalFields {
+    private final static FieldDictionary CITY = FieldDictionary.of("city");
+    private final static FieldDictionary DIRECTION = FieldDictionary.of("direction");
+
+    private CategoricalFields() {
+    }
+
+    public static FieldDictionary dictionary(SchemaFieldNames field) {
+        return switch (field) {
+            case City -> CITY;
+            case Direction -> DIRECTION;
+            default -> throw new IllegalArgumentException("Field " + field + " is not categorical");
+        };
+    }
+
+    public static List<String> values(SchemaFieldNames field) {
+        return dictionary(field).values();
+    }
+
+    // New values are added to the dictionary
+    public static byte encode(SchemaFieldNames field, String value) {
+        return (byte) dictionary(field).id(value);
+    }
+
+    public static String decode(SchemaFieldNames field, byte id) {
+        return dictionary(field).value(id & 0xFF);
+    }
+}
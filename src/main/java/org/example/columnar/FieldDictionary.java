@@ -0,0 +1,99 @@
+package org.example.columnar;
+
+import org.example.generators.GeneratorsParams;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Dictionary of the values of one String field, shared by the whole process: every distinct
+// value gets the next id, starting at 0. The columnar batches, the binary files and the
+// matching indexes carry these ids instead of the Strings. A dictionary only grows, so an id
+// stays valid once handed out; lookups never lock, only adding a value does.
+// The dictionary of a field is created on first use, City and Direction start with the lists
+// they are generated from, so their ids are the positions in those lists.
+public class FieldDictionary {
+    // Ids are stored in one byte
+    public final static int MAX_SIZE = 256;
+
+    private final static Map<String, FieldDictionary> DICTIONARIES = new ConcurrentHashMap<>();
+
+    static {
+        DICTIONARIES.put("city", new FieldDictionary("city", GeneratorsParams.cities));
+        DICTIONARIES.put("direction", new FieldDictionary("direction", GeneratorsParams.directions));
+    }
+
+    private final String field;
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    // replaced (never modified) when a value is added
+    private volatile String[] values = new String[0];
+    private volatile byte[][] encoded = new byte[0][];
+
+    private FieldDictionary(String field, List<String> initialValues) {
+        this.field = field;
+        for (String value : initialValues) {
+            id(value);
+        }
+    }
+
+    public static FieldDictionary of(String field) {
+        return DICTIONARIES.computeIfAbsent(field, name -> new FieldDictionary(name, List.of()));
+    }
+
+    public String field() {
+        return field;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    // Id of the value, added to the dictionary when it is new
+    public int id(String value) {
+        Integer id = ids.get(value);
+        return id != null ? id : add(value);
+    }
+
+    // Id of the value, -1 when it is not in the dictionary
+    public int find(String value) {
+        Integer id = ids.get(value);
+        return id != null ? id : -1;
+    }
+
+    public String value(int id) {
+        return values[id];
+    }
+
+    // UTF-8 bytes of the value, encoded once
+    public byte[] utf8(int id) {
+        return encoded[id];
+    }
+
+    public List<String> values() {
+        return List.of(values);
+    }
+
+    private synchronized int add(String value) {
+        Integer existing = ids.get(value);
+        if (existing != null) {
+            return existing;
+        }
+
+        int id = values.length;
+        if (id == MAX_SIZE) {
+            throw new IllegalStateException("The dictionary of " + field + " is full (" + MAX_SIZE + " values)");
+        }
+        String[] grownValues = Arrays.copyOf(values, id + 1);
+        grownValues[id] = value;
+        byte[][] grownEncoded = Arrays.copyOf(encoded, id + 1);
+        grownEncoded[id] = value.getBytes(StandardCharsets.UTF_8);
+
+        // the arrays are published before the id, so whoever finds the id can read the value
+        encoded = grownEncoded;
+        values = grownValues;
+        ids.put(value, id);
+        return id;
+    }
+}
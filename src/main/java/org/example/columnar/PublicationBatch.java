@@ -0,0 +1,62 @@
+package org.example.columnar;
+
+import org.example.Publication;
+import org.example.schema.Schema;
+import org.example.schema.SchemaField;
+
+// Columnar form of up to `capacity` publications; every row holds all the schema fields
+public class PublicationBatch {
+    public final Schema schema;
+    public final int capacity;
+    public final ValueColumns values;
+    public int size;
+
+    public PublicationBatch(Schema schema, int capacity) {
+        this.schema = schema;
+        this.capacity = capacity;
+        this.values = new ValueColumns(capacity);
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int add(Publication publication) {
+        int row = size++;
+        for (SchemaField field : schema.fields) {
+            values.set(field.field(), row, publication.fields.get(field));
+        }
+        return row;
+    }
+
+    public Publication toPublication(int row) {
+        Publication publication = new Publication();
+        for (SchemaField field : schema.fields) {
+            publication.addField(field, values.stringValue(field.field(), row));
+        }
+        return publication;
+    }
+
+    // Same layout as Publication.toJson, fields in schema order
+    public String toJson(int row) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        for (int f = 0; f < schema.fields.size(); f++) {
+            SchemaField field = schema.fields.get(f);
+            sb.append(" \"")
+                    .append(field.field().toString().toLowerCase())
+                    .append("\": \"")
+                    .append(values.stringValue(field.field(), row))
+                    .append("\"");
+            if (f < schema.fields.size() - 1) {
+                sb.append(",");
+            }
+        }
+        sb.append(" }");
+        return sb.toString();
+    }
+}
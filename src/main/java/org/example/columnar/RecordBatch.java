@@ -0,0 +1,71 @@
+package org.example.columnar;
+
+import org.example.schema.DateCodec;
+import org.example.schema.FieldDefinition;
+import org.example.schema.SchemaDefinition;
+import org.example.schema.SchemaFieldDataTypes;
+
+// Columnar form of up to `capacity` records of a SchemaDefinition, one column per field:
+// Integer fields in intColumns, Date fields as epoch days and String fields as the
+// FieldDictionary id of the value, Double fields in doubleColumns
+public class RecordBatch {
+    public final SchemaDefinition schema;
+    public final int capacity;
+    // null for the Double fields
+    public final int[][] intColumns;
+    // null for all the other fields
+    public final double[][] doubleColumns;
+    // null for all the fields except String
+    public final FieldDictionary[] dictionaries;
+    public int size;
+
+    public RecordBatch(SchemaDefinition schema, int capacity) {
+        this.schema = schema;
+        this.capacity = capacity;
+        this.intColumns = new int[schema.size()][];
+        this.doubleColumns = new double[schema.size()][];
+        this.dictionaries = new FieldDictionary[schema.size()];
+        for (int f = 0; f < schema.size(); f++) {
+            FieldDefinition field = schema.fields.get(f);
+            if (field.dataType() == SchemaFieldDataTypes.Double) {
+                doubleColumns[f] = new double[capacity];
+            } else {
+                intColumns[f] = new int[capacity];
+            }
+            if (field.dataType() == SchemaFieldDataTypes.String) {
+                dictionaries[f] = FieldDictionary.of(field.name());
+            }
+        }
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public String stringValue(int field, int row) {
+        return switch (schema.fields.get(field).dataType()) {
+            case Integer -> String.valueOf(intColumns[field][row]);
+            case Double -> String.valueOf(doubleColumns[field][row]);
+            case Date -> DateCodec.format(intColumns[field][row]);
+            case String -> dictionaries[field].value(intColumns[field][row]);
+        };
+    }
+
+    // Same layout as PublicationBatch.toJson, fields in schema order
+    public String toJson(int row) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        for (int f = 0; f < schema.size(); f++) {
+            sb.append(" \"")
+                    .append(schema.fields.get(f).name())
+                    .append("\": \"")
+                    .append(stringValue(f, row))
+                    .append("\"");
+            if (f < schema.size() - 1) {
+                sb.append(",");
+            }
+        }
+        sb.append(" }");
+        return sb.toString();
+    }
+}
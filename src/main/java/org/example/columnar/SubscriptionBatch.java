@@ -0,0 +1,125 @@
+package org.example.columnar;
+
+import org.example.Subscription;
+import org.example.generators.GeneratorsParams;
+import org.example.schema.Operator;
+import org.example.schema.SchemaField;
+import org.example.schema.SchemaFieldNames;
+import org.example.schema.SchemaFields;
+import org.example.schema.SubscriptionValue;
+
+import java.util.Map;
+
+// Columnar form of up to `capacity` subscriptions. Fields are addressed by their
+// SchemaFieldNames ordinal: one bit per field in the presence and average masks,
+// one operator ordinal per (row, field) in `operators`.
+public class SubscriptionBatch {
+    public static final int FIELDS_COUNT = SchemaFieldNames.values().length;
+
+    private static final Operator[] OPERATORS = Operator.values();
+    private static final SchemaFieldNames[] FIELD_NAMES = SchemaFieldNames.values();
+
+    public final int capacity;
+    public final ValueColumns values;
+    public final byte[] operators;
+    public final byte[] presence;
+    public final byte[] average;
+    public int size;
+
+    public SubscriptionBatch(int capacity) {
+        this.capacity = capacity;
+        this.values = new ValueColumns(capacity);
+        this.operators = new byte[capacity * FIELDS_COUNT];
+        this.presence = new byte[capacity];
+        this.average = new byte[capacity];
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    // Starts a new row without fields and returns its index
+    public int newRow() {
+        int row = size++;
+        presence[row] = 0;
+        average[row] = 0;
+        return row;
+    }
+
+    public void setCondition(int row, SchemaFieldNames field, Operator operator, boolean isAverage) {
+        int bit = 1 << field.ordinal();
+        presence[row] |= (byte) bit;
+        if (isAverage) {
+            average[row] |= (byte) bit;
+        }
+        operators[row * FIELDS_COUNT + field.ordinal()] = (byte) operator.ordinal();
+    }
+
+    public boolean has(int row, SchemaFieldNames field) {
+        return (presence[row] & (1 << field.ordinal())) != 0;
+    }
+
+    public boolean isAverage(int row, SchemaFieldNames field) {
+        return (average[row] & (1 << field.ordinal())) != 0;
+    }
+
+    public Operator operator(int row, SchemaFieldNames field) {
+        return OPERATORS[operators[row * FIELDS_COUNT + field.ordinal()]];
+    }
+
+    public int fieldsCount(int row) {
+        return Integer.bitCount(presence[row] & 0xFF);
+    }
+
+    public int add(Subscription subscription) {
+        int row = newRow();
+        for (Map.Entry<SchemaField, SubscriptionValue> entry : subscription.fields.entrySet()) {
+            SchemaFieldNames field = entry.getKey().field();
+            SubscriptionValue value = entry.getValue();
+            values.set(field, row, value.value());
+            setCondition(row, field, value.operator(), value.isAverage());
+        }
+        return row;
+    }
+
+    public Subscription toSubscription(int row) {
+        Subscription subscription = new Subscription();
+        for (SchemaFieldNames field : FIELD_NAMES) {
+            if (has(row, field)) {
+                subscription.addField(SchemaFields.of(field), new SubscriptionValue(
+                        operator(row, field), values.stringValue(field, row), isAverage(row, field)));
+            }
+        }
+        return subscription;
+    }
+
+    // Same layout as Subscription.toJson, fields in SchemaFieldNames order
+    public String toJson(int row) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        int remaining = fieldsCount(row);
+        for (SchemaFieldNames field : FIELD_NAMES) {
+            if (!has(row, field)) continue;
+            sb.append(" \"")
+                    .append(field.toString().toLowerCase())
+                    .append("\": {")
+                    .append(" \"operator\": \"")
+                    .append(GeneratorsParams.MapOperatorToString.get(operator(row, field).ordinal()))
+                    .append("\", \"value\": \"")
+                    .append(values.stringValue(field, row))
+                    .append("\", \"isAverage\": \"")
+                    .append(isAverage(row, field))
+                    .append("\"");
+            sb.append(" }");
+            if (--remaining > 0) {
+                sb.append(",");
+            }
+        }
+        sb.append(" }");
+        return sb.toString();
+    }
+}
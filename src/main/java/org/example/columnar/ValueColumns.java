@@ -0,0 +1,73 @@
+package org.example.columnar;
+
+import org.example.generators.GeneratorsParams;
+import org.example.schema.DateCodec;
+import org.example.schema.SchemaFieldNames;
+
+// One primitive column per schema field. Dates are kept as epoch days and
+// String fields as dictionary ids (see CategoricalFields).
+public class ValueColumns {
+    public final int[] station;
+    public final byte[] city;
+    public final int[] temp;
+    public final double[] rain;
+    public final int[] wind;
+    public final byte[] direction;
+    public final int[] date;
+
+    public ValueColumns(int capacity) {
+        station = new int[capacity];
+        city = new byte[capacity];
+        temp = new int[capacity];
+        rain = new double[capacity];
+        wind = new int[capacity];
+        direction = new byte[capacity];
+        date = new int[capacity];
+    }
+
+    // Same key as FieldValues.toKey for numeric fields
+    public double numericKey(SchemaFieldNames field, int row) {
+        return switch (field) {
+            case Station -> station[row];
+            case Temp -> temp[row];
+            case Rain -> rain[row];
+            case Wind -> wind[row];
+            case Date -> date[row];
+            case City, Direction -> throw new IllegalArgumentException("Field " + field + " has no numeric key");
+        };
+    }
+
+    // FieldDictionary id of the value
+    public int categoryId(SchemaFieldNames field, int row) {
+        return switch (field) {
+            case City -> city[row] & 0xFF;
+            case Direction -> direction[row] & 0xFF;
+            default -> throw new IllegalArgumentException("Field " + field + " is not categorical");
+        };
+    }
+
+    // Same text as the generators produce for the row-based records
+    public String stringValue(SchemaFieldNames field, int row) {
+        return switch (field) {
+            case Station -> String.valueOf(station[row]);
+            case City -> CategoricalFields.decode(field, city[row]);
+            case Temp -> String.valueOf(temp[row]);
+            case Rain -> String.valueOf(rain[row]);
+            case Wind -> String.valueOf(wind[row]);
+            case Direction -> CategoricalFields.decode(field, direction[row]);
+            case Date -> GeneratorsParams.dateLimit.format(date[row]);
+        };
+    }
+
+    public void set(SchemaFieldNames field, int row, String value) {
+        switch (field) {
+            case Station -> station[row] = Integer.parseInt(value);
+            case City -> city[row] = CategoricalFields.encode(field, value);
+            case Temp -> temp[row] = Integer.parseInt(value);
+            case Rain -> rain[row] = Double.parseDouble(value);
+            case Wind -> wind[row] = Integer.parseInt(value);
+            case Direction -> direction[row] = CategoricalFields.encode(field, value);
+            case Date -> date[row] = (int) DateCodec.parseEpochDay(value);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package org.example.generators;
+
+import org.example.schema.Schema;
+import org.example.schema.SchemaField;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+
+// Decides up front which fields every subscription gets, in O(subscriptions + total fields)
+// and without retries:
+//
+// 1. When all fields are restricted, every subscription first gets one "anchor" field:
+//    the fields are laid one after another over a random permutation of the subscriptions,
+//    each for at most its quota, until all subscriptions are covered. This is always
+//    possible because the quotas add up to at least the number of subscriptions.
+// 2. The rest of every restricted field's quota goes to distinct subscriptions picked
+//    uniformly among those that don't have the field yet (Floyd's sampling).
+// 3. Unrestricted fields are picked with probability 50% per subscription, as in the
+//    random algorithm, and a subscription that is still empty gets one of them at random.
+//
+// The result is stored per subscription (CSR layout): the fields of subscription i are
+// fields[offsets[i]] .. fields[offsets[i + 1] - 1], as positions in the schema, in schema order.
+public class FieldAssignmentPlan {
+    private final int[] offsets;
+    private final int[] fields;
+
+    private FieldAssignmentPlan(int[] offsets, int[] fields) {
+        this.offsets = offsets;
+        this.fields = fields;
+    }
+
+    public int fieldsCount(int subscription) {
+        return offsets[subscription + 1] - offsets[subscription];
+    }
+
+    public int field(int subscription, int i) {
+        return fields[offsets[subscription] + i];
+    }
+
+    public static FieldAssignmentPlan create(
+            Schema schema,
+            int numberOfSubscriptions,
+            Map<SchemaField, Integer> fieldsRequiredFrequencies,
+            boolean allFieldsHaveFrequencyRestrictions,
+            SplittableRandom random
+    ) {
+        int n = numberOfSubscriptions;
+        int fieldsCount = schema.fields.size();
+
+        int[] quotas = new int[fieldsCount];
+        boolean[] restricted = new boolean[fieldsCount];
+        long totalQuota = 0;
+        for (int f = 0; f < fieldsCount; f++) {
+            Integer quota = fieldsRequiredFrequencies.get(schema.fields.get(f));
+            if (quota == null) continue;
+            if (quota > n) {
+                throw new IllegalArgumentException("Field " + schema.fields.get(f).field() + " requires " + quota
+                        + " occurrences in " + n + " subscriptions");
+            }
+            restricted[f] = true;
+            quotas[f] = quota;
+            totalQuota += quota;
+        }
+
+        if (allFieldsHaveFrequencyRestrictions && totalQuota < n) {
+            throw new IllegalArgumentException("Total frequency < 100%, some subscriptions would be empty");
+        }
+
+        int[] permutation = new int[n];
+        for (int i = 0; i < n; i++) {
+            permutation[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = permutation[i];
+            permutation[i] = permutation[j];
+            permutation[j] = tmp;
+        }
+
+        // Subscriptions chosen for every field, as positions in the permutation
+        int[][] chosen = new int[fieldsCount][];
+        int[] fieldsPerSubscription = new int[n];
+
+        // 1. Anchors: field f covers the permutation positions [anchorStart[f], anchorStart[f] + anchors[f])
+        int[] anchorStart = new int[fieldsCount];
+        int[] anchors = new int[fieldsCount];
+        if (allFieldsHaveFrequencyRestrictions) {
+            int cursor = 0;
+            for (int f = 0; f < fieldsCount && cursor < n; f++) {
+                anchorStart[f] = cursor;
+                anchors[f] = Math.min(quotas[f], n - cursor);
+                cursor += anchors[f];
+            }
+        }
+
+        // 2. Restricted fields: anchors plus a uniform sample among the other subscriptions
+        int[] marks = new int[n];
+        for (int f = 0; f < fieldsCount; f++) {
+            if (!restricted[f]) continue;
+
+            int[] positions = new int[quotas[f]];
+            int count = 0;
+            for (int k = 0; k < anchors[f]; k++) {
+                positions[count++] = anchorStart[f] + k;
+            }
+
+            // candidate i maps to the permutation position right after the anchors, wrapping around
+            int candidates = n - anchors[f];
+            int remaining = quotas[f] - anchors[f];
+            int candidateBase = anchorStart[f] + anchors[f];
+            int mark = f + 1;
+            for (int j = candidates - remaining; j < candidates; j++) {
+                int t = random.nextInt(j + 1);
+                int position = (candidateBase + t) % n;
+                if (marks[position] == mark) {
+                    position = (candidateBase + j) % n;
+                }
+                marks[position] = mark;
+                positions[count++] = position;
+            }
+
+            for (int p : positions) {
+                fieldsPerSubscription[permutation[p]]++;
+            }
+            chosen[f] = positions;
+        }
+
+        // 3. Unrestricted fields, 50% per subscription
+        int unrestrictedCount = 0;
+        for (int f = 0; f < fieldsCount; f++) {
+            if (!restricted[f]) unrestrictedCount++;
+        }
+
+        // bit u of the subscription's words is set when it gets the u-th unrestricted field
+        int words = (unrestrictedCount + 63) / 64;
+        long[] picks = new long[n * words];
+        if (unrestrictedCount > 0) {
+            for (int s = 0; s < n; s++) {
+                for (int u = 0; u < unrestrictedCount; u++) {
+                    if (random.nextDouble() < 0.5) {
+                        picks[s * words + u / 64] |= 1L << (u % 64);
+                        fieldsPerSubscription[s]++;
+                    }
+                }
+                if (fieldsPerSubscription[s] == 0) {
+                    int u = random.nextInt(unrestrictedCount);
+                    picks[s * words + u / 64] |= 1L << (u % 64);
+                    fieldsPerSubscription[s]++;
+                }
+            }
+        }
+
+        // CSR layout, filled field by field so every subscription lists its fields in schema order
+        int[] offsets = new int[n + 1];
+        for (int s = 0; s < n; s++) {
+            offsets[s + 1] = offsets[s] + fieldsPerSubscription[s];
+        }
+        int[] fields = new int[offsets[n]];
+        int[] next = new int[n];
+        System.arraycopy(offsets, 0, next, 0, n);
+
+        for (int f = 0, u = 0; f < fieldsCount; f++) {
+            if (restricted[f]) {
+                for (int p : chosen[f]) {
+                    int s = permutation[p];
+                    fields[next[s]++] = f;
+                }
+            } else {
+                for (int s = 0; s < n; s++) {
+                    if ((picks[s * words + u / 64] & (1L << (u % 64))) != 0) {
+                        fields[next[s]++] = f;
+                    }
+                }
+                u++;
+            }
+        }
+
+        return new FieldAssignmentPlan(offsets, fields);
+    }
+}
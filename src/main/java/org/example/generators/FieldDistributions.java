@@ -0,0 +1,126 @@
+package org.example.generators;
+
+import org.example.schema.AliasTable;
+import org.example.schema.DateCodec;
+import org.example.schema.SchemaFieldNames;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+
+// Value distributions of the generated fields, read from config.properties:
+//
+//   distribution.<FIELD>=uniform | weighted:<w1>,<w2>,... | zipf:<exponent> | normal:<mean>,<stddev>
+//
+// Values are taken in order: City / Direction as listed in GeneratorsParams, numbers and
+// dates from min up (Rain in steps of 0.01). weighted gives one weight per value, zipf gives
+// the k-th value a weight of 1 / k^exponent and normal is restricted to the field limits
+// (mean as dd.MM.yyyy for Date, as a position for City / Direction). Every non-uniform field
+// gets an AliasTable over its values, set on its limit in GeneratorsParams, so a skewed draw
+// costs one nextLong. Uniform fields keep their draws, so a seed still gives the same data.
+public class FieldDistributions {
+    private final static int MAX_VALUES = 1 << 22;
+
+    private FieldDistributions() {
+    }
+
+    // Sets the distribution of every field, returns the non-uniform ones
+    public static Map<SchemaFieldNames, String> configure(Properties props) {
+        Map<SchemaFieldNames, String> configured = new EnumMap<>(SchemaFieldNames.class);
+        for (SchemaFieldNames field : SchemaFieldNames.values()) {
+            String spec = props.getProperty("distribution." + field.name().toUpperCase(), "uniform").trim();
+            AliasTable table = spec.equals("uniform") ? null : build(field, spec);
+            setDistribution(field, table);
+            if (table != null) {
+                configured.put(field, spec);
+            }
+        }
+        return configured;
+    }
+
+    public static AliasTable build(SchemaFieldNames field, String spec) {
+        int separator = spec.indexOf(':');
+        String kind = separator < 0 ? spec : spec.substring(0, separator).trim();
+        String[] args = separator < 0 ? new String[0] : spec.substring(separator + 1).split(",");
+
+        int count = valuesCount(field);
+        if (count > MAX_VALUES) {
+            throw new IllegalArgumentException("Field " + field + " has too many values for a distribution: " + count);
+        }
+
+        double[] weights = new double[count];
+        switch (kind) {
+            case "weighted" -> {
+                if (args.length != count) {
+                    throw new IllegalArgumentException("distribution of " + field + " needs " + count + " weights");
+                }
+                for (int k = 0; k < count; k++) {
+                    weights[k] = Double.parseDouble(args[k].trim());
+                }
+            }
+            case "zipf" -> {
+                double exponent = Double.parseDouble(argument(field, args, 1)[0]);
+                for (int k = 0; k < count; k++) {
+                    weights[k] = 1.0 / Math.pow(k + 1, exponent);
+                }
+            }
+            case "normal" -> {
+                String[] values = argument(field, args, 2);
+                double mean = field == SchemaFieldNames.Date
+                        ? DateCodec.parseEpochDay(values[0])
+                        : Double.parseDouble(values[0]);
+                double stddev = Double.parseDouble(values[1]);
+                for (int k = 0; k < count; k++) {
+                    double z = (value(field, k) - mean) / stddev;
+                    weights[k] = Math.exp(-0.5 * z * z);
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown distribution for " + field + ": " + spec);
+        }
+        return new AliasTable(weights);
+    }
+
+    private static String[] argument(SchemaFieldNames field, String[] args, int expected) {
+        if (args.length != expected) {
+            throw new IllegalArgumentException("distribution of " + field + " needs " + expected + " parameter(s)");
+        }
+        return Arrays.stream(args).map(String::trim).toArray(String[]::new);
+    }
+
+    private static int valuesCount(SchemaFieldNames field) {
+        return switch (field) {
+            case Station -> GeneratorsParams.stationLimit.max - GeneratorsParams.stationLimit.min + 1;
+            case City -> GeneratorsParams.cityLimit.values.size();
+            case Temp -> GeneratorsParams.tempLimit.max - GeneratorsParams.tempLimit.min + 1;
+            case Rain -> GeneratorsParams.rainLimit.valuesCount();
+            case Wind -> GeneratorsParams.windLimit.max - GeneratorsParams.windLimit.min + 1;
+            case Direction -> GeneratorsParams.directionLimit.values.size();
+            case Date -> (int) (GeneratorsParams.dateLimit.maxEpochDay - GeneratorsParams.dateLimit.minEpochDay + 1);
+        };
+    }
+
+    // The k-th value of the field, as a number
+    private static double value(SchemaFieldNames field, int k) {
+        return switch (field) {
+            case Station -> GeneratorsParams.stationLimit.min + k;
+            case City, Direction -> k;
+            case Temp -> GeneratorsParams.tempLimit.min + k;
+            case Rain -> (Math.round(GeneratorsParams.rainLimit.min * 100.0) + k) / 100.0;
+            case Wind -> GeneratorsParams.windLimit.min + k;
+            case Date -> GeneratorsParams.dateLimit.minEpochDay + k;
+        };
+    }
+
+    private static void setDistribution(SchemaFieldNames field, AliasTable table) {
+        switch (field) {
+            case Station -> GeneratorsParams.stationLimit.setDistribution(table);
+            case City -> GeneratorsParams.cityLimit.setDistribution(table);
+            case Temp -> GeneratorsParams.tempLimit.setDistribution(table);
+            case Rain -> GeneratorsParams.rainLimit.setDistribution(table);
+            case Wind -> GeneratorsParams.windLimit.setDistribution(table);
+            case Direction -> GeneratorsParams.directionLimit.setDistribution(table);
+            case Date -> GeneratorsParams.dateLimit.setDistribution(table);
+        }
+    }
+}
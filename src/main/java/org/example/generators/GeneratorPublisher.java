@@ -0,0 +1,140 @@
+package org.example.generators;
+
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Flow.Publisher over a lazy generator iterator. A record is generated only when it
+// can be delivered (outstanding demand), so a paused or cancelled subscriber leaves
+// the generator exactly at the records it received. Generators are single-use, so
+// the publisher accepts a single subscriber.
+public class GeneratorPublisher<T> implements Flow.Publisher<T> {
+    private final Iterator<T> source;
+    private final Executor executor;
+    private final AtomicBoolean subscribed = new AtomicBoolean(false);
+
+    public GeneratorPublisher(Iterator<T> source, Executor executor) {
+        this.source = source;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("The generator publisher supports a single subscriber"));
+            return;
+        }
+        GeneratorSubscription subscription = new GeneratorSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    private class GeneratorSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super T> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private volatile boolean cancelled;
+        // Invalid request, delivered by the drain so that onError never overlaps onNext
+        private volatile Throwable error;
+        private boolean completed;
+
+        private GeneratorSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                if (error == null) {
+                    error = new IllegalArgumentException("Requested " + n + " records, must be positive");
+                }
+                // one more unit of demand makes sure a drain runs and sees the error
+                n = 1;
+            }
+
+            // Only the request that moves demand away from zero schedules a drain,
+            // so there is never more than one drain running
+            long previous = demand.getAndAccumulate(n, (current, added) -> {
+                long sum = current + added;
+                return sum < 0 ? Long.MAX_VALUE : sum;
+            });
+            if (previous == 0) {
+                executor.execute(this::drain);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        private void drain() {
+            long pending = demand.get();
+            while (true) {
+                long emitted = 0;
+                while (emitted < pending) {
+                    if (stopped() || finished()) return;
+
+                    T next;
+                    try {
+                        next = source.next();
+                    } catch (RuntimeException e) {
+                        fail(e);
+                        return;
+                    }
+                    subscriber.onNext(next);
+                    emitted++;
+                }
+
+                if (stopped() || finished()) return;
+
+                pending = demand.addAndGet(-emitted);
+                if (pending == 0) return;
+            }
+        }
+
+        // True when nothing more may be signalled, delivers a pending request error
+        private boolean stopped() {
+            if (cancelled || completed) return true;
+            if (error != null) {
+                fail(error);
+                return true;
+            }
+            return false;
+        }
+
+        // True when the source is exhausted or failing, the subscriber has then been notified
+        private boolean finished() {
+            boolean hasNext;
+            try {
+                hasNext = source.hasNext();
+            } catch (RuntimeException e) {
+                fail(e);
+                return true;
+            }
+            if (!hasNext) {
+                complete();
+            }
+            return !hasNext;
+        }
+
+        private void fail(Throwable e) {
+            cancelled = true;
+            subscriber.onError(e);
+        }
+
+        private void complete() {
+            completed = true;
+            subscriber.onComplete();
+        }
+    }
+}
@@ -1,36 +1,41 @@
 package org.example.generators;
 
+import org.example.schema.CategoricalFieldLimit;
 import org.example.schema.DateFieldLimit;
 import org.example.schema.DoubleFieldLimit;
+import org.example.schema.FieldDefinition;
 import org.example.schema.IntegerFieldLimit;
+import org.example.schema.SchemaDefinition;
 
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
-import java.util.Date;
+import java.time.LocalDate;
 import java.util.List;
 
 public class GeneratorsParams {
-    public final static SimpleDateFormat dateFormat = new SimpleDateFormat("dd.MM.yyyy");
     public final static List<String> directions = List.of("N", "NE", "E", "SE", "S", "SW", "W", "NW");
     public final static List<String> cities = List.of("Bucharest", "Cluj", "Timisoara", "Iasi", "Constanta");
+    public final static CategoricalFieldLimit directionLimit = new CategoricalFieldLimit(directions);
+    public final static CategoricalFieldLimit cityLimit = new CategoricalFieldLimit(cities);
     public final static IntegerFieldLimit tempLimit = new IntegerFieldLimit(-30, 50);
     public final static IntegerFieldLimit windLimit= new IntegerFieldLimit(0, 100);
     public final static IntegerFieldLimit stationLimit = new IntegerFieldLimit(1, 100);
     public final static DoubleFieldLimit rainLimit = new DoubleFieldLimit(0.0, 100.0);
 
-    public final static DateFieldLimit dateLimit;
-    static {
-        Calendar cal = Calendar.getInstance();
-        // start date: January 1, 2025
-        cal.set(2025, Calendar.JANUARY, 1, 0, 0, 0);
-        cal.set(Calendar.MILLISECOND, 0);
-        Date startDate = cal.getTime();
-        // end date: December 31, 2025
-        cal.set(2025, Calendar.DECEMBER, 31, 23, 59, 59);
-        Date endDate = cal.getTime();
+    // January 1, 2025 - December 31, 2025
+    public final static DateFieldLimit dateLimit = new DateFieldLimit(
+            LocalDate.of(2025, 1, 1),
+            LocalDate.of(2025, 12, 31)
+    );
 
-        dateLimit = new DateFieldLimit(startDate, endDate);
-    }
+    // The fields above as a SchemaDefinition, in schema order
+    public final static SchemaDefinition schemaDefinition = new SchemaDefinition(List.of(
+            FieldDefinition.ofInteger("station", stationLimit),
+            FieldDefinition.ofStrings("city", cities),
+            FieldDefinition.ofInteger("temp", tempLimit),
+            FieldDefinition.ofDouble("rain", rainLimit),
+            FieldDefinition.ofInteger("wind", windLimit),
+            FieldDefinition.ofStrings("direction", directions),
+            FieldDefinition.ofDate("date", dateLimit)
+    ));
 
     public final static List<String> MapOperatorToString = List.of(
             ">",
@@ -0,0 +1,11 @@
+package org.example.generators;
+
+import org.example.metrics.LatencyHistogram;
+
+// latency: from the intended send time of every publication to the end of its save, so time
+// spent behind schedule counts (no coordinated omission). serviceTime: from the moment the
+// worker started on the publication, what a closed-loop measurement would report.
+// finishLagNanos: how late the last publication of the worker was done.
+public record PacedWorkerStatistics(int worker, long records, long bursts, LatencyHistogram latency,
+                                    LatencyHistogram serviceTime, long finishLagNanos) {
+}
@@ -1,66 +1,290 @@
 package org.example.generators;
 
+import org.example.metrics.GenerationMetrics;
+import org.example.metrics.LatencyHistogram;
+import org.example.metrics.WorkerMetrics;
 import org.example.schema.Schema;
 import org.example.storage.PublicationSaver;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ParallelPublicationsGenerator {
+    private final static long PACED_START_DELAY_NANOS = 10_000_000;
+
+    // Static scheduling with the per-thread report. The executor belongs to the caller,
+    // so its startup is not part of the run.
     public static void generatePublicationsMultithreaded(
             Schema schema,
+            ExecutorService executor,
             int numberOfThreads,
             int numberOfPublications,
-            PublicationSaver publicationSaver
+            PublicationSaver publicationSaver,
+            SplittableRandom random,
+            int batchSize,
+            GenerationMetrics metrics
     ) {
-        ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
-        List<Future<Long>> futures = new ArrayList<>();
-        List<Integer> records = new ArrayList<>();
+        long gcTimeAtStart = ResourceUsage.gcTimeMillis();
+        long gcCountAtStart = ResourceUsage.gcCount();
+
+        List<WorkerStatistics> allStats;
+        try {
+            allStats = generatePublications(schema, executor, numberOfThreads, numberOfPublications,
+                    publicationSaver, random, batchSize, metrics);
+        } catch (Exception e) {
+            System.err.println("Error in thread: " + e.getMessage());
+            return;
+        }
+
+        System.out.println("\n=== Per-Thread Statistics ===");
+        System.out.printf("%-8s | %-10s | %-10s | %-10s | %-10s | %-10s%n",
+                "Thread", "Pubs", "Time (ms)", "CPU (ms)", "CPU ns/rec", "Bytes/rec");
+        System.out.println("-----------------------------------------------------------------------");
+
+        for (WorkerStatistics stats : allStats) {
+            System.out.printf("%-8d | %-10d | %10d | %10d | %10s | %10s%n",
+                    stats.worker(), stats.totalRecords(), stats.totalTimeInMillis(),
+                    stats.cpuTimeNanos() / 1_000_000,
+                    ResourceUsage.perRecord(stats.cpuTimeNanos(), stats.totalRecords()),
+                    ResourceUsage.perRecord(stats.allocatedBytes(), stats.totalRecords()));
+        }
+        printGcStatistics(gcCountAtStart, gcTimeAtStart);
+    }
+
+    // Static scheduling on an executor owned by the caller (which can reuse it between runs):
+    // worker i generates its share of numberOfPublications / numberOfThreads publications.
+    // Prints nothing, the statistics are returned.
+    public static List<WorkerStatistics> generatePublications(
+            Schema schema,
+            ExecutorService executor,
+            int numberOfThreads,
+            int numberOfPublications,
+            PublicationSaver publicationSaver,
+            SplittableRandom random,
+            int batchSize,
+            GenerationMetrics metrics
+    ) throws Exception {
+        List<Future<WorkerStatistics>> futures = new ArrayList<>();
 
         int chunkSize = numberOfPublications / numberOfThreads;
         int reminder = numberOfPublications % numberOfThreads;
+        SplittableRandom[] randoms = WorkerRandoms.split(random, numberOfThreads);
 
         for (int i = 0; i < numberOfThreads; i++) {
             PublicationsGenerator localGen = new PublicationsGenerator(schema, chunkSize + (i < reminder ? 1 : 0));
-            localGen.setPublicationSaver(publicationSaver);
+            localGen.setPublicationSaver(publicationSaver.forWorker(i));
+            localGen.setRandom(randoms[i]);
+            localGen.setBatchSize(batchSize);
+
+            int worker = i;
+            int records = chunkSize + (i < reminder ? 1 : 0);
+            WorkerMetrics workerMetrics = metrics != null ? metrics.worker(i) : null;
+            localGen.setMetrics(workerMetrics);
 
-            records.add(chunkSize + (i < reminder ? 1 : 0));
+            futures.add(executor.submit(() -> {
+                if (workerMetrics != null) workerMetrics.start();
+                ResourceUsage usage = ResourceUsage.start();
+                long timeMs = localGen.generatePublications();
+                if (workerMetrics != null) workerMetrics.finish();
+                return new WorkerStatistics(worker, records, 1, timeMs, usage.cpuTimeNanos(), usage.allocatedBytes());
+            }));
+        }
 
-            Future<Long> future = executor.submit(localGen::generatePublications);
-            futures.add(future);
+        List<WorkerStatistics> allStats = new ArrayList<>();
+        for (Future<WorkerStatistics> future : futures) {
+            allStats.add(future.get());
         }
+        return allStats;
+    }
 
-        executor.shutdown();
+    private static void printGcStatistics(long gcCountAtStart, long gcTimeAtStart) {
+        System.out.printf("** GC: %d collections, %d ms%n",
+                ResourceUsage.gcCount() - gcCountAtStart, ResourceUsage.gcTimeMillis() - gcTimeAtStart);
+    }
 
-        try {
-            if (!executor.awaitTermination(1, TimeUnit.HOURS)) {
-                executor.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            executor.shutdownNow();
-            Thread.currentThread().interrupt();
+    // Dynamic scheduling: workers repeatedly claim the next `claimSize` publications from a
+    // shared cursor, so a slow worker takes fewer batches instead of stretching the run.
+    // The executor belongs to the caller and can be reused between runs. Every claim has
+    // its own random stream, so the generated records do not depend on which worker took it.
+    public static List<WorkerStatistics> generatePublicationsDynamic(
+            Schema schema,
+            ExecutorService executor,
+            int numberOfWorkers,
+            int numberOfPublications,
+            int claimSize,
+            PublicationSaver publicationSaver,
+            SplittableRandom random,
+            int batchSize,
+            GenerationMetrics metrics
+    ) throws Exception {
+        if (claimSize <= 0) {
+            throw new IllegalArgumentException("Claim size must be positive");
+        }
+        int claimsCount = (numberOfPublications + claimSize - 1) / claimSize;
+        long[] claimSeeds = new long[claimsCount];
+        for (int i = 0; i < claimsCount; i++) {
+            claimSeeds[i] = random.nextLong();
+        }
+
+        long gcTimeAtStart = ResourceUsage.gcTimeMillis();
+        long gcCountAtStart = ResourceUsage.gcCount();
+        AtomicInteger cursor = new AtomicInteger();
+        List<Future<WorkerStatistics>> futures = new ArrayList<>();
+
+        for (int i = 0; i < numberOfWorkers; i++) {
+            int worker = i;
+            PublicationSaver workerSaver = publicationSaver.forWorker(i);
+            WorkerMetrics workerMetrics = metrics != null ? metrics.worker(i) : null;
+
+            futures.add(executor.submit(() -> {
+                if (workerMetrics != null) workerMetrics.start();
+                ResourceUsage usage = ResourceUsage.start();
+                long start = System.nanoTime();
+                long records = 0;
+                int batches = 0;
+
+                int claim;
+                while ((claim = cursor.getAndIncrement()) < claimsCount) {
+                    int count = Math.min(claimSize, numberOfPublications - claim * claimSize);
+
+                    PublicationsGenerator localGen = new PublicationsGenerator(schema, count);
+                    localGen.setPublicationSaver(workerSaver);
+                    localGen.setRandom(new SplittableRandom(claimSeeds[claim]));
+                    localGen.setBatchSize(batchSize);
+                    localGen.setMetrics(workerMetrics);
+                    localGen.generatePublications();
+
+                    records += count;
+                    batches++;
+                }
+
+                long end = System.nanoTime();
+                if (workerMetrics != null) workerMetrics.finish();
+                return new WorkerStatistics(worker, records, batches, (end - start) / 1_000_000,
+                        usage.cpuTimeNanos(), usage.allocatedBytes());
+            }));
+        }
+
+        List<WorkerStatistics> allStats = new ArrayList<>();
+        for (Future<WorkerStatistics> future : futures) {
+            allStats.add(future.get());
+        }
+
+        System.out.println("\n=== Per-Thread Statistics ===");
+        System.out.printf("%-8s | %-10s | %-10s | %-10s | %-10s | %-10s | %-10s%n",
+                "Thread", "Pubs", "Batches", "Time (ms)", "CPU (ms)", "CPU ns/rec", "Bytes/rec");
+        System.out.println("----------------------------------------------------------------------------------");
+
+        for (WorkerStatistics stats : allStats) {
+            System.out.printf("%-8d | %-10d | %-10d | %10d | %10d | %10s | %10s%n",
+                    stats.worker(), stats.totalRecords(), stats.batches(), stats.totalTimeInMillis(),
+                    stats.cpuTimeNanos() / 1_000_000,
+                    ResourceUsage.perRecord(stats.cpuTimeNanos(), stats.totalRecords()),
+                    ResourceUsage.perRecord(stats.allocatedBytes(), stats.totalRecords()));
+        }
+        printGcStatistics(gcCountAtStart, gcTimeAtStart);
+
+        return allStats;
+    }
+
+    // Open-loop emission at ratePerSecond publications/s in total: worker i takes slots i, i + N,
+    // i + 2N, ... of one shared schedule (see PublicationsGenerator.emitPaced). Prints how closely
+    // the schedule was followed; a publication is on time when it is saved within onTimeNanos
+    // of its slot.
+    public static List<PacedWorkerStatistics> emitPublicationsPaced(
+            Schema schema,
+            int numberOfThreads,
+            int numberOfPublications,
+            double ratePerSecond,
+            long onTimeNanos,
+            PublicationSaver publicationSaver,
+            SplittableRandom random,
+            int batchSize,
+            WorkerThreads workerThreads
+    ) throws Exception {
+        double periodNanos = 1_000_000_000.0 / ratePerSecond;
+        ExecutorService executor = workerThreads.newExecutor(numberOfThreads);
+        List<Future<PacedWorkerStatistics>> futures = new ArrayList<>();
+
+        // one start for all, a little ahead so that no worker begins behind schedule
+        long startNanos = System.nanoTime() + PACED_START_DELAY_NANOS;
+        SplittableRandom[] randoms = WorkerRandoms.split(random, numberOfThreads);
+        for (int i = 0; i < numberOfThreads; i++) {
+            int worker = i;
+            int records = numberOfPublications / numberOfThreads + (i < numberOfPublications % numberOfThreads ? 1 : 0);
+            PublicationsGenerator localGen = new PublicationsGenerator(schema, records);
+            localGen.setPublicationSaver(publicationSaver.forWorker(i));
+            localGen.setRandom(randoms[i]);
+            localGen.setBatchSize(batchSize);
+
+            futures.add(executor.submit(() -> localGen.emitPaced(worker, startNanos, periodNanos, worker, numberOfThreads)));
         }
 
-        List<Long> allStats = new ArrayList<>();
-        for (Future<Long> future : futures) {
-            try {
+        List<PacedWorkerStatistics> allStats = new ArrayList<>();
+        try {
+            for (Future<PacedWorkerStatistics> future : futures) {
                 allStats.add(future.get());
-            } catch (Exception e) {
-                System.err.println("Error in thread: " + e.getMessage());
             }
+        } finally {
+            executor.shutdown();
         }
+        long endNanos = System.nanoTime();
 
-        System.out.println("\n=== Per-Thread Statistics ===");
-        System.out.printf("%-8s | %-10s | %-10s%n", "Thread", "Pubs", "Time (ms)");
-        System.out.println("----------------------------------");
+        printPacedReport(allStats, numberOfPublications, ratePerSecond, onTimeNanos, endNanos - startNanos);
+        return allStats;
+    }
 
-        for (int i = 0; i < allStats.size(); i++) {
-            long timeMs = allStats.get(i);
-            System.out.printf("%-8d | %-10d | %10d%n", i, records.get(i), timeMs);
+    private static void printPacedReport(List<PacedWorkerStatistics> allStats, int numberOfPublications,
+                                         double ratePerSecond, long onTimeNanos, long durationNanos) {
+        LatencyHistogram latency = new LatencyHistogram();
+        LatencyHistogram serviceTime = new LatencyHistogram();
+        long bursts = 0;
+        long finishLag = 0;
+        for (PacedWorkerStatistics stats : allStats) {
+            latency.add(stats.latency());
+            serviceTime.add(stats.serviceTime());
+            bursts += stats.bursts();
+            finishLag = Math.max(finishLag, stats.finishLagNanos());
         }
+
+        double plannedMillis = numberOfPublications / ratePerSecond * 1000.0;
+        double actualMillis = durationNanos / 1_000_000.0;
+        System.out.printf("%n=== Paced Emission (target %.0f pubs/s) ===%n", ratePerSecond);
+        System.out.printf("** Planned duration: %.1f ms%n", plannedMillis);
+        System.out.printf("** Actual duration:  %.1f ms (%.0f pubs/s)%n", actualMillis,
+                actualMillis == 0 ? 0 : numberOfPublications / actualMillis * 1000.0);
+        System.out.printf("** Behind schedule at the end: %.2f ms%n", finishLag / 1_000_000.0);
+        System.out.printf("** On time (<= %d us): %.2f%%%n", onTimeNanos / 1000, onTimePercent(latency, onTimeNanos));
+
+        System.out.println("\nLatency from the intended send time (us):");
+        System.out.printf("%-8s | %-10s | %-8s | %-8s | %-8s | %-8s | %-8s | %-10s | %-10s | %-10s%n",
+                "Thread", "Pubs", "Bursts", "p50", "p99", "p99.9", "p99.99", "Max", "Svc p99", "On time %");
+        System.out.println("-----------------------------------------------------------------------------------------------------------");
+        for (PacedWorkerStatistics stats : allStats) {
+            printPacedRow(String.valueOf(stats.worker()), stats.records(), stats.bursts(),
+                    stats.latency(), stats.serviceTime(), onTimeNanos);
+        }
+        printPacedRow("all", numberOfPublications, bursts, latency, serviceTime, onTimeNanos);
+    }
+
+    private static void printPacedRow(String thread, long records, long bursts, LatencyHistogram latency,
+                                      LatencyHistogram serviceTime, long onTimeNanos) {
+        System.out.printf("%-8s | %-10d | %-8d | %8.1f | %8.1f | %8.1f | %8.1f | %10.1f | %10.2f | %10.2f%n",
+                thread, records, bursts,
+                latency.percentile(50) / 1000.0,
+                latency.percentile(99) / 1000.0,
+                latency.percentile(99.9) / 1000.0,
+                latency.percentile(99.99) / 1000.0,
+                latency.max() / 1000.0,
+                serviceTime.percentile(99) / 1000.0,
+                onTimePercent(latency, onTimeNanos));
+    }
+
+    private static double onTimePercent(LatencyHistogram latency, long onTimeNanos) {
+        return latency.count() == 0 ? 100.0 : latency.countAtOrBelow(onTimeNanos) * 100.0 / latency.count();
     }
 }
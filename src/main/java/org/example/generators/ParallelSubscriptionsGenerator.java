@@ -1,5 +1,7 @@
 package org.example.generators;
 
+import org.example.metrics.GenerationMetrics;
+import org.example.metrics.WorkerMetrics;
 import org.example.schema.Schema;
 import org.example.schema.SchemaField;
 import org.example.storage.SubscriptionSaver;
@@ -8,10 +10,9 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.SplittableRandom;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
 
 public class ParallelSubscriptionsGenerator {
     public static void generateSubscriptionsMultiThreaded (
@@ -21,213 +22,48 @@ public class ParallelSubscriptionsGenerator {
             Map<SchemaField, Double> fieldsFrequencyPercentage,
             Map<SchemaField, Double> equalOperatorsFrequencyPercentage,
             double avgFieldProbability,
-            SubscriptionSaver subscriptionSaver
+            SubscriptionSaver subscriptionSaver,
+            SplittableRandom random,
+            int batchSize,
+            boolean plannedFieldAssignment,
+            WorkerThreads workerThreads,
+            GenerationMetrics metrics
     ) throws Exception {
+        ExecutorService executor = workerThreads.newExecutor(numberOfThreads);
+        long gcTimeAtStart = ResourceUsage.gcTimeMillis();
+        long gcCountAtStart = ResourceUsage.gcCount();
 
-        boolean allFieldsHaveFrequencyRestrictions = schema.fields.size() == fieldsFrequencyPercentage.size();
-
-        int totalFieldsCount = 0;
-
-        Map<SchemaField, Integer> globalTargetFieldFrequencies = new HashMap<>();
-        Map<SchemaField, Integer> globalEqualOperatorsFrequencies = new HashMap<>();
-
-        // Transform the frequency percentages into absolute frequencies
-        for (SchemaField field : schema.fields) {
-            Double pct = fieldsFrequencyPercentage.get(field);
-            if (pct != null) {
-                int freq = (int) Math.round(pct * totalSubscriptions / 100.0);
-                globalTargetFieldFrequencies.put(field, freq);
-                totalFieldsCount += freq;
-
-                Double operatorPct = equalOperatorsFrequencyPercentage.get(field);
-                if (operatorPct != null) {
-                    int operatorFreq = (int) Math.round(operatorPct * freq / 100.0);
-                    globalEqualOperatorsFrequencies.put(field, operatorFreq);
-                }
-            }
-        }
-
-        if (allFieldsHaveFrequencyRestrictions && totalFieldsCount < totalSubscriptions) {
-            throw new Exception("Total frequency < 100% for multi-thread usage");
-        }
-
-        List<Map<SchemaField, Integer>> threadTargetFieldsFrequencies = new ArrayList<>();
-        for (int i = 0; i < numberOfThreads; i++) {
-            threadTargetFieldsFrequencies.add(new HashMap<>());
-        }
-
-        // Distribute the frequencies across threads
-        int[] numberOfSubsPerThread = new int[numberOfThreads];
-
-        int chunkSize = totalSubscriptions / numberOfThreads;
-        int remainderSize = totalSubscriptions % numberOfThreads;
-
-        for (int i = 0; i < numberOfThreads; i++) {
-            numberOfSubsPerThread[i] = chunkSize + (i < remainderSize ? 1 : 0);
-        }
-
-        for (Map.Entry<SchemaField, Integer> entry : globalTargetFieldFrequencies.entrySet()) {
-            SchemaField field = entry.getKey();
-            int fieldCount = entry.getValue();
-
-            int threadChunkSize = fieldCount / numberOfThreads;
-            int threadRemainderSize = fieldCount % numberOfThreads;
-
-            for (int i = 0; i < numberOfThreads; i++) {
-                int count = threadChunkSize + (i < threadRemainderSize ? 1 : 0);
-                threadTargetFieldsFrequencies.get(i).put(field, count);
-            }
-        }
-
-        int[] countOfFieldsPerThread = new int[numberOfThreads];
-
-        if (allFieldsHaveFrequencyRestrictions) {
-            // Check for threads that might generate empty subscriptions
-            // because the number of subscriptions to generate
-            // is higher than the total number of fields
-
-            List<Integer> threadsThatNeedMoreFields = new ArrayList<>();
-            List<Integer> threadsThatCanDonate = new ArrayList<>();
-
-            for (int i = 0; i < numberOfThreads; i++) {
-                countOfFieldsPerThread[i] = threadTargetFieldsFrequencies.get(i)
-                        .values()
-                        .stream()
-                        .mapToInt(Integer::intValue)
-                        .sum();
-
-                if (countOfFieldsPerThread[i] < numberOfSubsPerThread[i]) {
-                    threadsThatNeedMoreFields.add(i);
-                } else if (countOfFieldsPerThread[i] > numberOfSubsPerThread[i]) {
-                    threadsThatCanDonate.add(i);
-                }
-            }
-
-            // Redistribute fields from threads that can donate to threads that need more fields
-            for (int i : threadsThatNeedMoreFields) {
-                int needed = numberOfSubsPerThread[i] - countOfFieldsPerThread[i];
-                if (needed <= 0) continue;
-
-                for (int j : threadsThatCanDonate) {
-                    if (needed == 0) break;
-
-                    int excess = countOfFieldsPerThread[j] - numberOfSubsPerThread[j];
-                    if (excess <= 0) continue;
-
-                    Map<SchemaField, Integer> fromThreadFields = threadTargetFieldsFrequencies.get(j);
-                    Map<SchemaField, Integer> toThreadFields = threadTargetFieldsFrequencies.get(i);
-
-                    for (SchemaField field : new HashMap<>(fromThreadFields).keySet()) {
-                        var fieldCount = fromThreadFields.get(field);
-
-                        if (fieldCount <= 0) continue;
-
-                        var transferable = Math.min(fieldCount, excess);
-                        var transferred = Math.min(transferable, needed);
-
-                        fromThreadFields.put(field, fieldCount - transferred);
-                        toThreadFields.put(field, toThreadFields.getOrDefault(field, 0) + transferred);
-
-                        countOfFieldsPerThread[j] -= transferred;
-                        countOfFieldsPerThread[i] += transferred;
-
-                        needed -= transferred;
-                        excess -= transferred;
-
-                        if (needed == 0 || excess == 0) break;
-                    }
-                }
-
-                if (needed > 0) {
-                    throw new IllegalStateException("Couldn't redistribute fields to thread  " + i);
-                }
-            }
-        }
-
-        // Distribute the equal operators frequencies across threads
-        List<Map<SchemaField, Integer>> threadEqualOperatorsFrequencies = new ArrayList<>();
-        for (int i = 0; i < numberOfThreads; i++) {
-            threadEqualOperatorsFrequencies.add(new HashMap<>());
-        }
-
-        for (Map.Entry<SchemaField, Integer> entry : globalEqualOperatorsFrequencies.entrySet()) {
-            SchemaField field = entry.getKey();
-            int operatorCount = entry.getValue();
-
-            int operatorMediumChunkSize = operatorCount / numberOfThreads + 1;
-
-            while (operatorCount > 0) {
-                for (int i = 0; i < numberOfThreads; i++) {
-                    int threadFieldCount = threadTargetFieldsFrequencies.get(i).getOrDefault(field, 0);
-                    int threadFieldOperatorCount = threadEqualOperatorsFrequencies.get(i).getOrDefault(field, 0);
-
-                    // Cannot have more operators than fields
-                    // Redistribute the operators evenly across threads
-                    if (threadFieldCount - threadFieldOperatorCount > 0) {
-                        int chunkReserved = Math.min(operatorMediumChunkSize, threadFieldCount - threadFieldOperatorCount);
-                        chunkReserved = Math.min(chunkReserved, operatorCount);
-
-                        threadEqualOperatorsFrequencies.get(i).put(field, chunkReserved);
-                        operatorCount -= chunkReserved;
-                    }
-                }
-            }
-        }
-
-        ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
-        List<Future<Statistics>> futures = new ArrayList<>();
-
-        for (int i = 0; i < numberOfThreads; i++) {
-            int numberOfSubsToGenerate = numberOfSubsPerThread[i];
-
-            SubscriptionsGenerator localGen = new SubscriptionsGenerator(
-                    schema,
-                    numberOfSubsToGenerate,
-                    threadTargetFieldsFrequencies.get(i),
-                    threadEqualOperatorsFrequencies.get(i),
-                    equalOperatorsFrequencyPercentage,
-                    allFieldsHaveFrequencyRestrictions,
-                    countOfFieldsPerThread[i],
-                    avgFieldProbability
-            );
-
-            localGen.setSubscriptionSaver(subscriptionSaver);
-
-            Future<Statistics> future = executor.submit(localGen::generateSubscriptions);
-            futures.add(future);
-        }
-
-        executor.shutdown();
+        List<Statistics> allStats;
         try {
-            if (!executor.awaitTermination(1, TimeUnit.HOURS)) {
-                executor.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            executor.shutdownNow();
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Thread interrupted", e);
-        }
-
-        List<Statistics> allStats = new ArrayList<>();
-        for (Future<Statistics> future : futures) {
-            try {
-                allStats.add(future.get());
-            } catch (Exception e) {
-                System.err.println("Error in thread: " + e.getMessage());
-            }
+            allStats = generateSubscriptions(schema, executor, totalSubscriptions, numberOfThreads,
+                    fieldsFrequencyPercentage, equalOperatorsFrequencyPercentage, avgFieldProbability,
+                    subscriptionSaver, random, batchSize, plannedFieldAssignment, metrics);
+        } finally {
+            executor.shutdown();
         }
 
         System.out.println("\n=== Per-Thread Statistics ===");
-        System.out.printf("%-8s | %-10s | %-10s%n", "Thread", "Subs", "Time (ms)");
-        System.out.println("----------------------------------");
+        System.out.printf("%-8s | %-10s | %-10s | %-10s | %-10s | %-10s%n",
+                "Thread", "Subs", "Time (ms)", "CPU (ms)", "CPU ns/rec", "Bytes/rec");
+        System.out.println("-----------------------------------------------------------------------");
 
         for (int i = 0; i < allStats.size(); i++) {
             Statistics stats = allStats.get(i);
             long records = stats.totalRecords();
             long timeMs = stats.totalTimeInMillis();
 
-            System.out.printf("%-8d | %-10d | %10d%n", i, records, timeMs);
+            System.out.printf("%-8d | %-10d | %10d | %10d | %10s | %10s%n", i, records, timeMs,
+                    stats.cpuTimeNanos() / 1_000_000,
+                    ResourceUsage.perRecord(stats.cpuTimeNanos(), records),
+                    ResourceUsage.perRecord(stats.allocatedBytes(), records));
         }
+        System.out.printf("** GC: %d collections, %d ms%n",
+                ResourceUsage.gcCount() - gcCountAtStart, ResourceUsage.gcTimeMillis() - gcTimeAtStart);
+
+        Map<SchemaField, Integer> globalTargetFieldFrequencies =
+                targetFieldFrequencies(schema, totalSubscriptions, fieldsFrequencyPercentage);
+        Map<SchemaField, Integer> globalEqualOperatorsFrequencies =
+                targetEqualOperatorsFrequencies(globalTargetFieldFrequencies, equalOperatorsFrequencyPercentage);
 
         // Combine statistics from all threads
         Map<SchemaField, Integer> combinedFieldsFrequencies = new HashMap<>();
@@ -269,4 +105,124 @@ public class ParallelSubscriptionsGenerator {
             System.out.printf("%-15s | %-10d | %-10d | %+10d%n", field.field(), expected, actual, diff);
         }
     }
+
+    // Splits the subscriptions and the global field / EQ quotas across numberOfThreads workers
+    // (see PartitionPlan) and runs them on an executor owned by the caller, which can reuse it
+    // between runs. Prints nothing, the per-worker statistics are returned.
+    public static List<Statistics> generateSubscriptions(
+            Schema schema,
+            ExecutorService executor,
+            int totalSubscriptions,
+            int numberOfThreads,
+            Map<SchemaField, Double> fieldsFrequencyPercentage,
+            Map<SchemaField, Double> equalOperatorsFrequencyPercentage,
+            double avgFieldProbability,
+            SubscriptionSaver subscriptionSaver,
+            SplittableRandom random,
+            int batchSize,
+            boolean plannedFieldAssignment,
+            GenerationMetrics metrics
+    ) throws Exception {
+        boolean allFieldsHaveFrequencyRestrictions = schema.fields.size() == fieldsFrequencyPercentage.size();
+
+        Map<SchemaField, Integer> globalTargetFieldFrequencies =
+                targetFieldFrequencies(schema, totalSubscriptions, fieldsFrequencyPercentage);
+        Map<SchemaField, Integer> globalEqualOperatorsFrequencies =
+                targetEqualOperatorsFrequencies(globalTargetFieldFrequencies, equalOperatorsFrequencyPercentage);
+        int totalFieldsCount = globalTargetFieldFrequencies.values().stream().mapToInt(Integer::intValue).sum();
+
+        if (allFieldsHaveFrequencyRestrictions && totalFieldsCount < totalSubscriptions) {
+            throw new Exception("Total frequency < 100% for multi-thread usage");
+        }
+
+        // Split the subscriptions and the field / EQ quotas across threads
+        int[] fieldQuotas = new int[schema.fields.size()];
+        int[] equalQuotas = new int[schema.fields.size()];
+        for (int f = 0; f < schema.fields.size(); f++) {
+            SchemaField field = schema.fields.get(f);
+            fieldQuotas[f] = globalTargetFieldFrequencies.getOrDefault(field, PartitionPlan.UNRESTRICTED);
+            equalQuotas[f] = globalEqualOperatorsFrequencies.getOrDefault(field, PartitionPlan.UNRESTRICTED);
+        }
+
+        PartitionPlan plan = PartitionPlan.create(totalSubscriptions, numberOfThreads, fieldQuotas, equalQuotas);
+        SplittableRandom[] randoms = WorkerRandoms.split(random, numberOfThreads);
+        List<Future<Statistics>> futures = new ArrayList<>();
+
+        for (int i = 0; i < numberOfThreads; i++) {
+            Map<SchemaField, Integer> threadFieldsFrequencies = new HashMap<>();
+            Map<SchemaField, Integer> threadEqualOperatorsFrequencies = new HashMap<>();
+            for (int f = 0; f < schema.fields.size(); f++) {
+                if (fieldQuotas[f] != PartitionPlan.UNRESTRICTED) {
+                    threadFieldsFrequencies.put(schema.fields.get(f), plan.fieldQuota(i, f));
+                }
+                if (equalQuotas[f] != PartitionPlan.UNRESTRICTED) {
+                    threadEqualOperatorsFrequencies.put(schema.fields.get(f), plan.equalQuota(i, f));
+                }
+            }
+
+            SubscriptionsGenerator localGen = new SubscriptionsGenerator(
+                    schema,
+                    plan.subscriptions(i),
+                    threadFieldsFrequencies,
+                    threadEqualOperatorsFrequencies,
+                    equalOperatorsFrequencyPercentage,
+                    allFieldsHaveFrequencyRestrictions,
+                    plan.fieldsTotal(i),
+                    avgFieldProbability
+            );
+
+            localGen.setSubscriptionSaver(subscriptionSaver.forWorker(i));
+            localGen.setRandom(randoms[i]);
+            localGen.setBatchSize(batchSize);
+            localGen.setPlannedFieldAssignment(plannedFieldAssignment);
+
+            Future<Statistics> future;
+            if (metrics != null) {
+                WorkerMetrics workerMetrics = metrics.worker(i);
+                localGen.setMetrics(workerMetrics);
+                future = executor.submit(() -> {
+                    workerMetrics.start();
+                    try {
+                        return localGen.generateSubscriptions();
+                    } finally {
+                        workerMetrics.finish();
+                    }
+                });
+            } else {
+                future = executor.submit(localGen::generateSubscriptions);
+            }
+            futures.add(future);
+        }
+
+        List<Statistics> allStats = new ArrayList<>();
+        for (Future<Statistics> future : futures) {
+            allStats.add(future.get());
+        }
+        return allStats;
+    }
+
+    // Transform the frequency percentages into absolute frequencies
+    private static Map<SchemaField, Integer> targetFieldFrequencies(Schema schema, int totalSubscriptions,
+                                                                    Map<SchemaField, Double> fieldsFrequencyPercentage) {
+        Map<SchemaField, Integer> frequencies = new HashMap<>();
+        for (SchemaField field : schema.fields) {
+            Double pct = fieldsFrequencyPercentage.get(field);
+            if (pct != null) {
+                frequencies.put(field, (int) Math.round(pct * totalSubscriptions / 100.0));
+            }
+        }
+        return frequencies;
+    }
+
+    private static Map<SchemaField, Integer> targetEqualOperatorsFrequencies(
+            Map<SchemaField, Integer> fieldFrequencies, Map<SchemaField, Double> equalOperatorsFrequencyPercentage) {
+        Map<SchemaField, Integer> frequencies = new HashMap<>();
+        for (Map.Entry<SchemaField, Integer> entry : fieldFrequencies.entrySet()) {
+            Double operatorPct = equalOperatorsFrequencyPercentage.get(entry.getKey());
+            if (operatorPct != null) {
+                frequencies.put(entry.getKey(), (int) Math.round(operatorPct * entry.getValue() / 100.0));
+            }
+        }
+        return frequencies;
+    }
 }
@@ -0,0 +1,132 @@
+package org.example.generators;
+
+// Splits the subscriptions and the global field / EQ quotas into partitions, in closed form
+// and in O(partitions * fields), without rebalancing or retries:
+//
+// - partition p gets the subscriptions [start(p), start(p + 1)) of the whole job
+// - every restricted field is laid over the subscriptions as a cyclic interval of length
+//   equal to its quota, starting where the previous field ended, and partition p gets the
+//   part of that interval which falls into its range. A field therefore never gets more
+//   occurrences than the partition has subscriptions, and when the quotas add up to at least
+//   the number of subscriptions, every subscription is covered, so every partition gets
+//   at least as many fields as subscriptions.
+// - the EQ quota of a field is split proportionally to the field's cumulative quota,
+//   floor(eq * prefix / quota), so no partition gets more EQs than occurrences of the field
+//
+// Quotas are indexed by the position of the field in the schema, UNRESTRICTED marks
+// the fields without a frequency (or without an EQ frequency).
+public class PartitionPlan {
+    public final static int UNRESTRICTED = -1;
+
+    public final int numberOfSubscriptions;
+    public final int numberOfPartitions;
+    public final int fieldsCount;
+
+    private final int[] subscriptions;
+    private final int[] fieldQuotas;
+    private final int[] equalQuotas;
+    private final int[] fieldsTotal;
+
+    private PartitionPlan(int numberOfSubscriptions, int numberOfPartitions, int fieldsCount) {
+        this.numberOfSubscriptions = numberOfSubscriptions;
+        this.numberOfPartitions = numberOfPartitions;
+        this.fieldsCount = fieldsCount;
+        this.subscriptions = new int[numberOfPartitions];
+        this.fieldQuotas = new int[numberOfPartitions * fieldsCount];
+        this.equalQuotas = new int[numberOfPartitions * fieldsCount];
+        this.fieldsTotal = new int[numberOfPartitions];
+    }
+
+    public int subscriptions(int partition) {
+        return subscriptions[partition];
+    }
+
+    public int fieldQuota(int partition, int field) {
+        return fieldQuotas[partition * fieldsCount + field];
+    }
+
+    public int equalQuota(int partition, int field) {
+        return equalQuotas[partition * fieldsCount + field];
+    }
+
+    // Sum of the restricted field quotas of the partition
+    public int fieldsTotal(int partition) {
+        return fieldsTotal[partition];
+    }
+
+    public static PartitionPlan create(int numberOfSubscriptions, int numberOfPartitions,
+                                       int[] globalFieldQuotas, int[] globalEqualQuotas) {
+        if (numberOfPartitions <= 0) {
+            throw new IllegalArgumentException("Number of partitions must be positive");
+        }
+
+        int n = numberOfSubscriptions;
+        int fieldsCount = globalFieldQuotas.length;
+        PartitionPlan plan = new PartitionPlan(n, numberOfPartitions, fieldsCount);
+
+        int chunkSize = n / numberOfPartitions;
+        int remainderSize = n % numberOfPartitions;
+        for (int p = 0; p < numberOfPartitions; p++) {
+            plan.subscriptions[p] = chunkSize + (p < remainderSize ? 1 : 0);
+        }
+
+        long cursor = 0;
+        for (int f = 0; f < fieldsCount; f++) {
+            int quota = globalFieldQuotas[f];
+            int equalQuota = globalEqualQuotas[f];
+
+            if (quota == UNRESTRICTED) {
+                for (int p = 0; p < numberOfPartitions; p++) {
+                    plan.fieldQuotas[p * fieldsCount + f] = UNRESTRICTED;
+                    plan.equalQuotas[p * fieldsCount + f] = UNRESTRICTED;
+                }
+                continue;
+            }
+
+            if (quota > n) {
+                throw new IllegalArgumentException("Field " + f + " requires " + quota
+                        + " occurrences in " + n + " subscriptions");
+            }
+            if (equalQuota > quota) {
+                throw new IllegalArgumentException("Field " + f + " requires " + equalQuota
+                        + " EQ operators in " + quota + " occurrences");
+            }
+
+            long start = n == 0 ? 0 : cursor % n;
+            cursor += quota;
+
+            long from = 0;
+            long covered = 0;
+            long equalAssigned = 0;
+            for (int p = 0; p < numberOfPartitions; p++) {
+                long to = from + plan.subscriptions[p];
+                int count = (int) (coveredBefore(to, start, quota, n) - coveredBefore(from, start, quota, n));
+                from = to;
+
+                int index = p * fieldsCount + f;
+                plan.fieldQuotas[index] = count;
+                plan.fieldsTotal[p] += count;
+
+                if (equalQuota != UNRESTRICTED) {
+                    covered += count;
+                    long equalPrefix = quota == 0 ? 0 : equalQuota * covered / quota;
+                    plan.equalQuotas[index] = (int) (equalPrefix - equalAssigned);
+                    equalAssigned = equalPrefix;
+                } else {
+                    plan.equalQuotas[index] = UNRESTRICTED;
+                }
+            }
+        }
+
+        return plan;
+    }
+
+    // Number of positions in [0, x) covered by the cyclic interval [start, start + length) mod n
+    private static long coveredBefore(long x, long start, long length, long n) {
+        return overlap(0, x, start, start + length) + overlap(0, x, start - n, start + length - n);
+    }
+
+    private static long overlap(long a, long b, long c, long d) {
+        return Math.max(0, Math.min(b, d) - Math.max(a, c));
+    }
+}
@@ -1,14 +1,35 @@
 package org.example.generators;
 
 import org.example.Publication;
+import org.example.columnar.PublicationBatch;
+import org.example.columnar.ValueColumns;
+import org.example.metrics.LatencyHistogram;
+import org.example.metrics.WorkerMetrics;
 import org.example.schema.Schema;
 import org.example.schema.SchemaField;
 import org.example.storage.PublicationSaver;
 
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 public class PublicationsGenerator {
+    // Ahead of schedule by more than this, a paced worker parks instead of spinning
+    private final static long PARK_THRESHOLD_NANOS = 50_000;
+
     private final Schema schema;
     private final int numberOfPublications;
     private PublicationSaver publicationSaver;
+    private SplittableRandom random = new SplittableRandom();
+    private int batchSize = 0;
+    private WorkerMetrics metrics;
 
     public PublicationsGenerator(Schema schema, int numberOfPublications) {
         this.schema = schema;
@@ -19,7 +40,22 @@ public class PublicationsGenerator {
         this.publicationSaver = saver;
     }
 
-    private void generatePublication() {
+    public void setRandom(SplittableRandom random) {
+        this.random = random;
+    }
+
+    // When > 0, publications are generated straight into columnar batches of this size
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    // When set, generation and save latencies are recorded into it. The caller starts and
+    // finishes the metrics, since a worker may run several generators.
+    public void setMetrics(WorkerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public Publication nextPublication() {
         Publication publication = new Publication();
 
         for (SchemaField field : schema.fields) {
@@ -27,12 +63,54 @@ public class PublicationsGenerator {
             publication.addField(field, value);
         }
 
+        return publication;
+    }
+
+    // Lazy source of the configured number of publications, generated on next()
+    public Iterator<Publication> iterator() {
+        return new Iterator<>() {
+            private int generated = 0;
+
+            @Override
+            public boolean hasNext() {
+                return generated < numberOfPublications;
+            }
+
+            @Override
+            public Publication next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                generated++;
+                return nextPublication();
+            }
+        };
+    }
+
+    public Stream<Publication> stream() {
+        return StreamSupport.stream(Spliterators.spliterator(iterator(), numberOfPublications,
+                Spliterator.ORDERED | Spliterator.SIZED | Spliterator.NONNULL), false);
+    }
+
+    public Flow.Publisher<Publication> publisher(Executor executor) {
+        return new GeneratorPublisher<>(iterator(), executor);
+    }
+
+    private void generatePublication() {
+        long start = metrics != null ? System.nanoTime() : 0;
+        Publication publication = nextPublication();
+
         if (publicationSaver != null) {
+            long generated = metrics != null ? System.nanoTime() : 0;
             try {
                 publicationSaver.save(publication);
             } catch (Exception e) {
                 System.err.println("Error saving publication: " + e.getMessage());
             }
+            if (metrics != null) {
+                metrics.recordGenerate(generated - start);
+                metrics.recordSave(System.nanoTime() - generated);
+            }
         } else {
             System.out.println(publication);
         }
@@ -41,8 +119,12 @@ public class PublicationsGenerator {
     public long generatePublications() {
         long start = System.nanoTime();
 
-        for (int i = 0; i < this.numberOfPublications; i++) {
-            generatePublication();
+        if (batchSize > 0) {
+            generatePublicationBatches();
+        } else {
+            for (int i = 0; i < this.numberOfPublications; i++) {
+                generatePublication();
+            }
         }
 
         long end = System.nanoTime();
@@ -50,15 +132,167 @@ public class PublicationsGenerator {
         return (end - start) / 1_000_000;
     }
 
+    private void generatePublicationBatches() {
+        PublicationBatch batch = new PublicationBatch(schema, batchSize);
+
+        int remaining = this.numberOfPublications;
+        while (remaining > 0) {
+            int count = Math.min(remaining, batchSize);
+            long start = metrics != null ? System.nanoTime() : 0;
+            batch.clear();
+            generatePublicationsInto(batch, count);
+            remaining -= count;
+
+            if (publicationSaver != null) {
+                long generated = metrics != null ? System.nanoTime() : 0;
+                try {
+                    publicationSaver.save(batch);
+                } catch (Exception e) {
+                    System.err.println("Error saving publications batch: " + e.getMessage());
+                }
+                if (metrics != null) {
+                    metrics.recordGenerateBatch(generated - start, count);
+                    metrics.recordSaveBatch(System.nanoTime() - generated);
+                }
+            } else {
+                for (int row = 0; row < batch.size; row++) {
+                    System.out.println(batch.toPublication(row));
+                }
+            }
+        }
+    }
+
+    // Open-loop emission: publication k of this generator is due at
+    // startNanos + (offset + k * stride) * periodNanos, i.e. this generator takes every stride-th
+    // slot of a schedule shared with other workers. Whatever is due when the worker looks at the
+    // clock leaves at once, in batches of batchSize in columnar mode, so a worker that fell behind
+    // catches up without waiting; a worker that is ahead parks (spins on the last few us).
+    // Latency is measured from the intended time, not from when the worker got to it.
+    public PacedWorkerStatistics emitPaced(int worker, long startNanos, double periodNanos, int offset, int stride) {
+        LatencyHistogram latency = new LatencyHistogram();
+        LatencyHistogram serviceTime = new LatencyHistogram();
+        PublicationBatch batch = batchSize > 0 ? new PublicationBatch(schema, batchSize) : null;
+
+        int next = 0;
+        long bursts = 0;
+        while (next < numberOfPublications) {
+            long now = System.nanoTime();
+            long due = intendedTime(startNanos, periodNanos, offset, stride, next);
+            if (now < due) {
+                waitUntil(due, now);
+                continue;
+            }
+
+            // every publication due by now, i.e. global slot <= (now - start) / period
+            long lastSlot = (long) ((now - startNanos) / periodNanos);
+            // at least `next`, whatever the rounding of the division
+            int end = (int) Math.max(next + 1, Math.min(numberOfPublications, (lastSlot - offset) / stride + 1));
+            bursts++;
+
+            while (next < end) {
+                long start = System.nanoTime();
+                int count;
+                if (batch != null) {
+                    count = Math.min(end - next, batchSize);
+                    batch.clear();
+                    generatePublicationsInto(batch, count);
+                    save(batch);
+                } else {
+                    count = 1;
+                    save(nextPublication());
+                }
+                long done = System.nanoTime();
+
+                serviceTime.record((done - start) / count, count);
+                for (int i = 0; i < count; i++) {
+                    latency.record(done - intendedTime(startNanos, periodNanos, offset, stride, next + i));
+                }
+                next += count;
+            }
+        }
+
+        long lastDue = intendedTime(startNanos, periodNanos, offset, stride, numberOfPublications - 1);
+        return new PacedWorkerStatistics(worker, numberOfPublications, bursts, latency, serviceTime,
+                numberOfPublications == 0 ? 0 : Math.max(0, System.nanoTime() - lastDue));
+    }
+
+    private static long intendedTime(long startNanos, double periodNanos, int offset, int stride, int k) {
+        return startNanos + (long) (((long) k * stride + offset) * periodNanos);
+    }
+
+    private static void waitUntil(long deadline, long now) {
+        long remaining = deadline - now;
+        if (remaining > PARK_THRESHOLD_NANOS) {
+            LockSupport.parkNanos(remaining - PARK_THRESHOLD_NANOS);
+            return;
+        }
+        while (System.nanoTime() < deadline) {
+            // give the core away if other workers share it, returns at once otherwise
+            Thread.yield();
+        }
+    }
+
+    private void save(Publication publication) {
+        if (publicationSaver == null) {
+            System.out.println(publication);
+            return;
+        }
+        try {
+            publicationSaver.save(publication);
+        } catch (Exception e) {
+            System.err.println("Error saving publication: " + e.getMessage());
+        }
+    }
+
+    private void save(PublicationBatch batch) {
+        if (publicationSaver == null) {
+            for (int row = 0; row < batch.size; row++) {
+                System.out.println(batch.toPublication(row));
+            }
+            return;
+        }
+        try {
+            publicationSaver.save(batch);
+        } catch (Exception e) {
+            System.err.println("Error saving publications batch: " + e.getMessage());
+        }
+    }
+
+    // Appends `count` publications to the batch (bounded by its free capacity)
+    // and returns the number of rows added
+    public int generatePublicationsInto(PublicationBatch batch, int count) {
+        int added = Math.min(count, batch.capacity - batch.size);
+        for (int i = 0; i < added; i++) {
+            int row = batch.size++;
+            for (SchemaField field : schema.fields) {
+                generateValue(field, batch.values, row);
+            }
+        }
+        return added;
+    }
+
+    // Same draws as generateValue(field), so a seed gives the same values in both forms
+    private void generateValue(SchemaField field, ValueColumns values, int row) {
+        switch (field.field()) {
+            case Station -> values.station[row] = GeneratorsParams.stationLimit.getRandomValue(random);
+            case City -> values.city[row] = (byte) GeneratorsParams.cityLimit.getRandomIndex(random);
+            case Temp -> values.temp[row] = GeneratorsParams.tempLimit.getRandomValue(random);
+            case Rain -> values.rain[row] = GeneratorsParams.rainLimit.getRandomValue(random);
+            case Wind -> values.wind[row] = GeneratorsParams.windLimit.getRandomValue(random);
+            case Direction -> values.direction[row] = (byte) GeneratorsParams.directionLimit.getRandomIndex(random);
+            case Date -> values.date[row] = (int) GeneratorsParams.dateLimit.getRandomEpochDay(random);
+        }
+    }
+
     private String generateValue(SchemaField field) {
         return switch (field.field()) {
-            case Station -> String.valueOf(GeneratorsParams.stationLimit.getRandomValue());
-            case City -> GeneratorsParams.cities.get((int) (Math.random() * GeneratorsParams.cities.size()));
-            case Temp -> String.valueOf(GeneratorsParams.tempLimit.getRandomValue());
-            case Rain -> String.valueOf(GeneratorsParams.rainLimit.getRandomValue());
-            case Wind -> String.valueOf(GeneratorsParams.windLimit.getRandomValue());
-            case Direction -> GeneratorsParams.directions.get((int) (Math.random() * GeneratorsParams.directions.size()));
-            case Date -> GeneratorsParams.dateFormat.format(GeneratorsParams.dateLimit.getRandomValue());
+            case Station -> String.valueOf(GeneratorsParams.stationLimit.getRandomValue(random));
+            case City -> GeneratorsParams.cityLimit.getRandomValue(random);
+            case Temp -> String.valueOf(GeneratorsParams.tempLimit.getRandomValue(random));
+            case Rain -> String.valueOf(GeneratorsParams.rainLimit.getRandomValue(random));
+            case Wind -> String.valueOf(GeneratorsParams.windLimit.getRandomValue(random));
+            case Direction -> GeneratorsParams.directionLimit.getRandomValue(random);
+            case Date -> GeneratorsParams.dateLimit.getRandomValue(random);
         };
     }
 }
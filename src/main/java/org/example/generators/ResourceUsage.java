@@ -0,0 +1,72 @@
+package org.example.generators;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+// CPU time and allocated bytes of the current thread since the snapshot was taken,
+// from the HotSpot ThreadMXBean (-1 when the JVM does not support them), and the
+// process-wide GC totals used to report the GC time of a run
+public class ResourceUsage {
+    private final static com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    static {
+        if (THREADS.isCurrentThreadCpuTimeSupported() && !THREADS.isThreadCpuTimeEnabled()) {
+            THREADS.setThreadCpuTimeEnabled(true);
+        }
+        if (THREADS.isThreadAllocatedMemorySupported() && !THREADS.isThreadAllocatedMemoryEnabled()) {
+            THREADS.setThreadAllocatedMemoryEnabled(true);
+        }
+    }
+
+    private final long cpuTimeAtStart;
+    private final long allocatedAtStart;
+
+    private ResourceUsage() {
+        this.cpuTimeAtStart = currentCpuTime();
+        this.allocatedAtStart = currentAllocatedBytes();
+    }
+
+    // Must be called on the thread being measured, as are the getters
+    public static ResourceUsage start() {
+        return new ResourceUsage();
+    }
+
+    public long cpuTimeNanos() {
+        return cpuTimeAtStart < 0 ? -1 : currentCpuTime() - cpuTimeAtStart;
+    }
+
+    public long allocatedBytes() {
+        return allocatedAtStart < 0 ? -1 : currentAllocatedBytes() - allocatedAtStart;
+    }
+
+    private static long currentCpuTime() {
+        return THREADS.isThreadCpuTimeEnabled() ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    private static long currentAllocatedBytes() {
+        return THREADS.isThreadAllocatedMemoryEnabled() ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    // Accumulated collection time of all collectors, in ms
+    public static long gcTimeMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(gc.getCollectionTime(), 0);
+        }
+        return total;
+    }
+
+    public static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(gc.getCollectionCount(), 0);
+        }
+        return total;
+    }
+
+    // "-" for unsupported values, otherwise value / records
+    static String perRecord(long value, long records) {
+        return value < 0 || records == 0 ? "-" : String.format("%.1f", (double) value / records);
+    }
+}
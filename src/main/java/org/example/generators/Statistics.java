@@ -6,5 +6,5 @@ import java.util.Map;
 
 public record Statistics(Map<SchemaField, Integer> fieldsFrequencies,
                          Map<SchemaField, Integer> equalOperatorFrequencies, long totalTimeInMillis,
-                         long totalRecords) {
+                         long totalRecords, long cpuTimeNanos, long allocatedBytes) {
 }
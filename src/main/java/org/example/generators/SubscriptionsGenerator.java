@@ -1,12 +1,25 @@
 package org.example.generators;
 
 import org.example.Subscription;
+import org.example.columnar.SubscriptionBatch;
+import org.example.columnar.ValueColumns;
+import org.example.metrics.WorkerMetrics;
 import org.example.schema.*;
 import org.example.storage.SubscriptionSaver;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class SubscriptionsGenerator {
     private final Schema schema;
@@ -22,6 +35,11 @@ public class SubscriptionsGenerator {
     private int generatedSubscriptionsCount;
     private SubscriptionSaver subscriptionSaver;
     private final double avgFieldProbability;
+    private SplittableRandom random = new SplittableRandom();
+    private int batchSize = 0;
+    private boolean plannedFieldAssignment = false;
+    private FieldAssignmentPlan fieldAssignmentPlan;
+    private WorkerMetrics metrics;
 
     public SubscriptionsGenerator(
             Schema schema,
@@ -117,11 +135,36 @@ public class SubscriptionsGenerator {
         this.subscriptionSaver = saver;
     }
 
+    public void setRandom(SplittableRandom random) {
+        this.random = random;
+    }
+
+    // When > 0, subscriptions are generated straight into columnar batches of this size
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    // When true, the fields of all subscriptions are decided up front by a FieldAssignmentPlan
+    // (exact quotas, no retries) instead of coin flips per subscription
+    public void setPlannedFieldAssignment(boolean plannedFieldAssignment) {
+        this.plannedFieldAssignment = plannedFieldAssignment;
+    }
+
+    // When set, generation and save latencies are recorded into it (started and finished by the caller)
+    public void setMetrics(WorkerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     public Statistics generateSubscriptions() {
+        ResourceUsage usage = ResourceUsage.start();
         long start = System.nanoTime();
-        for (int i = 0; i < targetNumberOfSubscriptions; i++)
-        {
-            generateSubscription();
+        if (batchSize > 0) {
+            generateSubscriptionBatches();
+        } else {
+            for (int i = 0; i < targetNumberOfSubscriptions; i++)
+            {
+                generateSubscription();
+            }
         }
         long end = System.nanoTime();
 
@@ -129,13 +172,135 @@ public class SubscriptionsGenerator {
                 this.fieldsCurrentFrequencies,
                 this.equalCurrentFrequencies,
                 (end - start) / 1_000_000,
-                this.generatedSubscriptionsCount
+                this.generatedSubscriptionsCount,
+                usage.cpuTimeNanos(),
+                usage.allocatedBytes()
         );
     }
 
-    private void generateSubscription() {
+    public boolean hasNextSubscription() {
+        return generatedSubscriptionsCount < targetNumberOfSubscriptions;
+    }
+
+    // Generates one subscription and updates the frequency bookkeeping right away,
+    // so the counts always describe exactly the subscriptions handed out so far
+    public Subscription nextSubscription() {
+        if (!hasNextSubscription()) {
+            throw new NoSuchElementException("All " + targetNumberOfSubscriptions + " subscriptions were generated");
+        }
+
         Subscription subscription = new Subscription();
 
+        selectFields(field -> updateSubscription(subscription, field));
+
+        generatedSubscriptionsCount++;
+
+        return subscription;
+    }
+
+    public Iterator<Subscription> iterator() {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return hasNextSubscription();
+            }
+
+            @Override
+            public Subscription next() {
+                return nextSubscription();
+            }
+        };
+    }
+
+    public Stream<Subscription> stream() {
+        return StreamSupport.stream(Spliterators.spliterator(iterator(),
+                targetNumberOfSubscriptions - generatedSubscriptionsCount,
+                Spliterator.ORDERED | Spliterator.SIZED | Spliterator.NONNULL), false);
+    }
+
+    public Flow.Publisher<Subscription> publisher(Executor executor) {
+        return new GeneratorPublisher<>(iterator(), executor);
+    }
+
+    // Frequencies of the subscriptions generated so far
+    public Statistics getStatistics() {
+        return new Statistics(
+                new HashMap<>(this.fieldsCurrentFrequencies),
+                new HashMap<>(this.equalCurrentFrequencies),
+                0,
+                this.generatedSubscriptionsCount,
+                -1,
+                -1
+        );
+    }
+
+    private void generateSubscription() {
+        long start = metrics != null ? System.nanoTime() : 0;
+        Subscription subscription = nextSubscription();
+
+        if (subscriptionSaver != null) {
+            long generated = metrics != null ? System.nanoTime() : 0;
+            try {
+                subscriptionSaver.save(subscription);
+            } catch (IOException e) {
+                System.err.println("Error saving subscription: " + e.getMessage());
+            }
+            if (metrics != null) {
+                metrics.recordGenerate(generated - start);
+                metrics.recordSave(System.nanoTime() - generated);
+            }
+        } else {
+            System.out.println(subscription);
+        }
+    }
+
+    private void generateSubscriptionBatches() {
+        SubscriptionBatch batch = new SubscriptionBatch(batchSize);
+
+        while (generatedSubscriptionsCount < targetNumberOfSubscriptions) {
+            long start = metrics != null ? System.nanoTime() : 0;
+            batch.clear();
+            int count = generateSubscriptionsInto(batch, targetNumberOfSubscriptions - generatedSubscriptionsCount);
+
+            if (subscriptionSaver != null) {
+                long generated = metrics != null ? System.nanoTime() : 0;
+                try {
+                    subscriptionSaver.save(batch);
+                } catch (IOException e) {
+                    System.err.println("Error saving subscriptions batch: " + e.getMessage());
+                }
+                if (metrics != null && count > 0) {
+                    metrics.recordGenerateBatch(generated - start, count);
+                    metrics.recordSaveBatch(System.nanoTime() - generated);
+                }
+            } else {
+                for (int row = 0; row < batch.size; row++) {
+                    System.out.println(batch.toSubscription(row));
+                }
+            }
+        }
+    }
+
+    // Appends up to `count` subscriptions to the batch (bounded by its free capacity
+    // and by the subscriptions left to generate) and returns the number of rows added
+    public int generateSubscriptionsInto(SubscriptionBatch batch, int count) {
+        int added = Math.min(count, Math.min(batch.capacity - batch.size,
+                targetNumberOfSubscriptions - generatedSubscriptionsCount));
+        for (int i = 0; i < added; i++) {
+            int row = batch.newRow();
+            selectFields(field -> updateSubscription(batch, row, field));
+            generatedSubscriptionsCount++;
+        }
+        return added;
+    }
+
+    // Chooses the fields of the next subscription, calling the consumer once per chosen field
+    private void selectFields(Consumer<SchemaField> consumer) {
+        if (plannedFieldAssignment) {
+            selectPlannedFields(consumer);
+            return;
+        }
+
         int subscriptionFieldsCount = 0;
 
         while (subscriptionFieldsCount == 0) {
@@ -150,8 +315,8 @@ public class SubscriptionsGenerator {
                 // if the field has no required frequency
                 Integer freqRequired = fieldsRequiredFrequencies.get(field);
                 if (freqRequired == null) {
-                    if (Math.random() < 0.5) {
-                        updateSubscription(subscription, field);
+                    if (random.nextDouble() < 0.5) {
+                        consumer.accept(field);
                         subscriptionFieldsCount++;
                     }
                     continue;
@@ -162,43 +327,43 @@ public class SubscriptionsGenerator {
                 if (dif > 0) {
                     if ((targetNumberOfSubscriptions - generatedSubscriptionsCount) > dif) {
                         // it's allowed to not generate a subscription for this field
-                        if (Math.random() < 0.5) {
-                            updateSubscription(subscription, field);
+                        if (random.nextDouble() < 0.5) {
+                            consumer.accept(field);
                             subscriptionFieldsCount++;
                         }
                     } else {
                         // must generate a subscription for this field
                         // so we can reach the target number of subscriptions
                         // before the end of the generation
-                        updateSubscription(subscription, field);
+                        consumer.accept(field);
                         subscriptionFieldsCount++;
                     }
                 }
             }
         }
+    }
 
-        generatedSubscriptionsCount++;
+    private void selectPlannedFields(Consumer<SchemaField> consumer) {
+        if (fieldAssignmentPlan == null) {
+            fieldAssignmentPlan = FieldAssignmentPlan.create(schema, targetNumberOfSubscriptions,
+                    fieldsRequiredFrequencies, allFieldsHaveFrequencyRestrictions, random);
+        }
 
-        if (subscriptionSaver != null) {
-            try {
-                subscriptionSaver.save(subscription);
-            } catch (IOException e) {
-                System.err.println("Error saving subscription: " + e.getMessage());
-            }
-        } else {
-            System.out.println(subscription);
+        int subscription = generatedSubscriptionsCount;
+        for (int i = 0; i < fieldAssignmentPlan.fieldsCount(subscription); i++) {
+            consumer.accept(schema.fields.get(fieldAssignmentPlan.field(subscription, i)));
         }
     }
 
     private void updateSubscription(Subscription subscription, SchemaField field) {
         String value = switch (field.field()) {
-            case Station -> String.valueOf(GeneratorsParams.stationLimit.getRandomValue());
-            case City -> GeneratorsParams.cities.get((int) (Math.random() * GeneratorsParams.cities.size()));
-            case Temp -> String.valueOf(GeneratorsParams.tempLimit.getRandomValue());
-            case Rain -> String.valueOf(GeneratorsParams.rainLimit.getRandomValue());
-            case Wind -> String.valueOf(GeneratorsParams.windLimit.getRandomValue());
-            case Direction -> GeneratorsParams.directions.get((int) (Math.random() * GeneratorsParams.directions.size()));
-            case Date -> GeneratorsParams.dateFormat.format(GeneratorsParams.dateLimit.getRandomValue());
+            case Station -> String.valueOf(GeneratorsParams.stationLimit.getRandomValue(random));
+            case City -> GeneratorsParams.cityLimit.getRandomValue(random);
+            case Temp -> String.valueOf(GeneratorsParams.tempLimit.getRandomValue(random));
+            case Rain -> String.valueOf(GeneratorsParams.rainLimit.getRandomValue(random));
+            case Wind -> String.valueOf(GeneratorsParams.windLimit.getRandomValue(random));
+            case Direction -> GeneratorsParams.directionLimit.getRandomValue(random);
+            case Date -> GeneratorsParams.dateLimit.getRandomValue(random);
         };
 
         // Generate a random operator for the field
@@ -207,6 +372,30 @@ public class SubscriptionsGenerator {
         boolean isAvgField = isAverageField(field);
         subscription.addField(field, new SubscriptionValue(operator, value, isAvgField));
 
+        countField(field, operator);
+    }
+
+    // Same draws as updateSubscription(subscription, field), in the same order
+    private void updateSubscription(SubscriptionBatch batch, int row, SchemaField field) {
+        ValueColumns values = batch.values;
+        switch (field.field()) {
+            case Station -> values.station[row] = GeneratorsParams.stationLimit.getRandomValue(random);
+            case City -> values.city[row] = (byte) GeneratorsParams.cityLimit.getRandomIndex(random);
+            case Temp -> values.temp[row] = GeneratorsParams.tempLimit.getRandomValue(random);
+            case Rain -> values.rain[row] = GeneratorsParams.rainLimit.getRandomValue(random);
+            case Wind -> values.wind[row] = GeneratorsParams.windLimit.getRandomValue(random);
+            case Direction -> values.direction[row] = (byte) GeneratorsParams.directionLimit.getRandomIndex(random);
+            case Date -> values.date[row] = (int) GeneratorsParams.dateLimit.getRandomEpochDay(random);
+        }
+
+        Operator operator = generateOperator(field);
+        boolean isAvgField = isAverageField(field);
+        batch.setCondition(row, field.field(), operator, isAvgField);
+
+        countField(field, operator);
+    }
+
+    private void countField(SchemaField field, Operator operator) {
         fieldsCurrentFrequencies.put(field, fieldsCurrentFrequencies.get(field) + 1);
         fieldsCurrentCount++;
 
@@ -255,18 +444,18 @@ public class SubscriptionsGenerator {
 
         // If the field is City or Direction, we only allow EQ and NEQ operators
         if (field.field() == SchemaFieldNames.City || field.field() == SchemaFieldNames.Direction) {
-            return Math.random() < 0.5 ? Operator.EQ : Operator.NEQ;
+            return random.nextDouble() < 0.5 ? Operator.EQ : Operator.NEQ;
         }
 
         // For other fields, we allow all operators
-        return Operator.values()[(int) (Math.random() * Operator.values().length)];
+        return Operator.values()[random.nextInt(Operator.values().length)];
     }
 
     private boolean isAverageField(SchemaField field) {
         if (field.field() == SchemaFieldNames.Temp ||
             field.field() == SchemaFieldNames.Rain ||
             field.field() == SchemaFieldNames.Wind) {
-            return Math.random() < avgFieldProbability;
+            return random.nextDouble() < avgFieldProbability;
         }
         // For other fields, we assume they are not average fields
         return false;
@@ -0,0 +1,19 @@
+package org.example.generators;
+
+import java.util.SplittableRandom;
+
+// Random streams of the workers of a parallel run. Worker i gets the i-th stream split from
+// the master one; the streams are split in worker order before any worker starts, so a seed
+// gives the same records whatever the scheduling, and the workers never share a generator.
+public class WorkerRandoms {
+    private WorkerRandoms() {
+    }
+
+    public static SplittableRandom[] split(SplittableRandom random, int workers) {
+        SplittableRandom[] randoms = new SplittableRandom[workers];
+        for (int i = 0; i < workers; i++) {
+            randoms[i] = random.split();
+        }
+        return randoms;
+    }
+}
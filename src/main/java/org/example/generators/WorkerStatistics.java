@@ -0,0 +1,6 @@
+package org.example.generators;
+
+// cpuTimeNanos / allocatedBytes are -1 when the JVM cannot measure them
+public record WorkerStatistics(int worker, long totalRecords, int batches, long totalTimeInMillis,
+                               long cpuTimeNanos, long allocatedBytes) {
+}
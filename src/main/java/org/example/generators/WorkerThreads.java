@@ -0,0 +1,102 @@
+package org.example.generators;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Kind of threads the parallel generators run their workers on. Virtual threads come
+// from Executors.newVirtualThreadPerTaskExecutor (Java 21+), looked up reflectively so
+// the project still builds and runs on Java 17, where they fall back to platform threads.
+// With virtual threads at most maxConcurrency workers run at once.
+public record WorkerThreads(boolean virtual, int maxConcurrency) {
+    public final static WorkerThreads PLATFORM = new WorkerThreads(false, 0);
+
+    private final static Method NEW_VIRTUAL_EXECUTOR = findVirtualExecutorFactory();
+
+    public static boolean isVirtualSupported() {
+        return NEW_VIRTUAL_EXECUTOR != null;
+    }
+
+    // Whether newExecutor actually creates virtual threads
+    public boolean isVirtual() {
+        return virtual && isVirtualSupported();
+    }
+
+    public String describe() {
+        if (!virtual) return "platform";
+        return isVirtualSupported() ? "virtual (max " + maxConcurrency + " concurrent)" : "platform (no virtual threads)";
+    }
+
+    public ExecutorService newExecutor(int numberOfThreads) {
+        if (!isVirtual()) {
+            return Executors.newFixedThreadPool(numberOfThreads);
+        }
+        try {
+            ExecutorService executor = (ExecutorService) NEW_VIRTUAL_EXECUTOR.invoke(null);
+            return maxConcurrency > 0 ? new LimitedExecutor(executor, maxConcurrency) : executor;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create a virtual thread executor", e);
+        }
+    }
+
+    private static Method findVirtualExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    // Every task holds a permit while it runs. Tasks wait for their permit on their own
+    // (virtual) thread, so submitting never blocks.
+    private static class LimitedExecutor extends AbstractExecutorService {
+        private final ExecutorService executor;
+        private final Semaphore permits;
+
+        LimitedExecutor(ExecutorService executor, int maxConcurrency) {
+            this.executor = executor;
+            this.permits = new Semaphore(maxConcurrency);
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            executor.execute(() -> {
+                permits.acquireUninterruptibly();
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        @Override
+        public void shutdown() {
+            executor.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return executor.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return executor.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return executor.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return executor.awaitTermination(timeout, unit);
+        }
+    }
+}
@@ -0,0 +1,401 @@
+package org.example.matching;
+
+import org.example.Subscription;
+import org.example.columnar.CategoricalFields;
+import org.example.schema.Operator;
+import org.example.schema.Schema;
+import org.example.schema.SchemaField;
+import org.example.schema.SubscriptionValue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Finds the subscriptions that are redundant for routing: exact duplicates, and the ones
+// covered by another subscription (A covers B when every publication matching B matches A,
+// e.g. temp > 10 covers temp > 20 && city = Cluj). What is left is the minimal covering set.
+//
+// A covers B only if A restricts a subset of the fields of B, so the subscriptions are
+// grouped by a bitmap of their fields and B is only compared with the groups whose bitmap
+// is a subset of its own. Inside a group, the conditions on every field are sorted by
+// operator and value (as in RangeFieldIndex): for each field of the group, binary searches
+// give the members whose condition can contain the one of B, and only the members of the
+// field with the fewest of them are checked. Numbers are compared as real values, so
+// temp > 10 does not cover temp >= 11; no cover is ever reported wrongly.
+// Subscriptions with average conditions are matched over windows, not one publication
+// at a time; they are skipped and kept in the covering set.
+public class CoveringAnalyzer {
+    private final Schema schema;
+    private final List<Subscription> subscriptions;
+
+    // Analyzed subscriptions: the first of every set of duplicates, without the average ones
+    private final int[] subscriptionIds;
+    private final long[] presence;
+    // [subscription][field], null when the subscription does not restrict the field
+    private final Operator[][] operators;
+    private final double[][] keys;
+    private final int skippedSubscriptions;
+    private final int duplicates;
+
+    private final Map<Long, Group> groups = new HashMap<>();
+    private List<Subscription> coveringSet = List.of();
+
+    public CoveringAnalyzer(Schema schema, List<Subscription> subscriptions) {
+        if (schema.fields.size() > Long.SIZE) {
+            throw new IllegalArgumentException("At most " + Long.SIZE + " fields can be analyzed");
+        }
+        this.schema = schema;
+        this.subscriptions = subscriptions;
+
+        Map<String, Integer> signatures = new HashMap<>();
+        List<Integer> ids = new ArrayList<>();
+        List<Long> masks = new ArrayList<>();
+        List<Operator[]> operatorList = new ArrayList<>();
+        List<double[]> keyList = new ArrayList<>();
+        int skipped = 0;
+        int duplicated = 0;
+
+        for (int i = 0; i < subscriptions.size(); i++) {
+            Subscription subscription = subscriptions.get(i);
+            if (subscription.fields.values().stream().anyMatch(SubscriptionValue::isAverage)) {
+                skipped++;
+                continue;
+            }
+
+            long mask = 0;
+            Operator[] subscriptionOperators = new Operator[schema.fields.size()];
+            double[] subscriptionKeys = new double[schema.fields.size()];
+            for (Map.Entry<SchemaField, SubscriptionValue> entry : subscription.fields.entrySet()) {
+                int f = schema.fields.indexOf(entry.getKey());
+                if (f < 0) {
+                    throw new IllegalArgumentException("Field " + entry.getKey().field() + " is not part of the schema");
+                }
+                mask |= 1L << f;
+                subscriptionOperators[f] = entry.getValue().operator();
+                subscriptionKeys[f] = toKey(entry.getKey(), entry.getValue().value());
+            }
+
+            // same fields, operators and values (as numbers, so 10 and 10.0 are the same)
+            StringBuilder signature = new StringBuilder();
+            for (int f = 0; f < subscriptionOperators.length; f++) {
+                if (subscriptionOperators[f] != null) {
+                    signature.append(f).append(subscriptionOperators[f]).append(subscriptionKeys[f]).append(';');
+                }
+            }
+            if (signatures.putIfAbsent(signature.toString(), ids.size()) != null) {
+                duplicated++;
+                continue;
+            }
+
+            ids.add(i);
+            masks.add(mask);
+            operatorList.add(subscriptionOperators);
+            keyList.add(subscriptionKeys);
+        }
+
+        this.subscriptionIds = ids.stream().mapToInt(Integer::intValue).toArray();
+        this.presence = masks.stream().mapToLong(Long::longValue).toArray();
+        this.operators = operatorList.toArray(new Operator[0][]);
+        this.keys = keyList.toArray(new double[0][]);
+        this.skippedSubscriptions = skipped;
+        this.duplicates = duplicated;
+
+        Map<Long, List<Integer>> members = new HashMap<>();
+        for (int s = 0; s < presence.length; s++) {
+            members.computeIfAbsent(presence[s], mask -> new ArrayList<>()).add(s);
+        }
+        members.forEach((mask, list) -> groups.put(mask, new Group(mask, list, operators, keys)));
+    }
+
+    private static double toKey(SchemaField field, String value) {
+        return FieldValues.isNumeric(field)
+                ? FieldValues.toKey(field, value)
+                : CategoricalFields.dictionary(field.field()).id(value);
+    }
+
+    public CoveringStatistics analyze(int numberOfThreads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+        List<Future<Long>> futures = new ArrayList<>();
+        boolean[] covered = new boolean[presence.length];
+
+        int chunkSize = presence.length / numberOfThreads;
+        int reminder = presence.length % numberOfThreads;
+
+        long start = System.nanoTime();
+
+        int from = 0;
+        for (int i = 0; i < numberOfThreads; i++) {
+            int chunkFrom = from;
+            int chunkTo = from + chunkSize + (i < reminder ? 1 : 0);
+            from = chunkTo;
+
+            futures.add(executor.submit(() -> {
+                long comparisons = 0;
+                for (int s = chunkFrom; s < chunkTo; s++) {
+                    long result = findCover(s);
+                    covered[s] = result < 0;
+                    comparisons += result < 0 ? -result : result;
+                }
+                return comparisons;
+            }));
+        }
+
+        long totalComparisons = 0;
+        try {
+            for (Future<Long> future : futures) {
+                totalComparisons += future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        long end = System.nanoTime();
+
+        // the order of the input is kept
+        boolean[] kept = new boolean[subscriptions.size()];
+        int coveredCount = 0;
+        for (int s = 0; s < presence.length; s++) {
+            kept[subscriptionIds[s]] = !covered[s];
+            coveredCount += covered[s] ? 1 : 0;
+        }
+        List<Subscription> result = new ArrayList<>();
+        for (int i = 0; i < subscriptions.size(); i++) {
+            Subscription subscription = subscriptions.get(i);
+            if (kept[i] || subscription.fields.values().stream().anyMatch(SubscriptionValue::isAverage)) {
+                result.add(subscription);
+            }
+        }
+        this.coveringSet = result;
+
+        return new CoveringStatistics(
+                subscriptions.size(),
+                skippedSubscriptions,
+                duplicates,
+                coveredCount,
+                result.size(),
+                totalComparisons,
+                (end - start) / 1_000_000
+        );
+    }
+
+    // Subscriptions left by the last analyze(), in input order
+    public List<Subscription> getCoveringSet() {
+        return coveringSet;
+    }
+
+    // Number of candidates checked, negative when one of them covers subscription b
+    private long findCover(int b) {
+        long mask = presence[b];
+        long comparisons = 0;
+        int[] best = new int[Group.MAX_RANGES * 3];
+        int[] current = new int[Group.MAX_RANGES * 3];
+
+        // every subset of the fields of b, b's own group included
+        for (long subset = mask; ; subset = (subset - 1) & mask) {
+            Group group = groups.get(subset);
+            if (group != null) {
+                int bestRanges = -1;
+                long bestCount = Long.MAX_VALUE;
+                for (int g = 0; g < group.fields.length && bestCount > 0; g++) {
+                    int f = group.fields[g];
+                    int ranges = group.candidates(g, operators[b][f], keys[b][f], current);
+                    long count = 0;
+                    for (int r = 0; r < ranges; r++) {
+                        count += current[r * 3 + 2] - current[r * 3 + 1];
+                    }
+                    if (count < bestCount) {
+                        bestCount = count;
+                        bestRanges = ranges;
+                        int[] swap = best;
+                        best = current;
+                        current = swap;
+                    }
+                }
+
+                if (bestRanges < 0) {
+                    // no fields: covers everything
+                    for (int a : group.members) {
+                        comparisons++;
+                        if (a != b) {
+                            return -comparisons;
+                        }
+                    }
+                } else {
+                    for (int r = 0; r < bestRanges; r++) {
+                        int[] ids = group.ids[best[r * 3]];
+                        for (int i = best[r * 3 + 1]; i < best[r * 3 + 2]; i++) {
+                            comparisons++;
+                            if (ids[i] != b && covers(ids[i], b, subset)) {
+                                return -comparisons;
+                            }
+                        }
+                    }
+                }
+            }
+            if (subset == 0) {
+                break;
+            }
+        }
+        return comparisons;
+    }
+
+    private boolean covers(int a, int b, long mask) {
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            int f = Long.numberOfTrailingZeros(bits);
+            if (!implies(schema.fields.get(f), operators[b][f], keys[b][f], operators[a][f], keys[a][f])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Whether every value satisfying (operatorB, keyB) satisfies (operatorA, keyA)
+    static boolean implies(SchemaField field, Operator operatorB, double keyB, Operator operatorA, double keyA) {
+        if (operatorB == operatorA && keyB == keyA) {
+            return true;
+        }
+        // String fields are only compared on equality (dictionary ids carry no order)
+        if (!FieldValues.isNumeric(field)) {
+            return operatorA == Operator.NEQ && operatorB == Operator.EQ && keyB != keyA;
+        }
+
+        boolean lower = operatorB == Operator.GT || operatorB == Operator.GTE || operatorB == Operator.EQ;
+        boolean upper = operatorB == Operator.LT || operatorB == Operator.LTE || operatorB == Operator.EQ;
+        // the bound of b itself is excluded
+        boolean strict = operatorB == Operator.GT || operatorB == Operator.LT;
+
+        return switch (operatorA) {
+            case GT -> lower && (keyB > keyA || keyB == keyA && strict);
+            case GTE -> lower && keyB >= keyA;
+            case LT -> upper && (keyB < keyA || keyB == keyA && strict);
+            case LTE -> upper && keyB <= keyA;
+            case EQ -> false;
+            // keyA must be outside the values of b
+            case NEQ -> lower && (keyB > keyA || keyB == keyA && strict)
+                    || upper && (keyB < keyA || keyB == keyA && strict);
+        };
+    }
+
+    // Subscriptions restricting the same fields; per field, their conditions sorted by value,
+    // one array per operator
+    private static class Group {
+        // GT, GTE, LT, LTE, EQ and two ranges of NEQ values
+        final static int MAX_RANGES = 7;
+
+        final int[] members;
+        final int[] fields;
+        // [field of the group * operators + operator]
+        final double[][] keys;
+        final int[][] ids;
+
+        Group(long mask, List<Integer> memberList, Operator[][] operators, double[][] subscriptionKeys) {
+            this.members = memberList.stream().mapToInt(Integer::intValue).toArray();
+            this.fields = new int[Long.bitCount(mask)];
+            int g = 0;
+            for (long bits = mask; bits != 0; bits &= bits - 1) {
+                fields[g++] = Long.numberOfTrailingZeros(bits);
+            }
+
+            int operatorsCount = Operator.values().length;
+            this.keys = new double[fields.length * operatorsCount][];
+            this.ids = new int[fields.length * operatorsCount][];
+            for (g = 0; g < fields.length; g++) {
+                int f = fields[g];
+                for (Operator operator : Operator.values()) {
+                    Integer[] order = Arrays.stream(members)
+                            .filter(s -> operators[s][f] == operator)
+                            .boxed()
+                            .sorted((x, y) -> Double.compare(subscriptionKeys[x][f], subscriptionKeys[y][f]))
+                            .toArray(Integer[]::new);
+                    double[] sortedKeys = new double[order.length];
+                    int[] sortedIds = new int[order.length];
+                    for (int i = 0; i < order.length; i++) {
+                        sortedKeys[i] = subscriptionKeys[order[i]][f];
+                        sortedIds[i] = order[i];
+                    }
+                    keys[g * operatorsCount + operator.ordinal()] = sortedKeys;
+                    ids[g * operatorsCount + operator.ordinal()] = sortedIds;
+                }
+            }
+        }
+
+        // Writes (list, from, to) triples of the members whose condition on the g-th field
+        // may contain (operator, key), returns the number of triples
+        int candidates(int g, Operator operator, double key, int[] out) {
+            int base = g * Operator.values().length;
+            boolean lower = operator == Operator.GT || operator == Operator.GTE || operator == Operator.EQ;
+            boolean upper = operator == Operator.LT || operator == Operator.LTE || operator == Operator.EQ;
+
+            int n = 0;
+            if (lower) {
+                n = add(out, n, base + Operator.GT.ordinal(), 0, upperBound(keys[base + Operator.GT.ordinal()], key));
+                n = add(out, n, base + Operator.GTE.ordinal(), 0, upperBound(keys[base + Operator.GTE.ordinal()], key));
+            }
+            if (upper) {
+                n = add(out, n, base + Operator.LT.ordinal(), lowerBound(keys[base + Operator.LT.ordinal()], key), keys[base + Operator.LT.ordinal()].length);
+                n = add(out, n, base + Operator.LTE.ordinal(), lowerBound(keys[base + Operator.LTE.ordinal()], key), keys[base + Operator.LTE.ordinal()].length);
+            }
+
+            int eq = base + Operator.EQ.ordinal();
+            int neq = base + Operator.NEQ.ordinal();
+            if (operator == Operator.EQ) {
+                n = add(out, n, eq, lowerBound(keys[eq], key), upperBound(keys[eq], key));
+                // NEQ of any other value
+                n = add(out, n, neq, 0, lowerBound(keys[neq], key));
+                n = add(out, n, neq, upperBound(keys[neq], key), keys[neq].length);
+            } else if (operator == Operator.NEQ) {
+                n = add(out, n, neq, lowerBound(keys[neq], key), upperBound(keys[neq], key));
+            } else if (lower) {
+                n = add(out, n, neq, 0, upperBound(keys[neq], key));
+            } else {
+                n = add(out, n, neq, lowerBound(keys[neq], key), keys[neq].length);
+            }
+            return n;
+        }
+
+        private static int add(int[] out, int n, int list, int from, int to) {
+            if (from >= to) {
+                return n;
+            }
+            out[n * 3] = list;
+            out[n * 3 + 1] = from;
+            out[n * 3 + 2] = to;
+            return n + 1;
+        }
+
+        // first index with a key >= value
+        private static int lowerBound(double[] sorted, double value) {
+            int lo = 0;
+            int hi = sorted.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (sorted[mid] < value) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        // first index with a key > value
+        private static int upperBound(double[] sorted, double value) {
+            int lo = 0;
+            int hi = sorted.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (sorted[mid] <= value) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.matching;
+
+public record CoveringStatistics(int totalSubscriptions, int skippedSubscriptions, int duplicates, int covered,
+                                 int coveringSetSize, long comparisons, long totalTimeInMillis) {
+
+    // Share of the subscriptions that a broker does not need to route on
+    public double reductionPercent() {
+        return totalSubscriptions == 0 ? 0.0 : (totalSubscriptions - coveringSetSize) * 100.0 / totalSubscriptions;
+    }
+
+    // Pairs compared by a naive analysis of the analyzed (not skipped, not duplicate) subscriptions
+    public long naiveComparisons() {
+        long analyzed = totalSubscriptions - skippedSubscriptions - duplicates;
+        return analyzed * (analyzed - 1);
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.matching;
+
+import java.util.function.IntConsumer;
+
+public interface FieldIndex {
+    // Passes every predicate satisfied by the publication value to the consumer
+    void forEachSatisfied(String value, IntConsumer consumer);
+
+    int size();
+}
@@ -0,0 +1,25 @@
+package org.example.matching;
+
+import org.example.schema.DateCodec;
+import org.example.schema.SchemaField;
+import org.example.schema.SchemaFieldDataTypes;
+
+public class FieldValues {
+    private FieldValues() {
+    }
+
+    public static boolean isNumeric(SchemaField field) {
+        return field.dataType() != SchemaFieldDataTypes.String;
+    }
+
+    // Integer, Double and Date values are compared through a double key
+    // (dates are converted to epoch days, which are exact in a double)
+    public static double toKey(SchemaField field, String value) {
+        return switch (field.dataType()) {
+            case Integer -> Integer.parseInt(value);
+            case Double -> Double.parseDouble(value);
+            case Date -> DateCodec.parseEpochDay(value);
+            case String -> throw new IllegalArgumentException("Field " + field.field() + " has no numeric key");
+        };
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.matching;
+
+import org.example.columnar.CategoricalFields;
+import org.example.columnar.FieldDictionary;
+import org.example.schema.Operator;
+import org.example.schema.SchemaField;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+// Index for String fields, on the FieldDictionary ids of the values: EQ predicates are
+// bucketed by id in an array, NEQ predicates are grouped by id so that a lookup emits every
+// group except the one of the publication value. Range operators are not generated for these
+// fields (see SubscriptionsGenerator.randomOperator), so they are kept in a small list.
+public class HashFieldIndex implements FieldIndex {
+    private final FieldDictionary dictionary;
+    // indexed by dictionary id, null when no EQ predicate has that value
+    private final int[][] equalBuckets;
+    private final int[] notEqualValues;
+    private final int[][] notEqualIds;
+    private final Predicate[] predicates;
+    private final int[] rangeIds;
+    private final int size;
+
+    public HashFieldIndex(SchemaField field, Predicate[] predicates, int[] predicateIds) {
+        this.dictionary = CategoricalFields.dictionary(field.field());
+        this.predicates = predicates;
+        this.size = predicateIds.length;
+
+        Map<Integer, List<Integer>> equal = new HashMap<>();
+        Map<Integer, List<Integer>> notEqual = new HashMap<>();
+        List<Integer> range = new ArrayList<>();
+
+        for (int p : predicateIds) {
+            Predicate predicate = predicates[p];
+            if (predicate.operator() == Operator.EQ) {
+                equal.computeIfAbsent(dictionary.id(predicate.value()), k -> new ArrayList<>()).add(p);
+            } else if (predicate.operator() == Operator.NEQ) {
+                notEqual.computeIfAbsent(dictionary.id(predicate.value()), k -> new ArrayList<>()).add(p);
+            } else {
+                range.add(p);
+            }
+        }
+
+        this.equalBuckets = new int[dictionary.size()][];
+        for (Map.Entry<Integer, List<Integer>> entry : equal.entrySet()) {
+            equalBuckets[entry.getKey()] = toArray(entry.getValue());
+        }
+
+        this.notEqualValues = new int[notEqual.size()];
+        this.notEqualIds = new int[notEqual.size()][];
+        int i = 0;
+        for (Map.Entry<Integer, List<Integer>> entry : notEqual.entrySet()) {
+            notEqualValues[i] = entry.getKey();
+            notEqualIds[i] = toArray(entry.getValue());
+            i++;
+        }
+
+        this.rangeIds = toArray(range);
+    }
+
+    @Override
+    public void forEachSatisfied(String value, IntConsumer consumer) {
+        // a value outside the dictionary equals no predicate value (-1 is never an id)
+        forEachSatisfied(dictionary.find(value), value, consumer);
+    }
+
+    // Lookup by dictionary id, as kept by the columnar batches
+    public void forEachSatisfied(int id, IntConsumer consumer) {
+        forEachSatisfied(id, null, consumer);
+    }
+
+    private void forEachSatisfied(int id, String value, IntConsumer consumer) {
+        int[] bucket = id >= 0 && id < equalBuckets.length ? equalBuckets[id] : null;
+        if (bucket != null) {
+            for (int p : bucket) {
+                consumer.accept(p);
+            }
+        }
+
+        for (int i = 0; i < notEqualValues.length; i++) {
+            if (notEqualValues[i] == id) continue;
+            for (int p : notEqualIds[i]) {
+                consumer.accept(p);
+            }
+        }
+
+        if (rangeIds.length == 0) return;
+        if (value == null) {
+            value = dictionary.value(id);
+        }
+        for (int p : rangeIds) {
+            int cmp = value.compareTo(predicates[p].value());
+            boolean satisfied = switch (predicates[p].operator()) {
+                case GT -> cmp > 0;
+                case GTE -> cmp >= 0;
+                case LT -> cmp < 0;
+                case LTE -> cmp <= 0;
+                default -> false;
+            };
+            if (satisfied) {
+                consumer.accept(p);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        return values.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,302 @@
+package org.example.matching;
+
+import org.example.Publication;
+import org.example.Subscription;
+import org.example.columnar.PublicationBatch;
+import org.example.columnar.SubscriptionBatch;
+import org.example.schema.Schema;
+import org.example.schema.SchemaField;
+import org.example.schema.SchemaFieldNames;
+import org.example.schema.SchemaFields;
+import org.example.schema.SubscriptionValue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+// Counting algorithm: every distinct (field, operator, value) condition is a predicate.
+// The per-field indexes return the predicates satisfied by a publication, each one
+// increments the counter of all subscriptions that contain it, and a subscription
+// matches when its counter reaches its number of predicates.
+public class MatchingEngine {
+    private final Schema schema;
+    private final int[] subscriptionIds;
+    private final int[] requiredCounts;
+    private final int skippedSubscriptions;
+
+    private final Predicate[] predicates;
+    private final int[][] predicateSubscribers;
+    private final SubscriptionIndex index;
+
+    public MatchingEngine(Schema schema, List<Subscription> subscriptions) throws Exception {
+        this(schema, subscriptions, 1);
+    }
+
+    public MatchingEngine(Schema schema, List<Subscription> subscriptions, int numberOfThreads) throws Exception {
+        this(schema, conditionsOf(subscriptions), numberOfThreads);
+    }
+
+    public MatchingEngine(Schema schema, SubscriptionBatch subscriptions, int numberOfThreads) throws Exception {
+        this(schema, conditionsOf(subscriptions), numberOfThreads);
+    }
+
+    // One array of predicates per subscription, null for the subscriptions with average
+    // conditions (these are evaluated over a window of publications, not a single one)
+    private MatchingEngine(Schema schema, Predicate[][] conditions, int numberOfThreads) throws Exception {
+        this.schema = schema;
+
+        Map<Predicate, Integer> predicateIds = new HashMap<>();
+        List<Predicate> predicateList = new ArrayList<>();
+        List<List<Integer>> subscribers = new ArrayList<>();
+        List<Integer> ids = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        int skipped = 0;
+
+        for (int i = 0; i < conditions.length; i++) {
+            if (conditions[i] == null) {
+                skipped++;
+                continue;
+            }
+
+            int internalId = ids.size();
+            ids.add(i);
+            counts.add(conditions[i].length);
+
+            for (Predicate predicate : conditions[i]) {
+                Integer predicateId = predicateIds.get(predicate);
+                if (predicateId == null) {
+                    predicateId = predicateList.size();
+                    predicateIds.put(predicate, predicateId);
+                    predicateList.add(predicate);
+                    subscribers.add(new ArrayList<>());
+                }
+                subscribers.get(predicateId).add(internalId);
+            }
+        }
+
+        this.subscriptionIds = ids.stream().mapToInt(Integer::intValue).toArray();
+        this.requiredCounts = counts.stream().mapToInt(Integer::intValue).toArray();
+        this.skippedSubscriptions = skipped;
+
+        this.predicates = predicateList.toArray(new Predicate[0]);
+        this.predicateSubscribers = new int[predicates.length][];
+
+        List<List<Integer>> perField = new ArrayList<>();
+        for (int f = 0; f < schema.fields.size(); f++) {
+            perField.add(new ArrayList<>());
+        }
+
+        for (int p = 0; p < predicates.length; p++) {
+            Predicate predicate = predicates[p];
+            predicateSubscribers[p] = subscribers.get(p).stream().mapToInt(Integer::intValue).toArray();
+
+            int fieldIndex = schema.fields.indexOf(predicate.field());
+            if (fieldIndex < 0) {
+                throw new IllegalArgumentException("Field " + predicate.field().field() + " is not part of the schema");
+            }
+            perField.get(fieldIndex).add(p);
+        }
+
+        int[][] fieldPredicates = new int[perField.size()][];
+        for (int f = 0; f < perField.size(); f++) {
+            fieldPredicates[f] = perField.get(f).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        this.index = SubscriptionIndex.build(schema, predicates, fieldPredicates, numberOfThreads);
+    }
+
+    private static Predicate[][] conditionsOf(List<Subscription> subscriptions) {
+        Predicate[][] conditions = new Predicate[subscriptions.size()][];
+        for (int i = 0; i < conditions.length; i++) {
+            Subscription subscription = subscriptions.get(i);
+            if (subscription.fields.values().stream().anyMatch(SubscriptionValue::isAverage)) {
+                continue;
+            }
+
+            conditions[i] = new Predicate[subscription.fields.size()];
+            int c = 0;
+            for (Map.Entry<SchemaField, SubscriptionValue> entry : subscription.fields.entrySet()) {
+                conditions[i][c++] = new Predicate(entry.getKey(), entry.getValue().operator(), entry.getValue().value());
+            }
+        }
+        return conditions;
+    }
+
+    private static Predicate[][] conditionsOf(SubscriptionBatch subscriptions) {
+        Predicate[][] conditions = new Predicate[subscriptions.size][];
+        for (int row = 0; row < conditions.length; row++) {
+            if (subscriptions.average[row] != 0) {
+                continue;
+            }
+
+            conditions[row] = new Predicate[subscriptions.fieldsCount(row)];
+            int c = 0;
+            for (SchemaFieldNames field : SchemaFieldNames.values()) {
+                if (subscriptions.has(row, field)) {
+                    conditions[row][c++] = new Predicate(SchemaFields.of(field), subscriptions.operator(row, field),
+                            subscriptions.values.stringValue(field, row));
+                }
+            }
+        }
+        return conditions;
+    }
+
+    public int getIndexedSubscriptions() {
+        return subscriptionIds.length;
+    }
+
+    public int getSkippedSubscriptions() {
+        return skippedSubscriptions;
+    }
+
+    public int getPredicatesCount() {
+        return predicates.length;
+    }
+
+    public MatchContext newContext() {
+        MatchContext context = new MatchContext(subscriptionIds.length);
+        context.onPredicate = p -> increment(predicateSubscribers[p], context);
+        return context;
+    }
+
+    // Returns the number of matched subscriptions; their indexes (in the list given
+    // to the constructor) are available through the context until the next call
+    public int match(Publication publication, MatchContext context) {
+        context.nextEpoch();
+
+        for (int f = 0; f < schema.fields.size(); f++) {
+            FieldIndex fieldIndex = index.get(f);
+            if (fieldIndex == null) continue;
+
+            String value = publication.fields.get(schema.fields.get(f));
+            if (value == null) continue;
+
+            fieldIndex.forEachSatisfied(value, context.onPredicate);
+        }
+
+        return context.matchesCount;
+    }
+
+    // Columnar variant; the batch must be built on the same schema as the engine
+    public int match(PublicationBatch batch, int row, MatchContext context) {
+        context.nextEpoch();
+
+        for (int f = 0; f < schema.fields.size(); f++) {
+            FieldIndex fieldIndex = index.get(f);
+            if (fieldIndex == null) continue;
+
+            SchemaFieldNames field = schema.fields.get(f).field();
+            if (fieldIndex instanceof RangeFieldIndex rangeIndex) {
+                rangeIndex.forEachSatisfied(batch.values.numericKey(field, row), context.onPredicate);
+            } else if (fieldIndex instanceof HashFieldIndex hashIndex) {
+                hashIndex.forEachSatisfied(batch.values.categoryId(field, row), context.onPredicate);
+            } else {
+                fieldIndex.forEachSatisfied(batch.values.stringValue(field, row), context.onPredicate);
+            }
+        }
+
+        return context.matchesCount;
+    }
+
+    private void increment(int[] subscribers, MatchContext context) {
+        int epoch = context.epoch;
+        for (int s : subscribers) {
+            if (context.stamps[s] != epoch) {
+                context.stamps[s] = epoch;
+                context.counts[s] = 0;
+            }
+            if (++context.counts[s] == requiredCounts[s]) {
+                context.addMatch(subscriptionIds[s]);
+            }
+        }
+    }
+
+    public MatchingStatistics matchPublications(List<Publication> publications, int numberOfThreads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+        List<Future<Long>> futures = new ArrayList<>();
+
+        int chunkSize = publications.size() / numberOfThreads;
+        int reminder = publications.size() % numberOfThreads;
+
+        long start = System.nanoTime();
+
+        int from = 0;
+        for (int i = 0; i < numberOfThreads; i++) {
+            int to = from + chunkSize + (i < reminder ? 1 : 0);
+            List<Publication> chunk = publications.subList(from, to);
+            from = to;
+
+            futures.add(executor.submit(() -> {
+                MatchContext context = newContext();
+                long matches = 0;
+                for (Publication publication : chunk) {
+                    matches += match(publication, context);
+                }
+                return matches;
+            }));
+        }
+
+        long totalMatches = 0;
+        try {
+            for (Future<Long> future : futures) {
+                totalMatches += future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        long end = System.nanoTime();
+
+        return new MatchingStatistics(
+                publications.size(),
+                totalMatches,
+                (end - start) / 1_000_000,
+                getIndexedSubscriptions(),
+                skippedSubscriptions
+        );
+    }
+
+    public static class MatchContext {
+        private final int[] counts;
+        private final int[] stamps;
+        private int epoch;
+        private int[] matches = new int[16];
+        private int matchesCount;
+        private IntConsumer onPredicate;
+
+        private MatchContext(int subscriptionsCount) {
+            this.counts = new int[subscriptionsCount];
+            this.stamps = new int[subscriptionsCount];
+        }
+
+        private void nextEpoch() {
+            if (++epoch == 0) {
+                // wrapped around, stale stamps could collide with the new epoch
+                Arrays.fill(stamps, 0);
+                epoch = 1;
+            }
+            matchesCount = 0;
+        }
+
+        private void addMatch(int subscriptionId) {
+            if (matchesCount == matches.length) {
+                matches = Arrays.copyOf(matches, matches.length * 2);
+            }
+            matches[matchesCount++] = subscriptionId;
+        }
+
+        public int getMatchesCount() {
+            return matchesCount;
+        }
+
+        public int getMatch(int i) {
+            return matches[i];
+        }
+    }
+}
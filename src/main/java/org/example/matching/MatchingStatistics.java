@@ -0,0 +1,17 @@
+package org.example.matching;
+
+public record MatchingStatistics(long totalPublications, long totalMatches, long totalTimeInMillis,
+                                 int indexedSubscriptions, int skippedSubscriptions) {
+
+    public double matchesPerSecond() {
+        return totalTimeInMillis == 0 ? totalMatches * 1000.0 : totalMatches * 1000.0 / totalTimeInMillis;
+    }
+
+    public double publicationsPerSecond() {
+        return totalTimeInMillis == 0 ? totalPublications * 1000.0 : totalPublications * 1000.0 / totalTimeInMillis;
+    }
+
+    public double matchesPerPublication() {
+        return totalPublications == 0 ? 0.0 : (double) totalMatches / totalPublications;
+    }
+}
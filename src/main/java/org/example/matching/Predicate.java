@@ -0,0 +1,7 @@
+package org.example.matching;
+
+import org.example.schema.Operator;
+import org.example.schema.SchemaField;
+
+public record Predicate(SchemaField field, Operator operator, String value) {
+}
@@ -0,0 +1,124 @@
+package org.example.matching;
+
+import org.example.schema.Operator;
+import org.example.schema.SchemaField;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+// Index for Integer, Double and Date fields: one sorted boundary array per operator.
+// A lookup costs a binary search per operator plus the number of satisfied predicates.
+public class RangeFieldIndex implements FieldIndex {
+    private final SchemaField field;
+    private final double[][] keys = new double[Operator.values().length][];
+    private final int[][] ids = new int[Operator.values().length][];
+    private final int size;
+
+    public RangeFieldIndex(SchemaField field, Predicate[] predicates, int[] predicateIds) {
+        this.field = field;
+        this.size = predicateIds.length;
+
+        List<List<Integer>> perOperator = new ArrayList<>();
+        for (int i = 0; i < Operator.values().length; i++) {
+            perOperator.add(new ArrayList<>());
+        }
+        for (int p : predicateIds) {
+            perOperator.get(predicates[p].operator().ordinal()).add(p);
+        }
+
+        for (Operator operator : Operator.values()) {
+            List<Integer> operatorIds = perOperator.get(operator.ordinal());
+            double[] predicateKeys = new double[operatorIds.size()];
+            for (int i = 0; i < predicateKeys.length; i++) {
+                predicateKeys[i] = FieldValues.toKey(field, predicates[operatorIds.get(i)].value());
+            }
+
+            Integer[] order = new Integer[operatorIds.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Double.compare(predicateKeys[a], predicateKeys[b]));
+
+            double[] sortedKeys = new double[order.length];
+            int[] sortedIds = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                sortedKeys[i] = predicateKeys[order[i]];
+                sortedIds[i] = operatorIds.get(order[i]);
+            }
+
+            keys[operator.ordinal()] = sortedKeys;
+            ids[operator.ordinal()] = sortedIds;
+        }
+    }
+
+    @Override
+    public void forEachSatisfied(String value, IntConsumer consumer) {
+        forEachSatisfied(FieldValues.toKey(field, value), consumer);
+    }
+
+    public void forEachSatisfied(double key, IntConsumer consumer) {
+        // GT x holds for x < key
+        double[] gt = keys[Operator.GT.ordinal()];
+        emit(ids[Operator.GT.ordinal()], 0, lowerBound(gt, key), consumer);
+
+        // GTE x holds for x <= key
+        double[] gte = keys[Operator.GTE.ordinal()];
+        emit(ids[Operator.GTE.ordinal()], 0, upperBound(gte, key), consumer);
+
+        // LT x holds for x > key
+        double[] lt = keys[Operator.LT.ordinal()];
+        emit(ids[Operator.LT.ordinal()], upperBound(lt, key), lt.length, consumer);
+
+        // LTE x holds for x >= key
+        double[] lte = keys[Operator.LTE.ordinal()];
+        emit(ids[Operator.LTE.ordinal()], lowerBound(lte, key), lte.length, consumer);
+
+        double[] eq = keys[Operator.EQ.ordinal()];
+        int eqFrom = lowerBound(eq, key);
+        emit(ids[Operator.EQ.ordinal()], eqFrom, upperBound(eq, key, eqFrom), consumer);
+
+        double[] neq = keys[Operator.NEQ.ordinal()];
+        int neqFrom = lowerBound(neq, key);
+        emit(ids[Operator.NEQ.ordinal()], 0, neqFrom, consumer);
+        emit(ids[Operator.NEQ.ordinal()], upperBound(neq, key, neqFrom), neq.length, consumer);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private static void emit(int[] ids, int from, int to, IntConsumer consumer) {
+        for (int i = from; i < to; i++) {
+            consumer.accept(ids[i]);
+        }
+    }
+
+    // first position with keys[i] >= key
+    private static int lowerBound(double[] keys, double key) {
+        int lo = 0, hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int upperBound(double[] keys, double key) {
+        return upperBound(keys, key, 0);
+    }
+
+    // first position with keys[i] > key, searching from a known lower position
+    private static int upperBound(double[] keys, double key, int from) {
+        int lo = from, hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] <= key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
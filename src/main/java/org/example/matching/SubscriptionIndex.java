@@ -0,0 +1,57 @@
+package org.example.matching;
+
+import org.example.schema.Schema;
+import org.example.schema.SchemaField;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// One FieldIndex per schema field (null when no subscription uses the field)
+public class SubscriptionIndex {
+    private final FieldIndex[] fieldIndexes;
+
+    private SubscriptionIndex(FieldIndex[] fieldIndexes) {
+        this.fieldIndexes = fieldIndexes;
+    }
+
+    public FieldIndex get(int fieldIndex) {
+        return fieldIndexes[fieldIndex];
+    }
+
+    public static SubscriptionIndex build(Schema schema, Predicate[] predicates, int[][] fieldPredicates,
+                                          int numberOfThreads) throws Exception {
+        FieldIndex[] fieldIndexes = new FieldIndex[schema.fields.size()];
+
+        // Fields are independent, so each one is built by its own task
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(numberOfThreads, fieldIndexes.length)));
+        List<Future<FieldIndex>> futures = new ArrayList<>();
+
+        try {
+            for (int f = 0; f < fieldIndexes.length; f++) {
+                SchemaField field = schema.fields.get(f);
+                int[] ids = fieldPredicates[f];
+                futures.add(executor.submit(() -> buildFieldIndex(field, predicates, ids)));
+            }
+
+            for (int f = 0; f < fieldIndexes.length; f++) {
+                fieldIndexes[f] = futures.get(f).get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        return new SubscriptionIndex(fieldIndexes);
+    }
+
+    private static FieldIndex buildFieldIndex(SchemaField field, Predicate[] predicates, int[] ids) {
+        if (ids.length == 0) {
+            return null;
+        }
+        return FieldValues.isNumeric(field)
+                ? new RangeFieldIndex(field, predicates, ids)
+                : new HashFieldIndex(field, predicates, ids);
+    }
+}
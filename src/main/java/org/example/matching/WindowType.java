@@ -0,0 +1,8 @@
+package org.example.matching;
+
+// TUMBLING - consecutive, non-overlapping windows of `size` publications
+// SLIDING  - the last `size` publications, evaluated every `slide` publications
+public enum WindowType {
+    TUMBLING,
+    SLIDING
+}
@@ -0,0 +1,449 @@
+package org.example.matching;
+
+import org.example.Publication;
+import org.example.Subscription;
+import org.example.columnar.CategoricalFields;
+import org.example.columnar.PublicationBatch;
+import org.example.columnar.ValueColumns;
+import org.example.generators.GeneratorsParams;
+import org.example.schema.Operator;
+import org.example.schema.Schema;
+import org.example.schema.SchemaField;
+import org.example.schema.SchemaFieldNames;
+import org.example.schema.SubscriptionValue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+// Evaluates the subscriptions with average conditions (the ones MatchingEngine skips).
+// Publications are grouped by the key field (Station or City); every key keeps a count-based
+// window over its last `size` publications, as ring buffers of Temp, Rain and Wind with
+// running sums, so a publication costs O(1) and a key costs 3 * size longs. The sums are
+// exact integers, so an average equal to a condition value compares as equal.
+// When a window closes, its averages are checked against the average conditions and the
+// other conditions against the publication that closed the window (which has the key of the
+// window). Every subscription is indexed only by its most selective condition (estimated from
+// the field limits, see selectivity), with one RangeFieldIndex / HashFieldIndex per field and
+// per averaged field; a close looks up every index and checks the other conditions of the
+// subscriptions it returns, so it touches the candidates, not all the average subscriptions.
+// Not thread-safe: windows depend on the order of the publications.
+public class WindowedAggregator {
+    private final static SchemaFieldNames[] AVERAGED = {SchemaFieldNames.Temp, SchemaFieldNames.Rain, SchemaFieldNames.Wind};
+    private final static int[] AVERAGED_INDEX = new int[SchemaFieldNames.values().length];
+    // Rain is kept in hundredths (what DoubleFieldLimit generates), Temp and Wind are integers
+    private final static long[] SCALE = {1, 100, 1};
+    // Conditions on the publication fields, by field ordinal, then on the averages
+    private final static int DIMENSIONS = SchemaFieldNames.values().length + AVERAGED.length;
+
+    static {
+        Arrays.fill(AVERAGED_INDEX, -1);
+        for (int i = 0; i < AVERAGED.length; i++) {
+            AVERAGED_INDEX[AVERAGED[i].ordinal()] = i;
+        }
+    }
+
+    private final SchemaFieldNames keyField;
+    private final WindowType type;
+    private final int size;
+    private final int slide;
+
+    // Conditions of subscription s other than its indexed one: [conditionStart[s], conditionStart[s + 1])
+    private final int[] subscriptionIds;
+    private final int[] conditionStart;
+    private final SchemaFieldNames[] conditionFields;
+    private final Operator[] conditionOperators;
+    private final double[] conditionKeys;
+    private final boolean[] conditionAverage;
+    private final int skippedSubscriptions;
+
+    // Distinct indexed conditions, the subscriptions indexed by each one, and one index per
+    // dimension (null when no subscription is indexed there)
+    private final int[][] predicateSubscribers;
+    private final FieldIndex[] indexes = new FieldIndex[DIMENSIONS];
+
+    // State of the close being evaluated, read by onPredicate
+    private ValueColumns closeValues;
+    private int closeRow;
+    private IntConsumer onMatch;
+    private int matched;
+    private final IntConsumer onPredicate = this::evaluate;
+
+    private Window[] windows = new Window[0];
+    private final PublicationBatch rowBuffer;
+    private final double[] averages = new double[AVERAGED.length];
+
+    private long publications;
+    private long windowsClosed;
+    private long matches;
+
+    public WindowedAggregator(Schema schema, List<Subscription> subscriptions, SchemaFieldNames keyField,
+                              WindowType type, int size, int slide) {
+        if (keyField != SchemaFieldNames.Station && keyField != SchemaFieldNames.City) {
+            throw new IllegalArgumentException("Windows can be keyed by Station or City, not " + keyField);
+        }
+        if (size <= 0 || slide <= 0) {
+            throw new IllegalArgumentException("Window size and slide must be positive");
+        }
+
+        this.keyField = keyField;
+        this.type = type;
+        this.size = size;
+        this.slide = type == WindowType.TUMBLING ? size : slide;
+        this.rowBuffer = new PublicationBatch(schema, 1);
+
+        List<Integer> ids = new ArrayList<>();
+        List<Integer> starts = new ArrayList<>();
+        List<SchemaFieldNames> fields = new ArrayList<>();
+        List<Operator> operators = new ArrayList<>();
+        List<Double> keys = new ArrayList<>();
+        List<Boolean> average = new ArrayList<>();
+
+        List<Map<Predicate, Integer>> predicateIds = new ArrayList<>();
+        for (int d = 0; d < DIMENSIONS; d++) {
+            predicateIds.add(new HashMap<>());
+        }
+        List<Predicate> predicateList = new ArrayList<>();
+        List<Integer> predicateDimensions = new ArrayList<>();
+        List<List<Integer>> subscribers = new ArrayList<>();
+
+        for (int i = 0; i < subscriptions.size(); i++) {
+            Subscription subscription = subscriptions.get(i);
+            if (subscription.fields.values().stream().noneMatch(SubscriptionValue::isAverage)) {
+                continue;
+            }
+
+            int internalId = ids.size();
+            ids.add(i);
+            starts.add(fields.size());
+
+            Map.Entry<SchemaField, SubscriptionValue> indexed = null;
+            double indexedSelectivity = Double.MAX_VALUE;
+            for (Map.Entry<SchemaField, SubscriptionValue> entry : subscription.fields.entrySet()) {
+                SchemaFieldNames field = entry.getKey().field();
+                SubscriptionValue value = entry.getValue();
+                if (value.isAverage() && AVERAGED_INDEX[field.ordinal()] < 0) {
+                    throw new IllegalArgumentException("Field " + field + " cannot be averaged");
+                }
+
+                double conditionKey = FieldValues.isNumeric(entry.getKey())
+                        ? FieldValues.toKey(entry.getKey(), value.value())
+                        : CategoricalFields.dictionary(field).id(value.value());
+                double conditionSelectivity = selectivity(field, value.operator(), conditionKey, value.isAverage(), size);
+                if (conditionSelectivity < indexedSelectivity) {
+                    // the previously chosen condition is checked instead
+                    if (indexed != null) {
+                        addCondition(indexed, fields, operators, keys, average);
+                    }
+                    indexed = entry;
+                    indexedSelectivity = conditionSelectivity;
+                } else {
+                    addCondition(entry, fields, operators, keys, average);
+                }
+            }
+
+            SubscriptionValue value = indexed.getValue();
+            int dimension = value.isAverage()
+                    ? SchemaFieldNames.values().length + AVERAGED_INDEX[indexed.getKey().field().ordinal()]
+                    : indexed.getKey().field().ordinal();
+            Predicate predicate = new Predicate(indexed.getKey(), value.operator(), value.value());
+            Integer predicateId = predicateIds.get(dimension).get(predicate);
+            if (predicateId == null) {
+                predicateId = predicateList.size();
+                predicateIds.get(dimension).put(predicate, predicateId);
+                predicateList.add(predicate);
+                predicateDimensions.add(dimension);
+                subscribers.add(new ArrayList<>());
+            }
+            subscribers.get(predicateId).add(internalId);
+        }
+        starts.add(fields.size());
+
+        this.subscriptionIds = ids.stream().mapToInt(Integer::intValue).toArray();
+        this.conditionStart = starts.stream().mapToInt(Integer::intValue).toArray();
+        this.conditionFields = fields.toArray(new SchemaFieldNames[0]);
+        this.conditionOperators = operators.toArray(new Operator[0]);
+        this.conditionKeys = keys.stream().mapToDouble(Double::doubleValue).toArray();
+        this.conditionAverage = new boolean[average.size()];
+        for (int c = 0; c < conditionAverage.length; c++) {
+            conditionAverage[c] = average.get(c);
+        }
+        this.skippedSubscriptions = subscriptions.size() - subscriptionIds.length;
+
+        Predicate[] predicates = predicateList.toArray(new Predicate[0]);
+        this.predicateSubscribers = new int[predicates.length][];
+        List<List<Integer>> perDimension = new ArrayList<>();
+        for (int d = 0; d < DIMENSIONS; d++) {
+            perDimension.add(new ArrayList<>());
+        }
+        for (int p = 0; p < predicates.length; p++) {
+            predicateSubscribers[p] = subscribers.get(p).stream().mapToInt(Integer::intValue).toArray();
+            perDimension.get(predicateDimensions.get(p)).add(p);
+        }
+
+        for (int d = 0; d < DIMENSIONS; d++) {
+            int[] dimensionIds = perDimension.get(d).stream().mapToInt(Integer::intValue).toArray();
+            if (dimensionIds.length == 0) continue;
+
+            SchemaField field = predicates[dimensionIds[0]].field();
+            indexes[d] = FieldValues.isNumeric(field)
+                    ? new RangeFieldIndex(field, predicates, dimensionIds)
+                    : new HashFieldIndex(field, predicates, dimensionIds);
+        }
+    }
+
+    private static void addCondition(Map.Entry<SchemaField, SubscriptionValue> entry, List<SchemaFieldNames> fields,
+                                     List<Operator> operators, List<Double> keys, List<Boolean> average) {
+        SchemaFieldNames field = entry.getKey().field();
+        SubscriptionValue value = entry.getValue();
+        fields.add(field);
+        operators.add(value.operator());
+        keys.add(FieldValues.isNumeric(entry.getKey())
+                ? FieldValues.toKey(entry.getKey(), value.value())
+                : CategoricalFields.dictionary(field).id(value.value()));
+        average.add(value.isAverage());
+    }
+
+    // Estimated share of the publications (or of the windows, for an average) satisfying the
+    // condition: values are taken as uniform over the limits in GeneratorsParams, and the
+    // average of `size` of them as normal around the middle of the limits
+    static double selectivity(SchemaFieldNames field, Operator operator, double key, boolean average, int size) {
+        double min;
+        double max;
+        double count;
+        switch (field) {
+            case City, Direction -> {
+                count = (field == SchemaFieldNames.City ? GeneratorsParams.cityLimit : GeneratorsParams.directionLimit).values.size();
+                return switch (operator) {
+                    case EQ -> 1.0 / count;
+                    case NEQ -> 1.0 - 1.0 / count;
+                    default -> 0.5;
+                };
+            }
+            case Station -> {
+                min = GeneratorsParams.stationLimit.min;
+                max = GeneratorsParams.stationLimit.max;
+                count = max - min + 1;
+            }
+            case Temp -> {
+                min = GeneratorsParams.tempLimit.min;
+                max = GeneratorsParams.tempLimit.max;
+                count = max - min + 1;
+            }
+            case Wind -> {
+                min = GeneratorsParams.windLimit.min;
+                max = GeneratorsParams.windLimit.max;
+                count = max - min + 1;
+            }
+            case Rain -> {
+                min = GeneratorsParams.rainLimit.min;
+                max = GeneratorsParams.rainLimit.max;
+                count = GeneratorsParams.rainLimit.valuesCount();
+            }
+            default -> {
+                min = GeneratorsParams.dateLimit.minEpochDay;
+                max = GeneratorsParams.dateLimit.maxEpochDay;
+                count = max - min + 1;
+            }
+        }
+        if (operator == Operator.EQ || operator == Operator.NEQ) {
+            return operator == Operator.EQ ? 1.0 / count : 1.0 - 1.0 / count;
+        }
+
+        // share of the values above the key
+        double above;
+        if (average) {
+            double deviation = (max - min) / Math.sqrt(12.0 * size);
+            double z = deviation == 0 ? 0 : (key - (min + max) / 2) / deviation;
+            // logistic approximation of the normal distribution
+            above = 1.0 / (1.0 + Math.exp(1.702 * z));
+        } else {
+            above = max == min ? 0.5 : Math.min(1.0, Math.max(0.0, (max - key) / (max - min)));
+        }
+        return operator == Operator.GT || operator == Operator.GTE ? above : 1.0 - above;
+    }
+
+    public int getAverageSubscriptions() {
+        return subscriptionIds.length;
+    }
+
+    public int getSkippedSubscriptions() {
+        return skippedSubscriptions;
+    }
+
+    public long getWindowsClosed() {
+        return windowsClosed;
+    }
+
+    public int getKeysCount() {
+        int count = 0;
+        for (Window window : windows) {
+            if (window != null) count++;
+        }
+        return count;
+    }
+
+    // Row-based variant, converted to a one-row batch
+    public int accept(Publication publication, IntConsumer onMatch) {
+        rowBuffer.clear();
+        rowBuffer.add(publication);
+        return accept(rowBuffer, 0, onMatch);
+    }
+
+    // Adds the publication to the window of its key and returns the number of subscriptions
+    // matched by the window it closed (if any); the matched indexes (in the list given to the
+    // constructor) are passed to onMatch
+    public int accept(PublicationBatch batch, int row, IntConsumer onMatch) {
+        ValueColumns values = batch.values;
+        int key = keyField == SchemaFieldNames.Station ? values.station[row] : values.categoryId(SchemaFieldNames.City, row);
+        Window window = window(key);
+        publications++;
+
+        window.push(values.temp[row], Math.round(values.rain[row] * SCALE[1]), values.wind[row]);
+        if (window.count < size || ++window.sinceClose < slide) {
+            return 0;
+        }
+
+        window.sinceClose = 0;
+        windowsClosed++;
+        for (int i = 0; i < AVERAGED.length; i++) {
+            averages[i] = window.sums[i] / (double) (SCALE[i] * size);
+        }
+        this.closeValues = values;
+        this.closeRow = row;
+        this.onMatch = onMatch;
+        this.matched = 0;
+
+        for (SchemaFieldNames field : SchemaFieldNames.values()) {
+            FieldIndex index = indexes[field.ordinal()];
+            if (index instanceof RangeFieldIndex rangeIndex) {
+                rangeIndex.forEachSatisfied(values.numericKey(field, row), onPredicate);
+            } else if (index instanceof HashFieldIndex hashIndex) {
+                hashIndex.forEachSatisfied(values.categoryId(field, row), onPredicate);
+            }
+        }
+        for (int i = 0; i < AVERAGED.length; i++) {
+            FieldIndex index = indexes[SchemaFieldNames.values().length + i];
+            if (index != null) {
+                ((RangeFieldIndex) index).forEachSatisfied(averages[i], onPredicate);
+            }
+        }
+
+        if (type == WindowType.TUMBLING) {
+            window.reset();
+        }
+
+        matches += matched;
+        return matched;
+    }
+
+    // The indexed condition holds: checks the others of every subscription indexed by it
+    private void evaluate(int predicate) {
+        for (int s : predicateSubscribers[predicate]) {
+            if (satisfies(s, closeValues, closeRow)) {
+                matched++;
+                onMatch.accept(subscriptionIds[s]);
+            }
+        }
+    }
+
+    private boolean satisfies(int s, ValueColumns values, int row) {
+        for (int c = conditionStart[s]; c < conditionStart[s + 1]; c++) {
+            SchemaFieldNames field = conditionFields[c];
+            double actual;
+            if (conditionAverage[c]) {
+                actual = averages[AVERAGED_INDEX[field.ordinal()]];
+            } else if (field == SchemaFieldNames.City || field == SchemaFieldNames.Direction) {
+                actual = values.categoryId(field, row);
+            } else {
+                actual = values.numericKey(field, row);
+            }
+
+            if (!compare(actual, conditionOperators[c], conditionKeys[c])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean compare(double actual, Operator operator, double expected) {
+        return switch (operator) {
+            case GT -> actual > expected;
+            case GTE -> actual >= expected;
+            case LT -> actual < expected;
+            case LTE -> actual <= expected;
+            case EQ -> actual == expected;
+            case NEQ -> actual != expected;
+        };
+    }
+
+    private Window window(int key) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Negative window key: " + key);
+        }
+        if (key >= windows.length) {
+            windows = Arrays.copyOf(windows, Math.max(key + 1, windows.length * 2));
+        }
+        Window window = windows[key];
+        if (window == null) {
+            window = new Window(size, slide);
+            windows[key] = window;
+        }
+        return window;
+    }
+
+    public MatchingStatistics getStatistics(long totalTimeInMillis) {
+        return new MatchingStatistics(publications, matches, totalTimeInMillis,
+                subscriptionIds.length, skippedSubscriptions);
+    }
+
+    // Last `size` values of the averaged fields, interleaved, with their running sums
+    private static class Window {
+        private final long[] values;
+        private final long[] sums = new long[AVERAGED.length];
+        private final int size;
+        private final int slide;
+        private int head;
+        private int count;
+        // pushes since the last close, starts at slide - 1 so the window closes as soon as it is full
+        private int sinceClose;
+
+        private Window(int size, int slide) {
+            this.size = size;
+            this.slide = slide;
+            this.values = new long[size * AVERAGED.length];
+            this.sinceClose = slide - 1;
+        }
+
+        private void push(long temp, long rain, long wind) {
+            int base = head * AVERAGED.length;
+            if (count == size) {
+                sums[0] -= values[base];
+                sums[1] -= values[base + 1];
+                sums[2] -= values[base + 2];
+            } else {
+                count++;
+            }
+            values[base] = temp;
+            values[base + 1] = rain;
+            values[base + 2] = wind;
+            sums[0] += temp;
+            sums[1] += rain;
+            sums[2] += wind;
+
+            if (++head == size) {
+                head = 0;
+            }
+        }
+
+        private void reset() {
+            Arrays.fill(sums, 0);
+            head = 0;
+            count = 0;
+            sinceClose = slide - 1;
+        }
+    }
+}
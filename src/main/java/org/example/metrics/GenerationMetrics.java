@@ -0,0 +1,239 @@
+package org.example.metrics;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+// Measurements of one generation run (single or multi-threaded), one WorkerMetrics per worker.
+// The aggregated values are computed on demand, so reading them costs the workers nothing.
+public class GenerationMetrics implements GenerationMetricsMXBean {
+    private final String name;
+    private final List<WorkerMetrics> workers = new CopyOnWriteArrayList<>();
+    private ObjectName objectName;
+
+    public GenerationMetrics(String name) {
+        this.name = name;
+    }
+
+    public WorkerMetrics worker(int index) {
+        WorkerMetrics worker = new WorkerMetrics(index);
+        workers.add(worker);
+        return worker;
+    }
+
+    public List<WorkerMetrics> getWorkerMetrics() {
+        return workers;
+    }
+
+    public void register() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        objectName = new ObjectName("org.example:type=Generation,name=" + ObjectName.quote(name));
+        if (server.isRegistered(objectName)) {
+            server.unregisterMBean(objectName);
+        }
+        server.registerMBean(this, objectName);
+    }
+
+    public void unregister() throws Exception {
+        if (objectName != null) {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            objectName = null;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getWorkers() {
+        return workers.size();
+    }
+
+    @Override
+    public boolean isFinished() {
+        if (workers.isEmpty()) return false;
+        for (WorkerMetrics worker : workers) {
+            if (!worker.isFinished()) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public long getRecords() {
+        long records = 0;
+        for (WorkerMetrics worker : workers) {
+            records += worker.getRecords();
+        }
+        return records;
+    }
+
+    // Records over the longest worker time
+    @Override
+    public double getRecordsPerSecond() {
+        long elapsed = 0;
+        for (WorkerMetrics worker : workers) {
+            elapsed = Math.max(elapsed, worker.getElapsedNanos());
+        }
+        return elapsed == 0 ? 0 : getRecords() * 1_000_000_000.0 / elapsed;
+    }
+
+    @Override
+    public long getLockWaitMillis() {
+        long total = 0;
+        for (WorkerMetrics worker : workers) {
+            total += worker.getLockWaitMillis();
+        }
+        return total;
+    }
+
+    public LatencyHistogram generateLatency() {
+        return merge(worker -> worker.generateLatency);
+    }
+
+    public LatencyHistogram saveLatency() {
+        return merge(worker -> worker.saveLatency);
+    }
+
+    public LatencyHistogram generateBatchLatency() {
+        return merge(worker -> worker.generateBatchLatency);
+    }
+
+    public LatencyHistogram saveBatchLatency() {
+        return merge(worker -> worker.saveBatchLatency);
+    }
+
+    private LatencyHistogram merge(Function<WorkerMetrics, LatencyHistogram> histogram) {
+        LatencyHistogram merged = new LatencyHistogram();
+        for (WorkerMetrics worker : workers) {
+            merged.add(histogram.apply(worker));
+        }
+        return merged;
+    }
+
+    // True when the records are generated in batches, then only the per-batch histograms are filled
+    public boolean isBatched() {
+        for (WorkerMetrics worker : workers) {
+            if (worker.generateBatchLatency.count() > 0) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public double getGenerateP50Micros() {
+        return generateLatency().percentile(50) / 1000.0;
+    }
+
+    @Override
+    public double getGenerateP99Micros() {
+        return generateLatency().percentile(99) / 1000.0;
+    }
+
+    @Override
+    public double getGenerateP999Micros() {
+        return generateLatency().percentile(99.9) / 1000.0;
+    }
+
+    @Override
+    public double getGenerateP9999Micros() {
+        return generateLatency().percentile(99.99) / 1000.0;
+    }
+
+    @Override
+    public double getGenerateMaxMicros() {
+        return generateLatency().max() / 1000.0;
+    }
+
+    @Override
+    public double getSaveP50Micros() {
+        return saveLatency().percentile(50) / 1000.0;
+    }
+
+    @Override
+    public double getSaveP99Micros() {
+        return saveLatency().percentile(99) / 1000.0;
+    }
+
+    @Override
+    public double getSaveP999Micros() {
+        return saveLatency().percentile(99.9) / 1000.0;
+    }
+
+    @Override
+    public double getSaveP9999Micros() {
+        return saveLatency().percentile(99.99) / 1000.0;
+    }
+
+    @Override
+    public double getSaveMaxMicros() {
+        return saveLatency().max() / 1000.0;
+    }
+
+    @Override
+    public double getGenerateBatchP50Micros() {
+        return generateBatchLatency().percentile(50) / 1000.0;
+    }
+
+    @Override
+    public double getGenerateBatchP99Micros() {
+        return generateBatchLatency().percentile(99) / 1000.0;
+    }
+
+    @Override
+    public double getGenerateBatchMaxMicros() {
+        return generateBatchLatency().max() / 1000.0;
+    }
+
+    @Override
+    public double getSaveBatchP50Micros() {
+        return saveBatchLatency().percentile(50) / 1000.0;
+    }
+
+    @Override
+    public double getSaveBatchP99Micros() {
+        return saveBatchLatency().percentile(99) / 1000.0;
+    }
+
+    @Override
+    public double getSaveBatchMaxMicros() {
+        return saveBatchLatency().max() / 1000.0;
+    }
+
+    // Rows of a batched run are per batch (gen/batch, save/batch), the others per record
+    public void printReport() {
+        boolean batched = isBatched();
+        String generate = batched ? "gen/batch" : "generate";
+        String save = batched ? "save/batch" : "save";
+        System.out.println("\n=== Latency Report (" + name + ", us per " + (batched ? "batch" : "record") + ") ===");
+        System.out.printf("%-8s | %-10s | %-10s | %-8s | %-8s | %-8s | %-8s | %-10s | %-10s | %-10s%n",
+                "Thread", "Stage", "Count", "p50", "p99", "p99.9", "p99.99", "Max", "Rec/s", "Lock (ms)");
+        System.out.println("-------------------------------------------------------------------------------------------------------------");
+
+        for (WorkerMetrics worker : workers) {
+            double seconds = worker.getElapsedNanos() / 1_000_000_000.0;
+            double rate = seconds == 0 ? 0 : worker.getRecords() / seconds;
+            printRow(String.valueOf(worker.worker), generate,
+                    batched ? worker.generateBatchLatency : worker.generateLatency, rate, worker.getLockWaitMillis());
+            printRow("", save, batched ? worker.saveBatchLatency : worker.saveLatency, -1, -1);
+        }
+        printRow("all", generate, batched ? generateBatchLatency() : generateLatency(),
+                getRecordsPerSecond(), getLockWaitMillis());
+        printRow("", save, batched ? saveBatchLatency() : saveLatency(), -1, -1);
+    }
+
+    private static void printRow(String thread, String stage, LatencyHistogram histogram, double rate, long lockWait) {
+        System.out.printf("%-8s | %-10s | %-10d | %8.2f | %8.2f | %8.2f | %8.2f | %10.2f | %10s | %10s%n",
+                thread, stage, histogram.count(),
+                histogram.percentile(50) / 1000.0,
+                histogram.percentile(99) / 1000.0,
+                histogram.percentile(99.9) / 1000.0,
+                histogram.percentile(99.99) / 1000.0,
+                histogram.max() / 1000.0,
+                rate < 0 ? "" : String.format("%.0f", rate),
+                lockWait < 0 ? "" : String.valueOf(lockWait));
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.metrics;
+
+// Live view of a generation run, registered as org.example:type=Generation,name=<run>.
+// Latencies are in microseconds, per record, or per batch for the Batch ones (batch mode).
+public interface GenerationMetricsMXBean {
+    String getName();
+    int getWorkers();
+    boolean isFinished();
+    long getRecords();
+    double getRecordsPerSecond();
+    long getLockWaitMillis();
+
+    double getGenerateP50Micros();
+    double getGenerateP99Micros();
+    double getGenerateP999Micros();
+    double getGenerateP9999Micros();
+    double getGenerateMaxMicros();
+
+    double getSaveP50Micros();
+    double getSaveP99Micros();
+    double getSaveP999Micros();
+    double getSaveP9999Micros();
+    double getSaveMaxMicros();
+
+    double getGenerateBatchP50Micros();
+    double getGenerateBatchP99Micros();
+    double getGenerateBatchMaxMicros();
+
+    double getSaveBatchP50Micros();
+    double getSaveBatchP99Micros();
+    double getSaveBatchMaxMicros();
+}
@@ -0,0 +1,98 @@
+package org.example.metrics;
+
+// Log-linear histogram of nanosecond values: values below 64 get their own bucket, every
+// power of two above is split into 64 linear sub-buckets, so any recorded value is known
+// within 1/64 (~1.6%) up to p99.99 and beyond. Recording is a few shifts and an array
+// increment. A histogram has a single writer; other threads may read it while it is
+// written (e.g. the periodic report), in which case they see a slightly stale view.
+public class LatencyHistogram {
+    private final static int SUB_BUCKET_BITS = 6;
+    private final static int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private final static int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long totalCount;
+    private long max;
+    private double sum;
+
+    public void record(long nanos) {
+        record(nanos, 1);
+    }
+
+    // Records `count` occurrences of the same value (e.g. the average latency of a batch)
+    public void record(long nanos, long count) {
+        if (nanos < 0) nanos = 0;
+        counts[bucket(nanos)] += count;
+        totalCount += count;
+        sum += (double) nanos * count;
+        if (nanos > max) max = nanos;
+    }
+
+    public long count() {
+        return totalCount;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    public double mean() {
+        return totalCount == 0 ? 0 : sum / totalCount;
+    }
+
+    // Value at the given percentile (0..100), 0 for an empty histogram
+    public long percentile(double percentile) {
+        long total = totalCount;
+        if (total == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValue(i), max);
+            }
+        }
+        return max;
+    }
+
+    // Recorded values up to `nanos`, within the bucket resolution
+    public long countAtOrBelow(long nanos) {
+        if (nanos < 0) return 0;
+        int last = bucket(nanos);
+        long count = 0;
+        for (int i = 0; i <= last; i++) {
+            count += counts[i];
+        }
+        return count;
+    }
+
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    private static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+
+    // Largest value that falls into the bucket
+    private static long highestValue(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        int subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return (((long) SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+}
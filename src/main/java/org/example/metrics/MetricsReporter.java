@@ -0,0 +1,60 @@
+package org.example.metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Prints one line per running generation every `intervalMillis`: records so far,
+// records/sec over the last interval, p99 latencies (per batch in batch mode) and the time blocked on the saver lock
+public class MetricsReporter implements AutoCloseable {
+    private final List<GenerationMetrics> runs = new CopyOnWriteArrayList<>();
+    private final Map<GenerationMetrics, Long> lastRecords = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final long intervalMillis;
+
+    public MetricsReporter(long intervalMillis) {
+        this.intervalMillis = intervalMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::report, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void add(GenerationMetrics metrics) {
+        runs.add(metrics);
+    }
+
+    private void report() {
+        for (GenerationMetrics metrics : runs) {
+            if (metrics.isFinished()) {
+                runs.remove(metrics);
+                lastRecords.remove(metrics);
+                continue;
+            }
+
+            long records = metrics.getRecords();
+            long previous = lastRecords.getOrDefault(metrics, 0L);
+            lastRecords.put(metrics, records);
+            if (records == 0) continue;
+
+            boolean batched = metrics.isBatched();
+            System.out.printf("[metrics] %-20s | %10d records | %10.0f rec/s | generate%s p99 %8.2f us | "
+                            + "save%s p99 %8.2f us | lock wait %6d ms%n",
+                    metrics.getName(), records, (records - previous) * 1000.0 / intervalMillis,
+                    batched ? " batch" : "", batched ? metrics.getGenerateBatchP99Micros() : metrics.getGenerateP99Micros(),
+                    batched ? " batch" : "", batched ? metrics.getSaveBatchP99Micros() : metrics.getSaveP99Micros(),
+                    metrics.getLockWaitMillis());
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
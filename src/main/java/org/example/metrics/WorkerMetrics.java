@@ -0,0 +1,73 @@
+package org.example.metrics;
+
+import org.example.storage.SaverLock;
+
+// Measurements of one worker, written only by the thread running it. The time spent
+// waiting for the saver lock is the SaverLock total of the worker thread during the run.
+// Batches are timed as a whole, so their latencies go to separate per-batch histograms.
+public class WorkerMetrics {
+    public final int worker;
+    public final LatencyHistogram generateLatency = new LatencyHistogram();
+    public final LatencyHistogram saveLatency = new LatencyHistogram();
+    public final LatencyHistogram generateBatchLatency = new LatencyHistogram();
+    public final LatencyHistogram saveBatchLatency = new LatencyHistogram();
+
+    private volatile long records;
+    private long lockWaitAtStart;
+    private volatile long lockWaitNanos;
+    private volatile long startNanos;
+    private volatile long finishNanos;
+
+    WorkerMetrics(int worker) {
+        this.worker = worker;
+    }
+
+    // Called by the worker thread before its first record
+    public void start() {
+        lockWaitAtStart = SaverLock.currentThreadWaitNanos();
+        startNanos = System.nanoTime();
+    }
+
+    // Called by the worker thread after its last record
+    public void finish() {
+        lockWaitNanos = SaverLock.currentThreadWaitNanos() - lockWaitAtStart;
+        finishNanos = System.nanoTime();
+    }
+
+    public void recordGenerate(long nanos) {
+        generateLatency.record(nanos);
+        records++;
+    }
+
+    public void recordSave(long nanos) {
+        saveLatency.record(nanos);
+        lockWaitNanos = SaverLock.currentThreadWaitNanos() - lockWaitAtStart;
+    }
+
+    public void recordGenerateBatch(long nanos, int count) {
+        generateBatchLatency.record(nanos);
+        records += count;
+    }
+
+    public void recordSaveBatch(long nanos) {
+        saveBatchLatency.record(nanos);
+        lockWaitNanos = SaverLock.currentThreadWaitNanos() - lockWaitAtStart;
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    public boolean isFinished() {
+        return finishNanos != 0;
+    }
+
+    public long getElapsedNanos() {
+        if (startNanos == 0) return 0;
+        return (isFinished() ? finishNanos : System.nanoTime()) - startNanos;
+    }
+
+    public long getLockWaitMillis() {
+        return lockWaitNanos / 1_000_000;
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.schema;
+
+import java.util.ArrayDeque;
+import java.util.SplittableRandom;
+
+// Walker's alias method (Vose's construction): samples index i with probability
+// weights[i] / sum(weights) in O(1), with a single random long per draw. Built once in
+// O(n); the table is immutable, so it can be shared by all the generator threads.
+public class AliasTable {
+    // 2^31: the coin of a draw is a 31-bit number
+    private final static double COIN_SCALE = 2147483648.0;
+
+    // probability of keeping the bucket, scaled to the coin
+    private final int[] threshold;
+    private final int[] alias;
+
+    public AliasTable(double[] weights) {
+        int n = weights.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("An alias table needs at least one weight");
+        }
+        double sum = 0;
+        for (double weight : weights) {
+            if (!(weight >= 0) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException("Invalid weight " + weight);
+            }
+            sum += weight;
+        }
+        if (sum == 0) {
+            throw new IllegalArgumentException("The weights sum to 0");
+        }
+
+        double[] probability = new double[n];
+        this.threshold = new int[n];
+        this.alias = new int[n];
+
+        // scaled so that the average bucket holds exactly 1
+        double[] scaled = new double[n];
+        ArrayDeque<Integer> small = new ArrayDeque<>();
+        ArrayDeque<Integer> large = new ArrayDeque<>();
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / sum;
+            (scaled[i] < 1.0 ? small : large).add(i);
+        }
+
+        // every small bucket is topped up by one large bucket, which becomes its alias
+        while (!small.isEmpty() && !large.isEmpty()) {
+            int less = small.poll();
+            int more = large.poll();
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1.0;
+            (scaled[more] < 1.0 ? small : large).add(more);
+        }
+        // what is left is 1 up to rounding errors
+        while (!large.isEmpty()) {
+            int i = large.poll();
+            probability[i] = 1.0;
+            alias[i] = i;
+        }
+        while (!small.isEmpty()) {
+            int i = small.poll();
+            probability[i] = 1.0;
+            alias[i] = i;
+        }
+
+        for (int i = 0; i < n; i++) {
+            // a full bucket is its own alias, so losing the coin at 2^31 - 1 changes nothing
+            threshold[i] = (int) Math.min(probability[i] * COIN_SCALE, Integer.MAX_VALUE);
+        }
+    }
+
+    public int size() {
+        return threshold.length;
+    }
+
+    public int sample(SplittableRandom random) {
+        long bits = random.nextLong();
+        // the high 32 bits pick the bucket (multiply-shift), the low 31 bits are the coin
+        int i = (int) (((bits >>> 32) * threshold.length) >>> 32);
+        int coin = (int) bits & Integer.MAX_VALUE;
+        // all ones when the coin keeps the bucket: no branch to mispredict on a skewed table
+        int keep = (coin - threshold[i]) >> 31;
+        return (i & keep) | (alias[i] & ~keep);
+    }
+}
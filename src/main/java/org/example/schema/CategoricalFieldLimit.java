@@ -0,0 +1,34 @@
+package org.example.schema;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class CategoricalFieldLimit {
+    public final List<String> values;
+    // null: uniform
+    private AliasTable distribution;
+
+    public CategoricalFieldLimit(List<String> values) {
+        this.values = values;
+    }
+
+    public void setDistribution(AliasTable distribution) {
+        if (distribution != null && distribution.size() != values.size()) {
+            throw new IllegalArgumentException("The distribution needs " + values.size() + " weights");
+        }
+        this.distribution = distribution;
+    }
+
+    public AliasTable getDistribution() {
+        return distribution;
+    }
+
+    // Position of the value in `values`
+    public int getRandomIndex(SplittableRandom random) {
+        return distribution == null ? random.nextInt(values.size()) : distribution.sample(random);
+    }
+
+    public String getRandomValue(SplittableRandom random) {
+        return values.get(getRandomIndex(random));
+    }
+}
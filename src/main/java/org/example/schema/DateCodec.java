@@ -0,0 +1,76 @@
+package org.example.schema;
+
+import java.nio.charset.StandardCharsets;
+
+// Conversions between epoch days and "dd.MM.yyyy" done with digit arithmetic,
+// without SimpleDateFormat (not thread-safe) or intermediate Date objects.
+public class DateCodec {
+    public static final int FORMATTED_LENGTH = 10;
+
+    private DateCodec() {
+    }
+
+    public static String format(long epochDay) {
+        byte[] bytes = new byte[FORMATTED_LENGTH];
+        formatTo(epochDay, bytes, 0);
+        return new String(bytes, 0, FORMATTED_LENGTH, StandardCharsets.US_ASCII);
+    }
+
+    // Writes "dd.MM.yyyy" (ASCII) at the given offset, returns the offset after it
+    public static int formatTo(long epochDay, byte[] destination, int offset) {
+        // civil-from-days, proleptic Gregorian calendar with eras of 400 years
+        long z = epochDay + 719468;
+        long era = (z >= 0 ? z : z - 146096) / 146097;
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+
+        destination[offset] = (byte) ('0' + day / 10);
+        destination[offset + 1] = (byte) ('0' + day % 10);
+        destination[offset + 2] = '.';
+        destination[offset + 3] = (byte) ('0' + month / 10);
+        destination[offset + 4] = (byte) ('0' + month % 10);
+        destination[offset + 5] = '.';
+        destination[offset + 6] = (byte) ('0' + year / 1000 % 10);
+        destination[offset + 7] = (byte) ('0' + year / 100 % 10);
+        destination[offset + 8] = (byte) ('0' + year / 10 % 10);
+        destination[offset + 9] = (byte) ('0' + year % 10);
+        return offset + FORMATTED_LENGTH;
+    }
+
+    public static long parseEpochDay(CharSequence value) {
+        if (value.length() != FORMATTED_LENGTH || value.charAt(2) != '.' || value.charAt(5) != '.') {
+            throw new IllegalArgumentException("Invalid date: " + value);
+        }
+        int day = digits(value, 0, 2);
+        int month = digits(value, 3, 2);
+        int year = digits(value, 6, 4);
+        return toEpochDay(year, month, day);
+    }
+
+    public static long toEpochDay(int year, int month, int day) {
+        // days-from-civil, inverse of the conversion in formatTo
+        long y = month <= 2 ? year - 1 : year;
+        long era = (y >= 0 ? y : y - 399) / 400;
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static int digits(CharSequence value, int from, int count) {
+        int result = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("Invalid date: " + value);
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+}
@@ -1,20 +1,53 @@
 package org.example.schema;
 
-import java.util.Date;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
 
 public class DateFieldLimit {
-    public Date min;
-    public Date max;
+    public final long minEpochDay;
+    public final long maxEpochDay;
 
-    public DateFieldLimit(Date min, Date max) {
-        this.min = min;
-        this.max = max;
+    // "dd.MM.yyyy" for every day of the interval, built once and shared by all threads
+    private final String[] formatted;
+    // null: uniform, otherwise over the days of the interval, the first day first
+    private AliasTable distribution;
+
+    public DateFieldLimit(LocalDate min, LocalDate max) {
+        this.minEpochDay = min.toEpochDay();
+        this.maxEpochDay = max.toEpochDay();
+
+        this.formatted = new String[(int) (maxEpochDay - minEpochDay + 1)];
+        for (int i = 0; i < formatted.length; i++) {
+            formatted[i] = DateCodec.format(minEpochDay + i);
+        }
+    }
+
+    public void setDistribution(AliasTable distribution) {
+        if (distribution != null && distribution.size() != formatted.length) {
+            throw new IllegalArgumentException("The distribution needs " + formatted.length + " weights");
+        }
+        this.distribution = distribution;
+    }
+
+    public AliasTable getDistribution() {
+        return distribution;
+    }
+
+    public long getRandomEpochDay(SplittableRandom random) {
+        if (distribution != null) {
+            return minEpochDay + distribution.sample(random);
+        }
+        return random.nextLong(minEpochDay, maxEpochDay + 1);
+    }
+
+    public String getRandomValue(SplittableRandom random) {
+        return formatted[(int) (getRandomEpochDay(random) - minEpochDay)];
     }
 
-    public Date getRandomValue() {
-        long minMillis = min.getTime();
-        long maxMillis = max.getTime();
-        long randomMillis = (long) (Math.random() * (maxMillis - minMillis)) + minMillis;
-        return new Date(randomMillis);
+    public String format(long epochDay) {
+        if (epochDay < minEpochDay || epochDay > maxEpochDay) {
+            return DateCodec.format(epochDay);
+        }
+        return formatted[(int) (epochDay - minEpochDay)];
     }
 }
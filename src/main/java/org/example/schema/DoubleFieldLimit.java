@@ -1,16 +1,39 @@
 package org.example.schema;
 
+import java.util.SplittableRandom;
+
 public class DoubleFieldLimit {
     public double min;
     public double max;
+    // null: uniform, otherwise over the values of the interval in steps of 0.01, min first
+    private AliasTable distribution;
 
     public DoubleFieldLimit(double min, double max) {
         this.min = min;
         this.max = max;
     }
 
-    public double getRandomValue() {
+    // Values with two decimals in [min, max]
+    public int valuesCount() {
+        return (int) (Math.round(max * 100.0) - Math.round(min * 100.0) + 1);
+    }
+
+    public void setDistribution(AliasTable distribution) {
+        if (distribution != null && distribution.size() != valuesCount()) {
+            throw new IllegalArgumentException("The distribution needs " + valuesCount() + " weights");
+        }
+        this.distribution = distribution;
+    }
+
+    public AliasTable getDistribution() {
+        return distribution;
+    }
+
+    public double getRandomValue(SplittableRandom random) {
+        if (distribution != null) {
+            return (Math.round(min * 100.0) + distribution.sample(random)) / 100.0;
+        }
         // round to 2 decimal places
-        return Math.round((Math.random() * (max - min) + min) * 100.0) / 100.0;
+        return Math.round((random.nextDouble() * (max - min) + min) * 100.0) / 100.0;
     }
 }
@@ -0,0 +1,37 @@
+package org.example.schema;
+
+import java.util.List;
+
+// One field of a SchemaDefinition. Integer and Double fields are drawn from [min, max],
+// Date fields from [min, max] as epoch days and String fields from `values`.
+public record FieldDefinition(String name, SchemaFieldDataTypes dataType, double min, double max, List<String> values) {
+    public FieldDefinition {
+        if (dataType == SchemaFieldDataTypes.String) {
+            if (values == null || values.isEmpty() || values.size() > 256) {
+                throw new IllegalArgumentException("Field " + name + " needs between 1 and 256 values");
+            }
+            values = List.copyOf(values);
+        } else {
+            if (min > max) {
+                throw new IllegalArgumentException("Field " + name + " has min > max");
+            }
+            values = List.of();
+        }
+    }
+
+    public static FieldDefinition ofInteger(String name, IntegerFieldLimit limit) {
+        return new FieldDefinition(name, SchemaFieldDataTypes.Integer, limit.min, limit.max, null);
+    }
+
+    public static FieldDefinition ofDouble(String name, DoubleFieldLimit limit) {
+        return new FieldDefinition(name, SchemaFieldDataTypes.Double, limit.min, limit.max, null);
+    }
+
+    public static FieldDefinition ofDate(String name, DateFieldLimit limit) {
+        return new FieldDefinition(name, SchemaFieldDataTypes.Date, limit.minEpochDay, limit.maxEpochDay, null);
+    }
+
+    public static FieldDefinition ofStrings(String name, List<String> values) {
+        return new FieldDefinition(name, SchemaFieldDataTypes.String, 0, 0, values);
+    }
+}
@@ -1,15 +1,33 @@
 package org.example.schema;
 
+import java.util.SplittableRandom;
+
 public class IntegerFieldLimit {
     public int min;
     public int max;
+    // null: uniform, otherwise over the max - min + 1 values, min first
+    private AliasTable distribution;
 
     public IntegerFieldLimit(int min, int max) {
         this.min = min;
         this.max = max;
     }
 
-    public int getRandomValue() {
-        return (int) (Math.random() * (max - min + 1)) + min;
+    public void setDistribution(AliasTable distribution) {
+        if (distribution != null && distribution.size() != max - min + 1) {
+            throw new IllegalArgumentException("The distribution needs " + (max - min + 1) + " weights");
+        }
+        this.distribution = distribution;
+    }
+
+    public AliasTable getDistribution() {
+        return distribution;
+    }
+
+    public int getRandomValue(SplittableRandom random) {
+        if (distribution != null) {
+            return min + distribution.sample(random);
+        }
+        return random.nextInt(min, max + 1);
     }
 }
@@ -0,0 +1,90 @@
+package org.example.schema;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+// Schema of the records produced by CompiledRecordGenerator: any number of named fields,
+// each with its data type and limits, e.g. read from config.properties:
+//
+//   schema.fields=station,city,date
+//   schema.field.station.type=Integer     (Integer | Double | Date | String)
+//   schema.field.station.min=1
+//   schema.field.station.max=100
+//   schema.field.city.type=String
+//   schema.field.city.values=Bucharest,Cluj,Iasi
+//   schema.field.date.type=Date
+//   schema.field.date.min=01.01.2025      (dd.MM.yyyy)
+//   schema.field.date.max=31.12.2025
+public class SchemaDefinition {
+    public final List<FieldDefinition> fields;
+
+    public SchemaDefinition(List<FieldDefinition> fields) {
+        if (fields.isEmpty()) {
+            throw new IllegalArgumentException("A schema needs at least one field");
+        }
+        for (int i = 0; i < fields.size(); i++) {
+            for (int j = 0; j < i; j++) {
+                if (fields.get(i).name().equals(fields.get(j).name())) {
+                    throw new IllegalArgumentException("Duplicate schema field " + fields.get(i).name());
+                }
+            }
+        }
+        this.fields = List.copyOf(fields);
+    }
+
+    public int size() {
+        return fields.size();
+    }
+
+    // null when the properties define no schema.fields
+    public static SchemaDefinition fromProperties(Properties props) {
+        String names = props.getProperty("schema.fields", "").trim();
+        if (names.isEmpty()) {
+            return null;
+        }
+
+        List<FieldDefinition> fields = new ArrayList<>();
+        for (String name : names.split(",")) {
+            name = name.trim();
+            String prefix = "schema.field." + name + ".";
+            String type = props.getProperty(prefix + "type");
+            if (type == null) {
+                throw new IllegalArgumentException("Missing " + prefix + "type");
+            }
+
+            SchemaFieldDataTypes dataType = SchemaFieldDataTypes.valueOf(type.trim());
+            fields.add(switch (dataType) {
+                case Integer, Double -> new FieldDefinition(name, dataType,
+                        Double.parseDouble(required(props, prefix + "min")),
+                        Double.parseDouble(required(props, prefix + "max")), null);
+                case Date -> new FieldDefinition(name, dataType,
+                        DateCodec.parseEpochDay(required(props, prefix + "min").trim()),
+                        DateCodec.parseEpochDay(required(props, prefix + "max").trim()), null);
+                case String -> FieldDefinition.ofStrings(name,
+                        Arrays.stream(required(props, prefix + "values").split(",")).map(String::trim).toList());
+            });
+        }
+        return new SchemaDefinition(fields);
+    }
+
+    // `numberOfFields` fields cycling through the fields of this schema, named <name>_<i>
+    public SchemaDefinition widen(int numberOfFields) {
+        List<FieldDefinition> wide = new ArrayList<>(numberOfFields);
+        for (int i = 0; i < numberOfFields; i++) {
+            FieldDefinition field = fields.get(i % fields.size());
+            wide.add(new FieldDefinition(field.name() + "_" + i, field.dataType(), field.min(), field.max(),
+                    field.dataType() == SchemaFieldDataTypes.String ? field.values() : null));
+        }
+        return new SchemaDefinition(wide);
+    }
+
+    private static String required(Properties props, String key) {
+        String value = props.getProperty(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing " + key);
+        }
+        return value;
+    }
+}
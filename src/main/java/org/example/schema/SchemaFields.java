@@ -8,4 +8,16 @@ public class SchemaFields {
     public static final SchemaField WIND = new SchemaField(SchemaFieldNames.Wind, SchemaFieldDataTypes.Integer);
     public static final SchemaField DIRECTION = new SchemaField(SchemaFieldNames.Direction, SchemaFieldDataTypes.String);
     public static final SchemaField DATE = new SchemaField(SchemaFieldNames.Date, SchemaFieldDataTypes.Date);
+
+    public static SchemaField of(SchemaFieldNames name) {
+        return switch (name) {
+            case Station -> STATION;
+            case City -> CITY;
+            case Temp -> TEMP;
+            case Rain -> RAIN;
+            case Wind -> WIND;
+            case Direction -> DIRECTION;
+            case Date -> DATE;
+        };
+    }
 }
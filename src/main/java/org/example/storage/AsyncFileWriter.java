@@ -0,0 +1,179 @@
+package org.example.storage;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Double-buffered writer: full buffers go to a dedicated I/O thread through a bounded queue,
+// the producer blocks only when every buffer is queued or being written. The I/O thread
+// writes the buffers with a FileChannel, applies the fsync policy and returns them to the
+// free pool.
+class AsyncFileWriter extends BufferedRecordWriter {
+    private final FileChannel channel;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+
+    private final BlockingQueue<JsonByteSerializer> filled;
+    private final BlockingQueue<JsonByteSerializer> free;
+    // Queued after the last buffer, tells the I/O thread to stop
+    private final JsonByteSerializer closeMarker = new JsonByteSerializer(0);
+    private final Thread ioThread;
+    private volatile IOException failure;
+
+    private final AtomicLong buffersWritten = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicLong writeNanos = new AtomicLong();
+    private final AtomicLong stallNanos = new AtomicLong();
+    private final AtomicLong fsyncs = new AtomicLong();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+    AsyncFileWriter(String fileName, int bufferSize, int queueCapacity,
+                    FsyncPolicy fsyncPolicy, long fsyncIntervalMillis) throws IOException {
+        super(bufferSize);
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive");
+        }
+
+        this.channel = FileChannel.open(Path.of(fileName),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = fsyncIntervalMillis * 1_000_000;
+
+        // one buffer being filled, queueCapacity waiting and one being written
+        this.filled = new ArrayBlockingQueue<>(queueCapacity + 1);
+        this.free = new ArrayBlockingQueue<>(queueCapacity + 2);
+        for (int i = 0; i < queueCapacity + 1; i++) {
+            free.add(newBuffer());
+        }
+
+        this.ioThread = new Thread(this::writeLoop, "async-writer-" + Path.of(fileName).getFileName());
+        this.ioThread.setDaemon(true);
+        this.ioThread.start();
+    }
+
+    int getQueueDepth() {
+        return filled.size();
+    }
+
+    AsyncWriterStatistics getStatistics() {
+        return new AsyncWriterStatistics(
+                buffersWritten.get(),
+                bytesWritten.get(),
+                maxQueueDepth.get(),
+                stallNanos.get() / 1_000_000,
+                writeNanos.get() / 1_000_000,
+                fsyncs.get()
+        );
+    }
+
+    @Override
+    void handOff(JsonByteSerializer buffer) throws IOException {
+        checkFailure();
+        try {
+            if (!filled.offer(buffer)) {
+                long start = System.nanoTime();
+                filled.put(buffer);
+                stallNanos.addAndGet(System.nanoTime() - start);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while queueing a buffer", e);
+        }
+        maxQueueDepth.accumulateAndGet(filled.size(), Math::max);
+    }
+
+    @Override
+    JsonByteSerializer nextBuffer() throws IOException {
+        JsonByteSerializer buffer = free.poll();
+        if (buffer != null) {
+            return buffer;
+        }
+        try {
+            long start = System.nanoTime();
+            buffer = free.take();
+            stallNanos.addAndGet(System.nanoTime() - start);
+            return buffer;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a free buffer", e);
+        }
+    }
+
+    private void writeLoop() {
+        long lastFsync = System.nanoTime();
+        try {
+            while (true) {
+                JsonByteSerializer buffer = filled.take();
+                if (buffer == closeMarker) {
+                    if (failure == null && fsyncPolicy != FsyncPolicy.NONE) {
+                        force(true);
+                    }
+                    return;
+                }
+
+                if (failure == null) {
+                    try {
+                        long start = System.nanoTime();
+                        int size = buffer.size();
+                        buffer.flushTo(channel);
+                        long now = System.nanoTime();
+                        writeNanos.addAndGet(now - start);
+                        bytesWritten.addAndGet(size);
+                        buffersWritten.incrementAndGet();
+
+                        if (fsyncPolicy == FsyncPolicy.PERIODIC && now - lastFsync >= fsyncIntervalNanos) {
+                            force(false);
+                            lastFsync = System.nanoTime();
+                        }
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                }
+                // after a failure the buffers are only recycled, so the producer never blocks forever
+                buffer.clear();
+                free.put(buffer);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    private void force(boolean metaData) throws IOException {
+        channel.force(metaData);
+        fsyncs.incrementAndGet();
+    }
+
+    private void checkFailure() throws IOException {
+        IOException e = failure;
+        if (e != null) {
+            throw new IOException("Background write failed", e);
+        }
+    }
+
+    void close() throws IOException {
+        boolean stopped = false;
+        try {
+            handOffLast();
+            filled.put(closeMarker);
+            ioThread.join();
+            stopped = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while closing the writer", e);
+        } finally {
+            // the hand-off failed or was interrupted: the I/O thread may never see the marker
+            if (!stopped) {
+                ioThread.interrupt();
+            }
+            channel.close();
+        }
+        checkFailure();
+    }
+}
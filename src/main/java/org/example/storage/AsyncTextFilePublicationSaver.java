@@ -0,0 +1,68 @@
+package org.example.storage;
+
+import org.example.Publication;
+import org.example.columnar.PublicationBatch;
+
+import java.io.IOException;
+
+// Same output as TextFilePublicationSaver; the file writes happen on a background thread
+public class AsyncTextFilePublicationSaver implements PublicationSaver {
+    private final SaverLock lock = new SaverLock();
+    private final AsyncFileWriter writer;
+    private boolean firstWrite = true;
+
+    public AsyncTextFilePublicationSaver(String fileName, int bufferSize, int queueCapacity,
+                                  FsyncPolicy fsyncPolicy, long fsyncIntervalMillis) throws IOException {
+        writer = new AsyncFileWriter(fileName, bufferSize, queueCapacity, fsyncPolicy, fsyncIntervalMillis);
+    }
+
+    @Override
+    public void save(Publication publication) throws IOException {
+        lock.lock();
+        try {
+            if (!firstWrite) {
+                writer.buffer().writeNewLine();
+            }
+            writer.buffer().writePublication(publication);
+            firstWrite = false;
+            writer.recordWritten();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void save(PublicationBatch batch) throws IOException {
+        lock.lock();
+        try {
+            for (int row = 0; row < batch.size; row++) {
+                if (!firstWrite) {
+                    writer.buffer().writeNewLine();
+                }
+                writer.buffer().writePublication(batch, row);
+                firstWrite = false;
+                writer.recordWritten();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueueDepth() {
+        return writer.getQueueDepth();
+    }
+
+    public AsyncWriterStatistics getStatistics() {
+        return writer.getStatistics();
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            writer.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.storage;
+
+import org.example.Subscription;
+import org.example.columnar.SubscriptionBatch;
+
+import java.io.IOException;
+
+// Same output as TextFileSubscriptionSaver; the file writes happen on a background thread
+public class AsyncTextFileSubscriptionSaver implements SubscriptionSaver {
+    private final SaverLock lock = new SaverLock();
+    private final AsyncFileWriter writer;
+    private boolean firstWrite = true;
+
+    public AsyncTextFileSubscriptionSaver(String fileName, int bufferSize, int queueCapacity,
+                                   FsyncPolicy fsyncPolicy, long fsyncIntervalMillis) throws IOException {
+        writer = new AsyncFileWriter(fileName, bufferSize, queueCapacity, fsyncPolicy, fsyncIntervalMillis);
+    }
+
+    @Override
+    public void save(Subscription subscription) throws IOException {
+        lock.lock();
+        try {
+            if (!firstWrite) {
+                writer.buffer().writeNewLine();
+            }
+            writer.buffer().writeSubscription(subscription);
+            firstWrite = false;
+            writer.recordWritten();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void save(SubscriptionBatch batch) throws IOException {
+        lock.lock();
+        try {
+            for (int row = 0; row < batch.size; row++) {
+                if (!firstWrite) {
+                    writer.buffer().writeNewLine();
+                }
+                writer.buffer().writeSubscription(batch, row);
+                firstWrite = false;
+                writer.recordWritten();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueueDepth() {
+        return writer.getQueueDepth();
+    }
+
+    public AsyncWriterStatistics getStatistics() {
+        return writer.getStatistics();
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            writer.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.storage;
+
+// stallTimeInMillis is the time the producers waited for the I/O thread (queue full or no free
+// buffer); a high value means the disk is the bottleneck, a queue that stays empty means generation is
+public record AsyncWriterStatistics(long buffersWritten, long bytesWritten, int maxQueueDepth,
+                                    long stallTimeInMillis, long writeTimeInMillis, long fsyncs) {
+
+    public double megabytesPerSecond() {
+        return writeTimeInMillis == 0 ? 0.0 : bytesWritten / 1_048_576.0 * 1000.0 / writeTimeInMillis;
+    }
+}
@@ -0,0 +1,253 @@
+package org.example.storage;
+
+import org.example.columnar.CategoricalFields;
+import org.example.columnar.FieldDictionary;
+import org.example.columnar.ValueColumns;
+import org.example.schema.DateCodec;
+import org.example.schema.Schema;
+import org.example.schema.SchemaField;
+import org.example.schema.SchemaFieldDataTypes;
+import org.example.schema.SchemaFieldNames;
+import org.example.schema.SchemaFields;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Fixed-width binary records between a header describing the schema and a trailer
+// holding the dictionaries of the String fields:
+//
+//   header:  magic (int) | version (short) | kind (byte) | fields count (byte)
+//            fields count x [field name ordinal (byte) | data type ordinal (byte)]
+//            record size (int)
+//   records
+//   trailer: for every String field, in schema order:
+//                values count (short) | values count x [length (short) | UTF-8 bytes]
+//            trailer offset (long, position of the first dictionary in the file)
+//
+// Every field has a fixed slot: Integer and Date (epoch day) 4 bytes, Double 8 bytes,
+// String 1 byte (id in the dictionary of the trailer). The trailer holds the FieldDictionary
+// of every String field as it is when the file is closed, so it also has the values first
+// seen while the file was written; readers map the ids of the file to the ids of their own
+// dictionaries.
+// Publication record:  the slots of the schema fields, in schema order.
+// Subscription record: presence mask (byte) | average mask (byte), then for every
+//                      schema field the operator ordinal (byte) and the slot.
+//                      Masks use the SchemaFieldNames ordinal as bit index.
+public class BinaryFormat {
+    public static final int MAGIC = 0x45425342; // "EBSB"
+    public static final short VERSION = 3;
+    public static final byte KIND_PUBLICATIONS = 0;
+    public static final byte KIND_SUBSCRIPTIONS = 1;
+
+    public record Header(Schema schema, int size) {
+    }
+
+    private BinaryFormat() {
+    }
+
+    // Snapshot of the dictionaries of the schema fields, written to the trailer
+    public static List<List<String>> dictionaries(Schema schema) {
+        List<List<String>> dictionaries = new ArrayList<>();
+        for (SchemaField field : schema.fields) {
+            dictionaries.add(field.dataType() == SchemaFieldDataTypes.String
+                    ? CategoricalFields.values(field.field())
+                    : List.of());
+        }
+        return dictionaries;
+    }
+
+    public static int slotSize(SchemaFieldDataTypes dataType) {
+        return switch (dataType) {
+            case Integer, Date -> 4;
+            case Double -> 8;
+            case String -> 1;
+        };
+    }
+
+    public static int recordSize(Schema schema, byte kind) {
+        int size = kind == KIND_SUBSCRIPTIONS ? 2 : 0;
+        for (SchemaField field : schema.fields) {
+            size += slotSize(field.dataType()) + (kind == KIND_SUBSCRIPTIONS ? 1 : 0);
+        }
+        return size;
+    }
+
+    public static int headerSize(Schema schema) {
+        return 4 + 2 + 1 + 1 + 2 * schema.fields.size() + 4;
+    }
+
+    public static int trailerSize(Schema schema, List<List<String>> dictionaries) {
+        int size = 8;
+        for (int f = 0; f < schema.fields.size(); f++) {
+            if (schema.fields.get(f).dataType() != SchemaFieldDataTypes.String) continue;
+            size += 2;
+            for (String value : dictionaries.get(f)) {
+                size += 2 + value.getBytes(StandardCharsets.UTF_8).length;
+            }
+        }
+        return size;
+    }
+
+    public static void writeHeader(ByteBuffer buffer, Schema schema, byte kind) {
+        if (schema.fields.size() > 8) {
+            throw new IllegalArgumentException("The binary format supports at most 8 fields per record");
+        }
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.put(kind);
+        buffer.put((byte) schema.fields.size());
+        for (SchemaField field : schema.fields) {
+            buffer.put((byte) field.field().ordinal());
+            buffer.put((byte) field.dataType().ordinal());
+        }
+        buffer.putInt(recordSize(schema, kind));
+    }
+
+    // `offset` is the position in the file where the trailer starts
+    public static void writeTrailer(ByteBuffer buffer, Schema schema, List<List<String>> dictionaries, long offset) {
+        for (int f = 0; f < schema.fields.size(); f++) {
+            if (schema.fields.get(f).dataType() != SchemaFieldDataTypes.String) continue;
+            List<String> values = dictionaries.get(f);
+            buffer.putShort((short) values.size());
+            for (String value : values) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                if (bytes.length > Short.MAX_VALUE) {
+                    throw new IllegalArgumentException("Dictionary value too long: " + value);
+                }
+                buffer.putShort((short) bytes.length);
+                buffer.put(bytes);
+            }
+        }
+        buffer.putLong(offset);
+    }
+
+    // Reads the header from the start of the buffer
+    public static Header readHeader(ByteBuffer buffer, byte expectedKind) throws IOException {
+        try {
+            return readHeaderFields(buffer, expectedKind);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated binary header");
+        }
+    }
+
+    private static Header readHeaderFields(ByteBuffer buffer, byte expectedKind) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a binary records file");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary format version: " + version);
+        }
+        byte kind = buffer.get();
+        if (kind != expectedKind) {
+            throw new IOException("Unexpected record kind: " + kind);
+        }
+
+        int fieldsCount = buffer.get();
+        List<SchemaField> fields = new ArrayList<>();
+        for (int i = 0; i < fieldsCount; i++) {
+            SchemaField field = SchemaFields.of(SchemaFieldNames.values()[buffer.get()]);
+            SchemaFieldDataTypes dataType = SchemaFieldDataTypes.values()[buffer.get()];
+            if (field.dataType() != dataType) {
+                throw new IOException("Field " + field.field() + " stored as " + dataType);
+            }
+            fields.add(field);
+        }
+
+        Schema schema = new Schema(fields);
+        int recordSize = buffer.getInt();
+        if (recordSize != recordSize(schema, kind)) {
+            throw new IOException("Record size " + recordSize + " does not match the schema");
+        }
+        return new Header(schema, buffer.position());
+    }
+
+    // Reads the dictionaries of the trailer, the buffer holds the trailer without its offset.
+    // One dictionary per schema field (empty for the non-String fields).
+    public static List<List<String>> readDictionaries(ByteBuffer buffer, Schema schema) throws IOException {
+        try {
+            return readDictionaryValues(buffer, schema);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated binary trailer");
+        }
+    }
+
+    private static List<List<String>> readDictionaryValues(ByteBuffer buffer, Schema schema) throws IOException {
+        List<List<String>> dictionaries = new ArrayList<>();
+        for (SchemaField field : schema.fields) {
+            if (field.dataType() != SchemaFieldDataTypes.String) {
+                dictionaries.add(List.of());
+                continue;
+            }
+            int count = buffer.getShort();
+            if (count < 0 || count > FieldDictionary.MAX_SIZE) {
+                throw new IOException("Dictionary of " + field.field() + " has " + count + " values");
+            }
+            List<String> values = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                byte[] bytes = new byte[buffer.getShort()];
+                buffer.get(bytes);
+                values.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+            dictionaries.add(values);
+        }
+        return dictionaries;
+    }
+
+    // Maps the ids of a trailer dictionary to the ids of the field's FieldDictionary,
+    // adding the values it does not know yet
+    public static byte[] idMap(SchemaField field, List<String> dictionary) {
+        FieldDictionary target = CategoricalFields.dictionary(field.field());
+        byte[] map = new byte[dictionary.size()];
+        for (int i = 0; i < map.length; i++) {
+            map[i] = (byte) target.id(dictionary.get(i));
+        }
+        return map;
+    }
+
+    public static void writeValue(ByteBuffer buffer, SchemaField field, String value) {
+        switch (field.dataType()) {
+            case Integer -> buffer.putInt(Integer.parseInt(value));
+            case Double -> buffer.putDouble(Double.parseDouble(value));
+            case Date -> buffer.putInt((int) DateCodec.parseEpochDay(value));
+            case String -> buffer.put(CategoricalFields.encode(field.field(), value));
+        }
+    }
+
+    public static void writeValue(ByteBuffer buffer, SchemaField field, ValueColumns values, int row) {
+        switch (field.field()) {
+            case Station -> buffer.putInt(values.station[row]);
+            case City -> buffer.put(values.city[row]);
+            case Temp -> buffer.putInt(values.temp[row]);
+            case Rain -> buffer.putDouble(values.rain[row]);
+            case Wind -> buffer.putInt(values.wind[row]);
+            case Direction -> buffer.put(values.direction[row]);
+            case Date -> buffer.putInt(values.date[row]);
+        }
+    }
+
+    public static void writeEmptySlot(ByteBuffer buffer, SchemaField field) {
+        for (int i = 0; i < slotSize(field.dataType()); i++) {
+            buffer.put((byte) 0);
+        }
+    }
+
+    // Absolute read of a slot into the columns, the buffer position is not changed.
+    // idMap (see idMap) translates the dictionary ids of String fields, null for the others.
+    public static void readValue(ByteBuffer buffer, int offset, SchemaField field, byte[] idMap,
+                                 ValueColumns values, int row) {
+        switch (field.field()) {
+            case Station -> values.station[row] = buffer.getInt(offset);
+            case City -> values.city[row] = idMap[buffer.get(offset) & 0xFF];
+            case Temp -> values.temp[row] = buffer.getInt(offset);
+            case Rain -> values.rain[row] = buffer.getDouble(offset);
+            case Wind -> values.wind[row] = buffer.getInt(offset);
+            case Direction -> values.direction[row] = idMap[buffer.get(offset) & 0xFF];
+            case Date -> values.date[row] = buffer.getInt(offset);
+        }
+    }
+}
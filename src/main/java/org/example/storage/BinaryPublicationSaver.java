@@ -0,0 +1,58 @@
+package org.example.storage;
+
+import org.example.Publication;
+import org.example.columnar.PublicationBatch;
+import org.example.schema.Schema;
+import org.example.schema.SchemaField;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public class BinaryPublicationSaver implements PublicationSaver {
+    private final SaverLock lock = new SaverLock();
+    private final Schema schema;
+    private final BinaryRecordWriter writer;
+
+    public BinaryPublicationSaver(String fileName, Schema schema) throws IOException {
+        this.schema = schema;
+        this.writer = new BinaryRecordWriter(fileName, schema, BinaryFormat.KIND_PUBLICATIONS);
+    }
+
+    @Override
+    public void save(Publication publication) throws IOException {
+        lock.lock();
+        try {
+            ByteBuffer buffer = writer.nextRecord();
+            for (SchemaField field : schema.fields) {
+                BinaryFormat.writeValue(buffer, field, publication.fields.get(field));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void save(PublicationBatch batch) throws IOException {
+        lock.lock();
+        try {
+            for (int row = 0; row < batch.size; row++) {
+                ByteBuffer buffer = writer.nextRecord();
+                for (SchemaField field : schema.fields) {
+                    BinaryFormat.writeValue(buffer, field, batch.values, row);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            writer.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
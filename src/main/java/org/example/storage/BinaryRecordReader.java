@@ -0,0 +1,196 @@
+package org.example.storage;
+
+import org.example.columnar.PublicationBatch;
+import org.example.columnar.SubscriptionBatch;
+import org.example.schema.Schema;
+import org.example.schema.SchemaField;
+import org.example.schema.SchemaFieldDataTypes;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+
+// Reads a file written by BinaryPublicationSaver / BinarySubscriptionSaver through memory
+// mapped regions. Reads are absolute, so one reader can be shared by threads that each
+// take a different range of records (see split).
+public class BinaryRecordReader implements Closeable {
+    private final FileChannel channel;
+    private final byte kind;
+    private final Schema schema;
+    private final int recordSize;
+    private final long recordCount;
+    private final int[] slotOffsets;
+    // file dictionary id -> FieldDictionary id, null for the non-String fields
+    private final byte[][] idMaps;
+
+    // Each region holds a whole number of records and stays under the 2 GB mapping limit
+    private final long recordsPerRegion;
+    private final MappedByteBuffer[] regions;
+
+    public static BinaryRecordReader openPublications(String fileName) throws IOException {
+        return new BinaryRecordReader(fileName, BinaryFormat.KIND_PUBLICATIONS);
+    }
+
+    public static BinaryRecordReader openSubscriptions(String fileName) throws IOException {
+        return new BinaryRecordReader(fileName, BinaryFormat.KIND_SUBSCRIPTIONS);
+    }
+
+    private BinaryRecordReader(String fileName, byte kind) throws IOException {
+        this.channel = FileChannel.open(Path.of(fileName), StandardOpenOption.READ);
+        this.kind = kind;
+
+        // the channel is closed if the file is rejected
+        try {
+            // the header has no fixed size because of the field list, only the pages it spans are read
+            MappedByteBuffer start = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), Integer.MAX_VALUE));
+            BinaryFormat.Header header = BinaryFormat.readHeader(start, kind);
+            this.schema = header.schema();
+
+            int headerSize = header.size();
+            this.recordSize = BinaryFormat.recordSize(schema, kind);
+            long trailerOffset = readTrailerOffset(headerSize);
+            if ((trailerOffset - headerSize) % recordSize != 0) {
+                throw new IOException("The records end at " + trailerOffset + ", not on a record boundary");
+            }
+            this.recordCount = (trailerOffset - headerSize) / recordSize;
+            List<List<String>> dictionaries = BinaryFormat.readDictionaries(
+                    channel.map(FileChannel.MapMode.READ_ONLY, trailerOffset, channel.size() - Long.BYTES - trailerOffset),
+                    schema);
+
+            this.slotOffsets = new int[schema.fields.size()];
+            this.idMaps = new byte[schema.fields.size()][];
+            int offset = kind == BinaryFormat.KIND_SUBSCRIPTIONS ? 2 : 0;
+            for (int f = 0; f < slotOffsets.length; f++) {
+                SchemaField field = schema.fields.get(f);
+                if (kind == BinaryFormat.KIND_SUBSCRIPTIONS) {
+                    offset++; // operator
+                }
+                slotOffsets[f] = offset;
+                offset += BinaryFormat.slotSize(field.dataType());
+                if (field.dataType() == SchemaFieldDataTypes.String) {
+                    idMaps[f] = BinaryFormat.idMap(field, dictionaries.get(f));
+                }
+            }
+
+            this.recordsPerRegion = Math.max(1, Integer.MAX_VALUE / recordSize);
+            int regionsCount = (int) ((recordCount + recordsPerRegion - 1) / recordsPerRegion);
+            this.regions = new MappedByteBuffer[regionsCount];
+            for (int i = 0; i < regionsCount; i++) {
+                long firstRecord = i * recordsPerRegion;
+                long records = Math.min(recordsPerRegion, recordCount - firstRecord);
+                regions[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        headerSize + firstRecord * recordSize, records * recordSize);
+            }
+        } catch (IOException | RuntimeException e) {
+            try {
+                channel.close();
+            } catch (IOException closeFailure) {
+                e.addSuppressed(closeFailure);
+            }
+            throw e;
+        }
+    }
+
+    private long readTrailerOffset(int headerSize) throws IOException {
+        long size = channel.size();
+        if (size < headerSize + Long.BYTES) {
+            throw new IOException("Truncated binary trailer");
+        }
+        ByteBuffer offset = ByteBuffer.allocate(Long.BYTES);
+        while (offset.hasRemaining()) {
+            if (channel.read(offset, size - Long.BYTES + offset.position()) < 0) {
+                throw new IOException("Truncated binary trailer");
+            }
+        }
+        long trailerOffset = offset.getLong(0);
+        if (trailerOffset < headerSize || trailerOffset > size - Long.BYTES) {
+            throw new IOException("Trailer offset " + trailerOffset + " is outside the file");
+        }
+        return trailerOffset;
+    }
+
+    public Schema getSchema() {
+        return schema;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public int getRecordSize() {
+        return recordSize;
+    }
+
+    // Record boundaries for `parts` ranges of (almost) equal size: range i is [bounds[i], bounds[i + 1])
+    public long[] split(int parts) {
+        long[] bounds = new long[parts + 1];
+        for (int i = 0; i <= parts; i++) {
+            bounds[i] = recordCount * i / parts;
+        }
+        return bounds;
+    }
+
+    // Decodes records starting at `fromRecord` (0..recordCount) into the free rows of the batch,
+    // returns the number of records read, 0 at the end of the file
+    public int readPublications(long fromRecord, PublicationBatch batch) {
+        checkKind(BinaryFormat.KIND_PUBLICATIONS);
+        int count = (int) Math.min(batch.capacity - batch.size, remaining(fromRecord));
+        for (int i = 0; i < count; i++) {
+            long record = fromRecord + i;
+            MappedByteBuffer region = regions[(int) (record / recordsPerRegion)];
+            int base = (int) (record % recordsPerRegion) * recordSize;
+
+            int row = batch.size++;
+            for (int f = 0; f < slotOffsets.length; f++) {
+                BinaryFormat.readValue(region, base + slotOffsets[f], schema.fields.get(f), idMaps[f], batch.values, row);
+            }
+        }
+        return count;
+    }
+
+    public int readSubscriptions(long fromRecord, SubscriptionBatch batch) {
+        checkKind(BinaryFormat.KIND_SUBSCRIPTIONS);
+        int count = (int) Math.min(batch.capacity - batch.size, remaining(fromRecord));
+        for (int i = 0; i < count; i++) {
+            long record = fromRecord + i;
+            MappedByteBuffer region = regions[(int) (record / recordsPerRegion)];
+            int base = (int) (record % recordsPerRegion) * recordSize;
+
+            int row = batch.newRow();
+            byte presence = region.get(base);
+            batch.presence[row] = presence;
+            batch.average[row] = region.get(base + 1);
+            for (int f = 0; f < slotOffsets.length; f++) {
+                SchemaField field = schema.fields.get(f);
+                if ((presence & (1 << field.field().ordinal())) == 0) continue;
+
+                batch.operators[row * SubscriptionBatch.FIELDS_COUNT + field.field().ordinal()] =
+                        region.get(base + slotOffsets[f] - 1);
+                BinaryFormat.readValue(region, base + slotOffsets[f], field, idMaps[f], batch.values, row);
+            }
+        }
+        return count;
+    }
+
+    private long remaining(long fromRecord) {
+        Objects.checkIndex(fromRecord, recordCount + 1);
+        return recordCount - fromRecord;
+    }
+
+    private void checkKind(byte expected) {
+        if (kind != expected) {
+            throw new IllegalStateException("The file does not hold this kind of records");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
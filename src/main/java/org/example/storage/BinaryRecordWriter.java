@@ -0,0 +1,57 @@
+package org.example.storage;
+
+import org.example.schema.Schema;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+class BinaryRecordWriter {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final Schema schema;
+    private final int recordSize;
+
+    BinaryRecordWriter(String fileName, Schema schema, byte kind) throws IOException {
+        this.channel = FileChannel.open(Path.of(fileName),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.schema = schema;
+        this.recordSize = BinaryFormat.recordSize(schema, kind);
+        this.buffer = ByteBuffer.allocateDirect(Math.max(BUFFER_SIZE, BinaryFormat.headerSize(schema) + recordSize));
+        BinaryFormat.writeHeader(buffer, schema, kind);
+    }
+
+    // Returns the buffer with room for one more record
+    ByteBuffer nextRecord() throws IOException {
+        if (buffer.remaining() < recordSize) {
+            flush();
+        }
+        return buffer;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // The dictionaries are written last, so they hold every value encoded into the records
+    void close() throws IOException {
+        flush();
+        List<List<String>> dictionaries = BinaryFormat.dictionaries(schema);
+        ByteBuffer trailer = ByteBuffer.allocate(BinaryFormat.trailerSize(schema, dictionaries));
+        BinaryFormat.writeTrailer(trailer, schema, dictionaries, channel.position());
+        trailer.flip();
+        while (trailer.hasRemaining()) {
+            channel.write(trailer);
+        }
+        channel.close();
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.storage;
+
+import org.example.Subscription;
+import org.example.columnar.SubscriptionBatch;
+import org.example.schema.Schema;
+import org.example.schema.SchemaField;
+import org.example.schema.SubscriptionValue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public class BinarySubscriptionSaver implements SubscriptionSaver {
+    private final SaverLock lock = new SaverLock();
+    private final Schema schema;
+    private final BinaryRecordWriter writer;
+
+    public BinarySubscriptionSaver(String fileName, Schema schema) throws IOException {
+        this.schema = schema;
+        this.writer = new BinaryRecordWriter(fileName, schema, BinaryFormat.KIND_SUBSCRIPTIONS);
+    }
+
+    @Override
+    public void save(Subscription subscription) throws IOException {
+        lock.lock();
+        try {
+            byte presence = 0;
+            byte average = 0;
+            for (SchemaField field : subscription.fields.keySet()) {
+                presence |= (byte) (1 << field.field().ordinal());
+                if (subscription.fields.get(field).isAverage()) {
+                    average |= (byte) (1 << field.field().ordinal());
+                }
+            }
+
+            ByteBuffer buffer = writer.nextRecord();
+            buffer.put(presence);
+            buffer.put(average);
+            for (SchemaField field : schema.fields) {
+                SubscriptionValue value = subscription.fields.get(field);
+                if (value == null) {
+                    buffer.put((byte) 0);
+                    BinaryFormat.writeEmptySlot(buffer, field);
+                } else {
+                    buffer.put((byte) value.operator().ordinal());
+                    BinaryFormat.writeValue(buffer, field, value.value());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void save(SubscriptionBatch batch) throws IOException {
+        lock.lock();
+        try {
+            for (int row = 0; row < batch.size; row++) {
+                ByteBuffer buffer = writer.nextRecord();
+                buffer.put(batch.presence[row]);
+                buffer.put(batch.average[row]);
+                for (SchemaField field : schema.fields) {
+                    if (batch.has(row, field.field())) {
+                        buffer.put(batch.operators[row * SubscriptionBatch.FIELDS_COUNT + field.field().ordinal()]);
+                        BinaryFormat.writeValue(buffer, field, batch.values, row);
+                    } else {
+                        buffer.put((byte) 0);
+                        BinaryFormat.writeEmptySlot(buffer, field);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            writer.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.storage;
+
+import java.io.IOException;
+
+// Producer side of the writers that pass whole buffers of serialized records to other
+// threads (AsyncFileWriter, ParallelGzipWriter). The savers serialize a record into buffer()
+// and call recordWritten(); once the buffer holds `threshold` bytes it is handed off after
+// that record, so buffers always end at record boundaries, and the producer continues with
+// the next buffer. Not thread-safe, the savers call it under their lock.
+abstract class BufferedRecordWriter {
+    private final int threshold;
+    private JsonByteSerializer current;
+
+    BufferedRecordWriter(int threshold) {
+        if (threshold <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive");
+        }
+        this.threshold = threshold;
+        this.current = newBuffer();
+    }
+
+    // Sized with headroom for the record that crosses the threshold
+    JsonByteSerializer newBuffer() {
+        return new JsonByteSerializer(threshold + threshold / 8);
+    }
+
+    JsonByteSerializer buffer() {
+        return current;
+    }
+
+    void recordWritten() throws IOException {
+        if (current.size() >= threshold) {
+            handOff(current);
+            current = nextBuffer();
+        }
+    }
+
+    // Hands off the partly filled last buffer, if any
+    void handOffLast() throws IOException {
+        if (current.size() > 0) {
+            handOff(current);
+        }
+    }
+
+    abstract void handOff(JsonByteSerializer buffer) throws IOException;
+
+    // Empty buffer to continue with once the current one is handed off
+    abstract JsonByteSerializer nextBuffer() throws IOException;
+}
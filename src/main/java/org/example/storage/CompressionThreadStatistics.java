@@ -0,0 +1,15 @@
+package org.example.storage;
+
+// One compression thread of a ParallelGzipWriter: blocks it compressed, bytes in and out
+public record CompressionThreadStatistics(String thread, long blocks, long uncompressedBytes,
+                                          long compressedBytes, long compressionTimeInMillis) {
+
+    public double ratio() {
+        return compressedBytes == 0 ? 0.0 : (double) uncompressedBytes / compressedBytes;
+    }
+
+    // Uncompressed MB per second of compression time
+    public double megabytesPerSecond() {
+        return compressionTimeInMillis == 0 ? 0.0 : uncompressedBytes / 1_048_576.0 * 1000.0 / compressionTimeInMillis;
+    }
+}
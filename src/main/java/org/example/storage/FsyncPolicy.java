@@ -0,0 +1,11 @@
+package org.example.storage;
+
+// When the asynchronous savers force their file to the storage device:
+//   NONE     - never, the OS decides when the pages reach the disk
+//   ON_CLOSE - once, after the last buffer is written
+//   PERIODIC - at most once per interval while writing, and on close
+public enum FsyncPolicy {
+    NONE,
+    ON_CLOSE,
+    PERIODIC
+}
@@ -0,0 +1,67 @@
+package org.example.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Index of the gzip members written by ParallelGzipWriter, stored next to the .gz file:
+//
+//   magic (int) | version (short) | blocks count (int)
+//   blocks count x [compressed offset (long) | compressed length (int)
+//                   uncompressed offset (long) | uncompressed length (int)]
+//
+// Every block is a complete gzip member, so it can be inflated on its own.
+public class GzipBlockIndex {
+    public static final int MAGIC = 0x475A4249; // "GZBI"
+    public static final short VERSION = 1;
+    public static final String EXTENSION = ".index";
+
+    public record Block(long compressedOffset, int compressedLength, long uncompressedOffset, int uncompressedLength) {
+    }
+
+    private GzipBlockIndex() {
+    }
+
+    public static String indexFileName(String gzipFileName) {
+        return gzipFileName + EXTENSION;
+    }
+
+    static void write(String fileName, List<Block> blocks) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(blocks.size());
+            for (Block block : blocks) {
+                out.writeLong(block.compressedOffset());
+                out.writeInt(block.compressedLength());
+                out.writeLong(block.uncompressedOffset());
+                out.writeInt(block.uncompressedLength());
+            }
+        }
+    }
+
+    public static List<Block> read(String fileName) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(fileName)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a gzip block index: " + fileName);
+            }
+            short version = in.readShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported gzip block index version " + version);
+            }
+
+            int count = in.readInt();
+            List<Block> blocks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                blocks.add(new Block(in.readLong(), in.readInt(), in.readLong(), in.readInt()));
+            }
+            return blocks;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.storage;
+
+import org.example.Publication;
+import org.example.columnar.PublicationBatch;
+
+import java.io.IOException;
+
+// Same text as TextFilePublicationSaver, written as a block-compressed multi-member gzip file
+// (see ParallelGzipWriter) with a GzipBlockIndex next to it
+public class GzipTextFilePublicationSaver implements PublicationSaver {
+    private final SaverLock lock = new SaverLock();
+    private final ParallelGzipWriter writer;
+    private boolean firstWrite = true;
+
+    public GzipTextFilePublicationSaver(String fileName, int blockSize, int compressionThreads, int level) throws IOException {
+        writer = new ParallelGzipWriter(fileName, blockSize, compressionThreads, level);
+    }
+
+    @Override
+    public void save(Publication publication) throws IOException {
+        lock.lock();
+        try {
+            if (!firstWrite) {
+                writer.buffer().writeNewLine();
+            }
+            writer.buffer().writePublication(publication);
+            firstWrite = false;
+            writer.recordWritten();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void save(PublicationBatch batch) throws IOException {
+        lock.lock();
+        try {
+            for (int row = 0; row < batch.size; row++) {
+                if (!firstWrite) {
+                    writer.buffer().writeNewLine();
+                }
+                writer.buffer().writePublication(batch, row);
+                firstWrite = false;
+                writer.recordWritten();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public GzipWriterStatistics getStatistics() {
+        return writer.getStatistics();
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            writer.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
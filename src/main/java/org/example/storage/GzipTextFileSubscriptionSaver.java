@@ -0,0 +1,64 @@
+package org.example.storage;
+
+import org.example.Subscription;
+import org.example.columnar.SubscriptionBatch;
+
+import java.io.IOException;
+
+// Same text as TextFileSubscriptionSaver, written as a block-compressed multi-member gzip file
+// (see ParallelGzipWriter) with a GzipBlockIndex next to it
+public class GzipTextFileSubscriptionSaver implements SubscriptionSaver {
+    private final SaverLock lock = new SaverLock();
+    private final ParallelGzipWriter writer;
+    private boolean firstWrite = true;
+
+    public GzipTextFileSubscriptionSaver(String fileName, int blockSize, int compressionThreads, int level) throws IOException {
+        writer = new ParallelGzipWriter(fileName, blockSize, compressionThreads, level);
+    }
+
+    @Override
+    public void save(Subscription subscription) throws IOException {
+        lock.lock();
+        try {
+            if (!firstWrite) {
+                writer.buffer().writeNewLine();
+            }
+            writer.buffer().writeSubscription(subscription);
+            firstWrite = false;
+            writer.recordWritten();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void save(SubscriptionBatch batch) throws IOException {
+        lock.lock();
+        try {
+            for (int row = 0; row < batch.size; row++) {
+                if (!firstWrite) {
+                    writer.buffer().writeNewLine();
+                }
+                writer.buffer().writeSubscription(batch, row);
+                firstWrite = false;
+                writer.recordWritten();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public GzipWriterStatistics getStatistics() {
+        return writer.getStatistics();
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            writer.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
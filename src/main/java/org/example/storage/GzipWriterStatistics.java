@@ -0,0 +1,13 @@
+package org.example.storage;
+
+import java.util.List;
+
+// stallTimeInMillis is the time the producers waited for a block to be compressed
+// (too many blocks in flight); a high value means compression is the bottleneck
+public record GzipWriterStatistics(long blocks, long uncompressedBytes, long compressedBytes,
+                                   long stallTimeInMillis, List<CompressionThreadStatistics> threads) {
+
+    public double ratio() {
+        return compressedBytes == 0 ? 0.0 : (double) uncompressedBytes / compressedBytes;
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.storage;
+
+import org.example.Publication;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class InMemoryPublicationSaver implements PublicationSaver {
+    private final SaverLock lock = new SaverLock();
+    private final List<Publication> publications = new ArrayList<>();
+
+    @Override
+    public void save(Publication publication) {
+        lock.lock();
+        try {
+            publications.add(publication);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+    public List<Publication> getPublications() {
+        lock.lock();
+        try {
+            return publications;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
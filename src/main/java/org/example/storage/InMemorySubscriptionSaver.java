@@ -0,0 +1,34 @@
+package org.example.storage;
+
+import org.example.Subscription;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class InMemorySubscriptionSaver implements SubscriptionSaver {
+    private final SaverLock lock = new SaverLock();
+    private final List<Subscription> subscriptions = new ArrayList<>();
+
+    @Override
+    public void save(Subscription subscription) {
+        lock.lock();
+        try {
+            subscriptions.add(subscription);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+    public List<Subscription> getSubscriptions() {
+        lock.lock();
+        try {
+            return subscriptions;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
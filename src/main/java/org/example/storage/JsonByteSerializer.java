@@ -0,0 +1,316 @@
+package org.example.storage;
+
+import org.example.Publication;
+import org.example.Subscription;
+import org.example.columnar.CategoricalFields;
+import org.example.columnar.FieldDictionary;
+import org.example.columnar.PublicationBatch;
+import org.example.columnar.RecordBatch;
+import org.example.columnar.SubscriptionBatch;
+import org.example.columnar.ValueColumns;
+import org.example.generators.GeneratorsParams;
+import org.example.schema.DateCodec;
+import org.example.schema.Operator;
+import org.example.schema.SchemaDefinition;
+import org.example.schema.SchemaField;
+import org.example.schema.SchemaFieldNames;
+import org.example.schema.SubscriptionValue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+// Writes the same JSON as Publication.toJson / Subscription.toJson (and the batch variants)
+// as UTF-8 bytes into a reusable buffer. Field names, operators and the fixed parts of
+// the format are encoded once; numbers and dates of the columnar batches are formatted
+// digit by digit, so serializing a batch row allocates nothing.
+public class JsonByteSerializer {
+    // Buffered bytes after which the savers write the buffer to their channel
+    final static int FLUSH_THRESHOLD = 64 * 1024;
+
+    private final static SchemaFieldNames[] FIELD_NAMES = SchemaFieldNames.values();
+
+    // ' "station": "'
+    private final static byte[][] PUBLICATION_FIELDS = new byte[FIELD_NAMES.length][];
+    // ' "station": { "operator": "'
+    private final static byte[][] SUBSCRIPTION_FIELDS = new byte[FIELD_NAMES.length][];
+    // '>", "value": "'
+    private final static byte[][] OPERATORS = new byte[Operator.values().length][];
+    private final static byte[] AVERAGE_TRUE = ascii("\", \"isAverage\": \"true\" }");
+    private final static byte[] AVERAGE_FALSE = ascii("\", \"isAverage\": \"false\" }");
+    private final static FieldDictionary CITIES = CategoricalFields.dictionary(SchemaFieldNames.City);
+    private final static FieldDictionary DIRECTIONS = CategoricalFields.dictionary(SchemaFieldNames.Direction);
+
+    static {
+        for (SchemaFieldNames field : FIELD_NAMES) {
+            String name = field.toString().toLowerCase();
+            PUBLICATION_FIELDS[field.ordinal()] = utf8(" \"" + name + "\": \"");
+            SUBSCRIPTION_FIELDS[field.ordinal()] = utf8(" \"" + name + "\": { \"operator\": \"");
+        }
+        for (Operator operator : Operator.values()) {
+            OPERATORS[operator.ordinal()] = utf8(GeneratorsParams.MapOperatorToString.get(operator.ordinal())
+                    + "\", \"value\": \"");
+        }
+    }
+
+    private byte[] bytes;
+    private ByteBuffer buffer;
+    private int position;
+
+    // Field names of the last SchemaDefinition written by writeRecord
+    private SchemaDefinition recordSchema;
+    private byte[][] recordFields;
+
+    public JsonByteSerializer(int initialCapacity) {
+        this.bytes = new byte[Math.max(initialCapacity, 256)];
+        this.buffer = ByteBuffer.wrap(bytes);
+    }
+
+    public int size() {
+        return position;
+    }
+
+    public void clear() {
+        position = 0;
+    }
+
+    // Writes the buffered bytes to the channel and empties the buffer
+    public void flushTo(WritableByteChannel channel) throws IOException {
+        buffer.limit(position).position(0);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        position = 0;
+    }
+
+    // Backing array, valid up to size(); replaced when the buffer grows
+    byte[] array() {
+        return bytes;
+    }
+
+    public void writeNewLine() {
+        ensureCapacity(1);
+        bytes[position++] = '\n';
+    }
+
+    public void writePublication(Publication publication) {
+        put('{');
+        int remaining = publication.fields.size();
+        for (Map.Entry<SchemaField, String> entry : publication.fields.entrySet()) {
+            put(PUBLICATION_FIELDS[entry.getKey().field().ordinal()]);
+            putString(entry.getValue());
+            put('"');
+            if (--remaining > 0) {
+                put(',');
+            }
+        }
+        put(' ');
+        put('}');
+    }
+
+    // Same layout as PublicationBatch.toJson, fields in schema order
+    public void writePublication(PublicationBatch batch, int row) {
+        List<SchemaField> fields = batch.schema.fields;
+        put('{');
+        for (int f = 0; f < fields.size(); f++) {
+            SchemaFieldNames field = fields.get(f).field();
+            put(PUBLICATION_FIELDS[field.ordinal()]);
+            putValue(batch.values, field, row);
+            put('"');
+            if (f < fields.size() - 1) {
+                put(',');
+            }
+        }
+        put(' ');
+        put('}');
+    }
+
+    public void writeSubscription(Subscription subscription) {
+        put('{');
+        int remaining = subscription.fields.size();
+        for (Map.Entry<SchemaField, SubscriptionValue> entry : subscription.fields.entrySet()) {
+            SubscriptionValue value = entry.getValue();
+            put(SUBSCRIPTION_FIELDS[entry.getKey().field().ordinal()]);
+            put(OPERATORS[value.operator().ordinal()]);
+            putString(value.value());
+            put(value.isAverage() ? AVERAGE_TRUE : AVERAGE_FALSE);
+            if (--remaining > 0) {
+                put(',');
+            }
+        }
+        put(' ');
+        put('}');
+    }
+
+    // Same layout as SubscriptionBatch.toJson, fields in SchemaFieldNames order
+    public void writeSubscription(SubscriptionBatch batch, int row) {
+        put('{');
+        int remaining = batch.fieldsCount(row);
+        for (SchemaFieldNames field : FIELD_NAMES) {
+            if (!batch.has(row, field)) continue;
+            put(SUBSCRIPTION_FIELDS[field.ordinal()]);
+            put(OPERATORS[batch.operator(row, field).ordinal()]);
+            putValue(batch.values, field, row);
+            put(batch.isAverage(row, field) ? AVERAGE_TRUE : AVERAGE_FALSE);
+            if (--remaining > 0) {
+                put(',');
+            }
+        }
+        put(' ');
+        put('}');
+    }
+
+    // Same layout as RecordBatch.toJson, fields in schema order
+    public void writeRecord(RecordBatch batch, int row) {
+        if (batch.schema != recordSchema) {
+            encodeRecordSchema(batch.schema);
+        }
+        put('{');
+        for (int f = 0; f < recordFields.length; f++) {
+            put(recordFields[f]);
+            switch (batch.schema.fields.get(f).dataType()) {
+                case Integer -> putInt(batch.intColumns[f][row]);
+                case Double -> putDouble(batch.doubleColumns[f][row]);
+                case String -> put(batch.dictionaries[f].utf8(batch.intColumns[f][row]));
+                case Date -> {
+                    ensureCapacity(DateCodec.FORMATTED_LENGTH);
+                    position = DateCodec.formatTo(batch.intColumns[f][row], bytes, position);
+                }
+            }
+            put('"');
+            if (f < recordFields.length - 1) {
+                put(',');
+            }
+        }
+        put(' ');
+        put('}');
+    }
+
+    private void encodeRecordSchema(SchemaDefinition schema) {
+        recordFields = new byte[schema.size()][];
+        for (int f = 0; f < schema.size(); f++) {
+            recordFields[f] = utf8(" \"" + schema.fields.get(f).name() + "\": \"");
+        }
+        recordSchema = schema;
+    }
+
+    private void putValue(ValueColumns values, SchemaFieldNames field, int row) {
+        switch (field) {
+            case Station -> putInt(values.station[row]);
+            case City -> put(CITIES.utf8(values.city[row] & 0xFF));
+            case Temp -> putInt(values.temp[row]);
+            case Rain -> putDouble(values.rain[row]);
+            case Wind -> putInt(values.wind[row]);
+            case Direction -> put(DIRECTIONS.utf8(values.direction[row] & 0xFF));
+            case Date -> {
+                ensureCapacity(DateCodec.FORMATTED_LENGTH);
+                position = DateCodec.formatTo(values.date[row], bytes, position);
+            }
+        }
+    }
+
+    // Same digits as String.valueOf(int)
+    private void putInt(int value) {
+        ensureCapacity(11);
+        if (value == Integer.MIN_VALUE) {
+            put(ascii(String.valueOf(value)));
+            return;
+        }
+        if (value < 0) {
+            bytes[position++] = '-';
+            value = -value;
+        }
+        int end = position + digitsCount(value);
+        int i = end;
+        do {
+            bytes[--i] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        position = end;
+    }
+
+    // Same digits as String.valueOf(double) for values with at most two decimals
+    // (what DoubleFieldLimit generates), anything else goes through Double.toString
+    private void putDouble(double value) {
+        long hundredths = Math.round(value * 100);
+        boolean plain = hundredths / 100.0 == value
+                && Math.abs(hundredths) < 1_000_000_000L
+                && (hundredths != 0 || Double.doubleToRawLongBits(value) == 0);
+        if (!plain) {
+            put(ascii(Double.toString(value)));
+            return;
+        }
+
+        if (hundredths < 0) {
+            put('-');
+            hundredths = -hundredths;
+        }
+        putInt((int) (hundredths / 100));
+        ensureCapacity(3);
+        bytes[position++] = '.';
+        int fraction = (int) (hundredths % 100);
+        if (fraction % 10 == 0) {
+            bytes[position++] = (byte) ('0' + fraction / 10);
+        } else {
+            bytes[position++] = (byte) ('0' + fraction / 10);
+            bytes[position++] = (byte) ('0' + fraction % 10);
+        }
+    }
+
+    private static int digitsCount(int value) {
+        int count = 1;
+        while (value >= 10) {
+            value /= 10;
+            count++;
+        }
+        return count;
+    }
+
+    private void putString(String value) {
+        int length = value.length();
+        ensureCapacity(length);
+        int start = position;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                // not ASCII, let the encoder deal with it
+                position = start;
+                put(utf8(value));
+                return;
+            }
+            bytes[position++] = (byte) c;
+        }
+    }
+
+    private void put(byte[] token) {
+        ensureCapacity(token.length);
+        System.arraycopy(token, 0, bytes, position, token.length);
+        position += token.length;
+    }
+
+    private void put(char c) {
+        ensureCapacity(1);
+        bytes[position++] = (byte) c;
+    }
+
+    private void ensureCapacity(int additional) {
+        if (position + additional > bytes.length) {
+            byte[] grown = new byte[Math.max(bytes.length * 2, position + additional)];
+            System.arraycopy(bytes, 0, grown, 0, position);
+            bytes = grown;
+            buffer = ByteBuffer.wrap(bytes);
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
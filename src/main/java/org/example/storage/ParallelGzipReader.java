@@ -0,0 +1,110 @@
+package org.example.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+// Reads a file written by ParallelGzipWriter using its GzipBlockIndex: the members are
+// inflated on `threads` threads and every block is written at its uncompressed offset,
+// so the blocks never wait for each other
+public class ParallelGzipReader {
+    private final static int GZIP_HEADER_SIZE = 10;
+    private final static int GZIP_TRAILER_SIZE = 8;
+
+    private ParallelGzipReader() {
+    }
+
+    // Returns the number of uncompressed bytes
+    public static long decompress(String gzipFileName, String targetFileName, int threads) throws Exception {
+        List<GzipBlockIndex.Block> blocks = GzipBlockIndex.read(GzipBlockIndex.indexFileName(gzipFileName));
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (FileChannel source = FileChannel.open(Path.of(gzipFileName), StandardOpenOption.READ);
+             FileChannel target = FileChannel.open(Path.of(targetFileName),
+                     StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (GzipBlockIndex.Block block : blocks) {
+                futures.add(executor.submit(() -> inflateBlock(source, target, block)));
+            }
+
+            long total = 0;
+            for (Future<Integer> future : futures) {
+                try {
+                    total += future.get();
+                } catch (ExecutionException e) {
+                    throw new IOException("Cannot decompress " + gzipFileName, e.getCause());
+                }
+            }
+            return total;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static int inflateBlock(FileChannel source, FileChannel target, GzipBlockIndex.Block block)
+            throws IOException, DataFormatException {
+        ByteBuffer compressed = ByteBuffer.allocate(block.compressedLength());
+        long position = block.compressedOffset();
+        while (compressed.hasRemaining()) {
+            int read = source.read(compressed, position);
+            if (read < 0) {
+                throw new IOException("Block at " + block.compressedOffset() + " is truncated");
+            }
+            position += read;
+        }
+
+        byte[] data = compressed.array();
+        // the writer never sets FLG, so the header has a fixed size
+        if (data.length < GZIP_HEADER_SIZE + GZIP_TRAILER_SIZE
+                || data[0] != 0x1f || data[1] != (byte) 0x8b || data[2] != 8 || data[3] != 0) {
+            throw new IOException("Block at " + block.compressedOffset() + " is not a ParallelGzipWriter member");
+        }
+
+        byte[] uncompressed = new byte[block.uncompressedLength()];
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data, GZIP_HEADER_SIZE, data.length - GZIP_HEADER_SIZE - GZIP_TRAILER_SIZE);
+            int length = 0;
+            while (length < uncompressed.length && !inflater.finished()) {
+                int inflated = inflater.inflate(uncompressed, length, uncompressed.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != uncompressed.length) {
+                throw new IOException("Block at " + block.compressedOffset() + " inflates to " + length
+                        + " bytes instead of " + uncompressed.length);
+            }
+        } finally {
+            inflater.end();
+        }
+
+        ByteBuffer trailer = ByteBuffer.wrap(data, data.length - GZIP_TRAILER_SIZE, GZIP_TRAILER_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        CRC32 crc = new CRC32();
+        crc.update(uncompressed);
+        if (trailer.getInt() != (int) crc.getValue() || trailer.getInt() != uncompressed.length) {
+            throw new IOException("Block at " + block.compressedOffset() + " fails the CRC32 / size check");
+        }
+
+        ByteBuffer output = ByteBuffer.wrap(uncompressed);
+        position = block.uncompressedOffset();
+        while (output.hasRemaining()) {
+            position += target.write(output, position);
+        }
+        return uncompressed.length;
+    }
+}
@@ -0,0 +1,203 @@
+package org.example.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+// Block-parallel gzip writer, in the spirit of pigz: every full block of blockSize bytes goes
+// to a pool of compression threads and is compressed independently into a complete gzip
+// member (header, raw deflate data, CRC32 and size). The producer writes the members in
+// submission order, so the file is a regular multi-member gzip stream that gunzip and
+// GZIPInputStream read as one; the offsets of every member go into a GzipBlockIndex so
+// readers can inflate blocks in parallel.
+class ParallelGzipWriter extends BufferedRecordWriter {
+    // ID1 ID2 CM=deflate FLG=0 MTIME=0 XFL=0 OS=unknown
+    private final static byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private final static int GZIP_TRAILER_SIZE = 8;
+
+    private final String fileName;
+    private final FileChannel channel;
+    private final int level;
+    private final int maxInFlight;
+    private final ExecutorService compressors;
+
+    private final ArrayDeque<Future<CompressedBlock>> inFlight = new ArrayDeque<>();
+    private final ArrayDeque<JsonByteSerializer> free = new ArrayDeque<>();
+    private final List<GzipBlockIndex.Block> index = new ArrayList<>();
+    private final Map<String, long[]> threadStatistics = new ConcurrentHashMap<>();
+    private final List<Deflater> deflaters = new ArrayList<>();
+    private final ThreadLocal<Deflater> deflater;
+
+    private long compressedOffset;
+    private long uncompressedOffset;
+    private long stallNanos;
+
+    private record CompressedBlock(JsonByteSerializer source, byte[] data, int length, int uncompressedLength) {
+    }
+
+    ParallelGzipWriter(String fileName, int blockSize, int threads, int level) throws IOException {
+        super(blockSize);
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Threads must be positive");
+        }
+
+        this.fileName = fileName;
+        this.channel = FileChannel.open(Path.of(fileName),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.level = level;
+        // every thread busy and one block queued per thread
+        this.maxInFlight = threads * 2;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        String prefix = "gzip-" + Path.of(fileName).getFileName() + "-";
+        this.compressors = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.deflater = ThreadLocal.withInitial(() -> {
+            Deflater created = new Deflater(this.level, true);
+            synchronized (deflaters) {
+                deflaters.add(created);
+            }
+            return created;
+        });
+    }
+
+    // Blocks come back to the free list once written, a new one is allocated only when
+    // every block is still in flight
+    @Override
+    JsonByteSerializer nextBuffer() {
+        return free.isEmpty() ? newBuffer() : free.poll();
+    }
+
+    @Override
+    void handOff(JsonByteSerializer block) throws IOException {
+        inFlight.add(compressors.submit(() -> compress(block)));
+
+        // write whatever is already compressed, wait only when too many blocks are pending
+        while (!inFlight.isEmpty() && (inFlight.peek().isDone() || inFlight.size() > maxInFlight)) {
+            writeNext();
+        }
+    }
+
+    private CompressedBlock compress(JsonByteSerializer block) {
+        long start = System.nanoTime();
+        byte[] input = block.array();
+        int length = block.size();
+
+        CRC32 crc = new CRC32();
+        crc.update(input, 0, length);
+
+        Deflater deflater = this.deflater.get();
+        deflater.reset();
+        deflater.setInput(input, 0, length);
+        deflater.finish();
+
+        byte[] output = new byte[GZIP_HEADER.length + length / 2 + 64 + GZIP_TRAILER_SIZE];
+        System.arraycopy(GZIP_HEADER, 0, output, 0, GZIP_HEADER.length);
+        int position = GZIP_HEADER.length;
+        while (!deflater.finished()) {
+            if (position == output.length - GZIP_TRAILER_SIZE) {
+                byte[] grown = new byte[output.length * 2];
+                System.arraycopy(output, 0, grown, 0, position);
+                output = grown;
+            }
+            position += deflater.deflate(output, position, output.length - GZIP_TRAILER_SIZE - position);
+        }
+
+        ByteBuffer trailer = ByteBuffer.wrap(output, position, GZIP_TRAILER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        trailer.putInt((int) crc.getValue());
+        trailer.putInt(length);
+        position += GZIP_TRAILER_SIZE;
+
+        long[] stats = threadStatistics.computeIfAbsent(Thread.currentThread().getName(), name -> new long[4]);
+        stats[0]++;
+        stats[1] += length;
+        stats[2] += position;
+        stats[3] += System.nanoTime() - start;
+
+        return new CompressedBlock(block, output, position, length);
+    }
+
+    private void writeNext() throws IOException {
+        Future<CompressedBlock> next = inFlight.poll();
+        CompressedBlock block;
+        try {
+            if (next.isDone()) {
+                block = next.get();
+            } else {
+                long start = System.nanoTime();
+                block = next.get();
+                stallNanos += System.nanoTime() - start;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a compressed block", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Block compression failed", e.getCause());
+        }
+
+        ByteBuffer data = ByteBuffer.wrap(block.data(), 0, block.length());
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+
+        index.add(new GzipBlockIndex.Block(compressedOffset, block.length(), uncompressedOffset, block.uncompressedLength()));
+        compressedOffset += block.length();
+        uncompressedOffset += block.uncompressedLength();
+
+        block.source().clear();
+        free.add(block.source());
+    }
+
+    GzipWriterStatistics getStatistics() {
+        List<CompressionThreadStatistics> threads = new ArrayList<>();
+        threadStatistics.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> {
+                    long[] stats = entry.getValue();
+                    threads.add(new CompressionThreadStatistics(entry.getKey(), stats[0], stats[1], stats[2],
+                            stats[3] / 1_000_000));
+                });
+        return new GzipWriterStatistics(index.size(), uncompressedOffset, compressedOffset,
+                stallNanos / 1_000_000, threads);
+    }
+
+    void close() throws IOException {
+        try {
+            handOffLast();
+            while (!inFlight.isEmpty()) {
+                writeNext();
+            }
+            GzipBlockIndex.write(GzipBlockIndex.indexFileName(fileName), index);
+        } finally {
+            compressors.shutdown();
+            try {
+                compressors.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (deflaters) {
+                deflaters.forEach(Deflater::end);
+            }
+            channel.close();
+        }
+    }
+}
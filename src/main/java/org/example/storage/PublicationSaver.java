@@ -1,11 +1,26 @@
 package org.example.storage;
 
 import org.example.Publication;
+import org.example.columnar.PublicationBatch;
 
 import java.io.IOException;
 
 public interface PublicationSaver {
     void save(Publication publication) throws IOException;
     void close() throws IOException;
+
+    // Savers that can serialize the columns directly override it,
+    // the default goes back through the row-based records
+    default void save(PublicationBatch batch) throws IOException {
+        for (int row = 0; row < batch.size; row++) {
+            save(batch.toPublication(row));
+        }
+    }
+
+    // View of the saver used by one worker of a parallel generator.
+    // Savers that keep per-worker state (e.g. one shard per worker) override it.
+    default PublicationSaver forWorker(int workerIndex) {
+        return this;
+    }
 }
 
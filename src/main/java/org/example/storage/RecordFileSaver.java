@@ -0,0 +1,50 @@
+package org.example.storage;
+
+import org.example.columnar.RecordBatch;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Text file of RecordBatch rows, one JSON record per line
+public class RecordFileSaver implements AutoCloseable {
+    private final SaverLock lock = new SaverLock();
+    private final FileChannel channel;
+    private final JsonByteSerializer json = new JsonByteSerializer(JsonByteSerializer.FLUSH_THRESHOLD * 2);
+    private boolean firstWrite = true;
+
+    public RecordFileSaver(String fileName) throws IOException {
+        channel = FileChannel.open(Path.of(fileName),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    public void save(RecordBatch batch) throws IOException {
+        lock.lock();
+        try {
+            for (int row = 0; row < batch.size; row++) {
+                if (!firstWrite) {
+                    json.writeNewLine();
+                }
+                json.writeRecord(batch, row);
+                firstWrite = false;
+                if (json.size() >= JsonByteSerializer.FLUSH_THRESHOLD) {
+                    json.flushTo(channel);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            json.flushTo(channel);
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
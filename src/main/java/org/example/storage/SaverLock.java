@@ -0,0 +1,30 @@
+package org.example.storage;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+// Lock of the shared savers. Unlike a synchronized monitor, waiting for it or holding it
+// across file I/O does not pin the carrier thread of a virtual thread. Time spent waiting
+// for any saver lock is added to a per-thread total, which the generator metrics read.
+public class SaverLock {
+    private final static ThreadLocal<long[]> WAIT_NANOS = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public void lock() {
+        if (lock.tryLock()) {
+            return;
+        }
+        long start = System.nanoTime();
+        lock.lock();
+        WAIT_NANOS.get()[0] += System.nanoTime() - start;
+    }
+
+    public void unlock() {
+        lock.unlock();
+    }
+
+    // Total time the current thread waited for saver locks
+    public static long currentThreadWaitNanos() {
+        return WAIT_NANOS.get()[0];
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.storage;
+
+import org.example.Publication;
+import org.example.columnar.PublicationBatch;
+
+import java.io.IOException;
+
+public class ShardedTextFilePublicationSaver implements PublicationSaver {
+    private final ShardedTextFileWriter writer;
+
+    public ShardedTextFilePublicationSaver(String fileName, boolean merge) {
+        writer = new ShardedTextFileWriter(fileName, merge);
+    }
+
+    // Records saved directly (not through a worker view) go to shard 0
+    @Override
+    public void save(Publication publication) throws IOException {
+        ShardedTextFileWriter.Shard shard = writer.shard(0);
+        shard.beginRecord().writePublication(publication);
+        shard.endRecord();
+    }
+
+    @Override
+    public PublicationSaver forWorker(int workerIndex) {
+        ShardedTextFileWriter.Shard shard = writer.shard(workerIndex);
+        return new PublicationSaver() {
+            @Override
+            public void save(Publication publication) throws IOException {
+                shard.beginRecord().writePublication(publication);
+                shard.endRecord();
+            }
+
+            @Override
+            public void save(PublicationBatch batch) throws IOException {
+                for (int row = 0; row < batch.size; row++) {
+                    shard.beginRecord().writePublication(batch, row);
+                    shard.endRecord();
+                }
+            }
+
+            @Override
+            public void close() {
+                // shards are closed together by the owning saver
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
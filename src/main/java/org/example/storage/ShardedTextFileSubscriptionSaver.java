@@ -0,0 +1,52 @@
+package org.example.storage;
+
+import org.example.Subscription;
+import org.example.columnar.SubscriptionBatch;
+
+import java.io.IOException;
+
+public class ShardedTextFileSubscriptionSaver implements SubscriptionSaver {
+    private final ShardedTextFileWriter writer;
+
+    public ShardedTextFileSubscriptionSaver(String fileName, boolean merge) {
+        writer = new ShardedTextFileWriter(fileName, merge);
+    }
+
+    // Records saved directly (not through a worker view) go to shard 0
+    @Override
+    public void save(Subscription subscription) throws IOException {
+        ShardedTextFileWriter.Shard shard = writer.shard(0);
+        shard.beginRecord().writeSubscription(subscription);
+        shard.endRecord();
+    }
+
+    @Override
+    public SubscriptionSaver forWorker(int workerIndex) {
+        ShardedTextFileWriter.Shard shard = writer.shard(workerIndex);
+        return new SubscriptionSaver() {
+            @Override
+            public void save(Subscription subscription) throws IOException {
+                shard.beginRecord().writeSubscription(subscription);
+                shard.endRecord();
+            }
+
+            @Override
+            public void save(SubscriptionBatch batch) throws IOException {
+                for (int row = 0; row < batch.size; row++) {
+                    shard.beginRecord().writeSubscription(batch, row);
+                    shard.endRecord();
+                }
+            }
+
+            @Override
+            public void close() {
+                // shards are closed together by the owning saver
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
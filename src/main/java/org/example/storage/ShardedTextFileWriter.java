@@ -0,0 +1,119 @@
+package org.example.storage;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Every worker writes its records to its own shard file, so no lock is shared
+// between workers. On close, the shards are either concatenated into the target
+// file or listed in a manifest next to it.
+class ShardedTextFileWriter {
+    private final String fileName;
+    private final boolean merge;
+    private final ConcurrentMap<Integer, Shard> shards = new ConcurrentHashMap<>();
+
+    ShardedTextFileWriter(String fileName, boolean merge) {
+        this.fileName = fileName;
+        this.merge = merge;
+    }
+
+    Shard shard(int index) {
+        return shards.computeIfAbsent(index, i -> {
+            try {
+                return new Shard(Path.of(fileName + ".shard" + i));
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot create shard " + i + " for " + fileName, e);
+            }
+        });
+    }
+
+    void close() throws IOException {
+        Shard[] ordered = shards.keySet().stream().sorted().map(shards::get).toArray(Shard[]::new);
+
+        for (Shard shard : ordered) {
+            shard.close();
+        }
+
+        if (merge) {
+            mergeShards(ordered);
+        } else {
+            writeManifest(ordered);
+        }
+    }
+
+    private void mergeShards(Shard[] ordered) throws IOException {
+        ByteBuffer newLine = ByteBuffer.wrap(new byte[]{'\n'});
+        boolean firstShard = true;
+
+        try (FileChannel target = FileChannel.open(Path.of(fileName),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Shard shard : ordered) {
+                if (shard.records > 0) {
+                    if (!firstShard) {
+                        newLine.rewind();
+                        target.write(newLine);
+                    }
+                    try (FileChannel source = FileChannel.open(shard.path, StandardOpenOption.READ)) {
+                        long position = 0;
+                        long size = source.size();
+                        while (position < size) {
+                            position += source.transferTo(position, size - position, target);
+                        }
+                    }
+                    firstShard = false;
+                }
+                Files.delete(shard.path);
+            }
+        }
+    }
+
+    private void writeManifest(Shard[] ordered) throws IOException {
+        try (PrintWriter manifest = new PrintWriter(new BufferedWriter(new FileWriter(fileName + ".manifest")))) {
+            for (Shard shard : ordered) {
+                manifest.println(shard.path + " " + shard.records);
+            }
+        }
+    }
+
+    // Owned by a single worker, hence not synchronized. A record is written as
+    // beginRecord().write...(...) followed by endRecord()
+    static class Shard {
+        private final Path path;
+        private final FileChannel channel;
+        private final JsonByteSerializer json = new JsonByteSerializer(JsonByteSerializer.FLUSH_THRESHOLD * 2);
+        private long records;
+
+        private Shard(Path path) throws IOException {
+            this.path = path;
+            this.channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        JsonByteSerializer beginRecord() {
+            if (records > 0) {
+                json.writeNewLine();
+            }
+            return json;
+        }
+
+        void endRecord() throws IOException {
+            records++;
+            if (json.size() >= JsonByteSerializer.FLUSH_THRESHOLD) {
+                json.flushTo(channel);
+            }
+        }
+
+        private void close() throws IOException {
+            json.flushTo(channel);
+            channel.close();
+        }
+    }
+}
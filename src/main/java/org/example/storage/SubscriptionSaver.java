@@ -1,10 +1,25 @@
 package org.example.storage;
 
 import org.example.Subscription;
+import org.example.columnar.SubscriptionBatch;
 
 import java.io.IOException;
 
 public interface SubscriptionSaver {
     void save(Subscription subscription) throws IOException;
     void close() throws IOException;
+
+    // Savers that can serialize the columns directly override it,
+    // the default goes back through the row-based records
+    default void save(SubscriptionBatch batch) throws IOException {
+        for (int row = 0; row < batch.size; row++) {
+            save(batch.toSubscription(row));
+        }
+    }
+
+    // View of the saver used by one worker of a parallel generator.
+    // Savers that keep per-worker state (e.g. one shard per worker) override it.
+    default SubscriptionSaver forWorker(int workerIndex) {
+        return this;
+    }
 }
@@ -1,30 +1,70 @@
 package org.example.storage;
 
 import org.example.Publication;
+import org.example.columnar.PublicationBatch;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 public class TextFilePublicationSaver implements PublicationSaver {
-    private final BufferedWriter writer;
+    private final SaverLock lock = new SaverLock();
+    private final FileChannel channel;
+    private final JsonByteSerializer json = new JsonByteSerializer(JsonByteSerializer.FLUSH_THRESHOLD * 2);
     private boolean firstWrite = true;
 
     public TextFilePublicationSaver(String fileName) throws IOException {
-        writer = new BufferedWriter(new FileWriter(fileName));
+        channel = FileChannel.open(Path.of(fileName),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
     }
 
     @Override
-    public synchronized void save(Publication publication) throws IOException {
-        if (!firstWrite) {
-            writer.write("\n");
+    public void save(Publication publication) throws IOException {
+        lock.lock();
+        try {
+            if (!firstWrite) {
+                json.writeNewLine();
+            }
+            json.writePublication(publication);
+            firstWrite = false;
+            flushIfFull();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void save(PublicationBatch batch) throws IOException {
+        lock.lock();
+        try {
+            for (int row = 0; row < batch.size; row++) {
+                if (!firstWrite) {
+                    json.writeNewLine();
+                }
+                json.writePublication(batch, row);
+                firstWrite = false;
+            }
+            flushIfFull();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushIfFull() throws IOException {
+        if (json.size() >= JsonByteSerializer.FLUSH_THRESHOLD) {
+            json.flushTo(channel);
         }
-        writer.write(publication.toJson());
-        firstWrite = false;
     }
 
     @Override
     public void close() throws IOException {
-        writer.close();
+        lock.lock();
+        try {
+            json.flushTo(channel);
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
     }
 }
@@ -1,32 +1,70 @@
 package org.example.storage;
 
 import org.example.Subscription;
+import org.example.columnar.SubscriptionBatch;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 public class TextFileSubscriptionSaver implements SubscriptionSaver {
-    private final BufferedWriter writer;
+    private final SaverLock lock = new SaverLock();
+    private final FileChannel channel;
+    private final JsonByteSerializer json = new JsonByteSerializer(JsonByteSerializer.FLUSH_THRESHOLD * 2);
     private boolean firstWrite = true;
 
     public TextFileSubscriptionSaver(String fileName) throws IOException {
-        writer = new BufferedWriter(new FileWriter(fileName));
-        //writer.write("[\n");
+        channel = FileChannel.open(Path.of(fileName),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
     }
 
     @Override
-    public synchronized void save(Subscription subscription) throws IOException {
-        if (!firstWrite) {
-            writer.write("\n");
+    public void save(Subscription subscription) throws IOException {
+        lock.lock();
+        try {
+            if (!firstWrite) {
+                json.writeNewLine();
+            }
+            json.writeSubscription(subscription);
+            firstWrite = false;
+            flushIfFull();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void save(SubscriptionBatch batch) throws IOException {
+        lock.lock();
+        try {
+            for (int row = 0; row < batch.size; row++) {
+                if (!firstWrite) {
+                    json.writeNewLine();
+                }
+                json.writeSubscription(batch, row);
+                firstWrite = false;
+            }
+            flushIfFull();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushIfFull() throws IOException {
+        if (json.size() >= JsonByteSerializer.FLUSH_THRESHOLD) {
+            json.flushTo(channel);
         }
-        writer.write(subscription.toJson());
-        firstWrite = false;
     }
 
     @Override
     public void close() throws IOException {
-        //writer.write("\n]");
-        writer.close();
+        lock.lock();
+        try {
+            json.flushTo(channel);
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
     }
 }
@@ -0,0 +1,129 @@
+package org.example.validation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Recomputes the frequencies of a text output file (one JSON record per line) from the file
+// itself. The file is cut at newline boundaries into chunks of at most MAX_CHUNK_SIZE bytes
+// (at least one per thread), every chunk is memory mapped and parsed by a RecordParser on
+// its own thread, and the per-chunk counters are summed at the end.
+public class OutputValidator {
+    // Under the 2 GB mapping limit, with room to extend a chunk to the end of its last line
+    private final static long MAX_CHUNK_SIZE = 1L << 30;
+
+    private OutputValidator() {
+    }
+
+    public static ValidationReport validateSubscriptions(String fileName, int numberOfThreads) throws Exception {
+        return validate(fileName, numberOfThreads, true);
+    }
+
+    public static ValidationReport validatePublications(String fileName, int numberOfThreads) throws Exception {
+        return validate(fileName, numberOfThreads, false);
+    }
+
+    private static ValidationReport validate(String fileName, int numberOfThreads, boolean subscriptions)
+            throws Exception {
+        long start = System.nanoTime();
+
+        try (FileChannel channel = FileChannel.open(Path.of(fileName), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] boundaries = split(channel, size, numberOfThreads);
+
+            ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+            List<Future<RecordParser>> futures = new ArrayList<>();
+            try {
+                for (int c = 0; c + 1 < boundaries.length; c++) {
+                    long from = boundaries[c];
+                    long to = boundaries[c + 1];
+                    futures.add(executor.submit(() -> {
+                        RecordParser parser = new RecordParser(subscriptions);
+                        if (to > from) {
+                            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+                            parser.parse(buffer, 0, (int) (to - from));
+                        }
+                        return parser;
+                    }));
+                }
+
+                RecordParser total = new RecordParser(subscriptions);
+                for (Future<RecordParser> future : futures) {
+                    add(total, future.get());
+                }
+
+                long end = System.nanoTime();
+
+                return new ValidationReport(
+                        total.records,
+                        total.malformedRecords,
+                        total.emptyRecords,
+                        size,
+                        total.fieldCounts,
+                        total.equalCounts,
+                        total.averageCounts,
+                        total.invalidValues,
+                        (end - start) / 1_000_000
+                );
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
+    // Chunk boundaries, each one right after a newline (or at the start / end of the file)
+    private static long[] split(FileChannel channel, long size, int numberOfThreads) throws IOException {
+        int chunks = (int) Math.max(numberOfThreads, (size + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE);
+        long[] boundaries = new long[chunks + 1];
+        boundaries[chunks] = size;
+
+        ByteBuffer probe = ByteBuffer.allocate(8192);
+        for (int c = 1; c < chunks; c++) {
+            long position = Math.max(size * c / chunks, boundaries[c - 1]);
+            boundaries[c] = nextLineStart(channel, position, size, probe);
+        }
+        return boundaries;
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long size, ByteBuffer probe)
+            throws IOException {
+        if (position == 0) {
+            return 0;
+        }
+
+        // position - 1 is checked too, the chunk may already start right after a newline
+        long offset = position - 1;
+        while (offset < size) {
+            probe.clear();
+            int read = channel.read(probe, offset);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    private static void add(RecordParser total, RecordParser part) {
+        total.records += part.records;
+        total.malformedRecords += part.malformedRecords;
+        total.emptyRecords += part.emptyRecords;
+        for (int f = 0; f < total.fieldCounts.length; f++) {
+            total.fieldCounts[f] += part.fieldCounts[f];
+            total.equalCounts[f] += part.equalCounts[f];
+            total.averageCounts[f] += part.averageCounts[f];
+            total.invalidValues[f] += part.invalidValues[f];
+        }
+    }
+}
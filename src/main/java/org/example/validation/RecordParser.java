@@ -0,0 +1,290 @@
+package org.example.validation;
+
+import org.example.generators.GeneratorsParams;
+import org.example.schema.DateCodec;
+import org.example.schema.Operator;
+import org.example.schema.SchemaFieldNames;
+
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// Parses the JSON lines written by the text savers directly from the mapped bytes and adds
+// them to the counters. Only the quoted tokens matter: a publication field is 2 of them
+// (name, value), a subscription field 7 (name, "operator", operator, "value", value,
+// "isAverage", true/false). Values are checked against the generator limits without
+// building Strings. One parser per thread.
+class RecordParser {
+    private final static SchemaFieldNames[] FIELD_NAMES = SchemaFieldNames.values();
+    private final static byte[][] NAMES = new byte[FIELD_NAMES.length][];
+    private final static byte[][] OPERATORS = new byte[Operator.values().length][];
+    private final static byte[] OPERATOR_KEY = ascii("operator");
+    private final static byte[] VALUE_KEY = ascii("value");
+    private final static byte[] AVERAGE_KEY = ascii("isAverage");
+    private final static byte[] TRUE = ascii("true");
+    private final static byte[] FALSE = ascii("false");
+    private final static byte[][] CITIES = encodeAll(GeneratorsParams.cities);
+    private final static byte[][] DIRECTIONS = encodeAll(GeneratorsParams.directions);
+
+    static {
+        for (SchemaFieldNames field : FIELD_NAMES) {
+            NAMES[field.ordinal()] = ascii(field.toString().toLowerCase());
+        }
+        for (Operator operator : Operator.values()) {
+            OPERATORS[operator.ordinal()] = ascii(GeneratorsParams.MapOperatorToString.get(operator.ordinal()));
+        }
+    }
+
+    private final boolean subscriptions;
+    private final int tokensPerField;
+
+    long records;
+    long malformedRecords;
+    long emptyRecords;
+    final long[] fieldCounts = new long[FIELD_NAMES.length];
+    final long[] equalCounts = new long[FIELD_NAMES.length];
+    final long[] averageCounts = new long[FIELD_NAMES.length];
+    final long[] invalidValues = new long[FIELD_NAMES.length];
+
+    // Per record, applied to the counters only when the whole record is well formed
+    private final int[] recordFields = new int[FIELD_NAMES.length];
+    private final boolean[] recordEqual = new boolean[FIELD_NAMES.length];
+    private final boolean[] recordAverage = new boolean[FIELD_NAMES.length];
+    private final boolean[] recordInvalid = new boolean[FIELD_NAMES.length];
+
+    RecordParser(boolean subscriptions) {
+        this.subscriptions = subscriptions;
+        this.tokensPerField = subscriptions ? 7 : 2;
+    }
+
+    // Parses the records (one per line) in [from, to) of the buffer
+    void parse(MappedByteBuffer buffer, int from, int to) {
+        int lineStart = from;
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == '\n') {
+                parseRecord(buffer, lineStart, i);
+                lineStart = i + 1;
+            }
+        }
+        if (lineStart < to) {
+            parseRecord(buffer, lineStart, to);
+        }
+    }
+
+    private void parseRecord(MappedByteBuffer buffer, int from, int to) {
+        while (to > from && (buffer.get(to - 1) == '\r' || buffer.get(to - 1) == ' ')) {
+            to--;
+        }
+        if (to == from) {
+            return;
+        }
+
+        records++;
+        if (!parseFields(buffer, from, to)) {
+            malformedRecords++;
+        }
+    }
+
+    private boolean parseFields(MappedByteBuffer buffer, int from, int to) {
+        if (buffer.get(from) != '{' || buffer.get(to - 1) != '}') {
+            return false;
+        }
+
+        int fieldsCount = 0;
+        int token = 0;
+        int field = -1;
+        int i = from;
+        while (true) {
+            int open = indexOf(buffer, '"', i, to);
+            if (open < 0) break;
+            int close = indexOf(buffer, '"', open + 1, to);
+            if (close < 0) return false;
+            int start = open + 1;
+            i = close + 1;
+
+            switch (token % tokensPerField) {
+                case 0 -> {
+                    field = match(buffer, start, close, NAMES);
+                    if (field < 0) return false;
+                    for (int f = 0; f < fieldsCount; f++) {
+                        if (recordFields[f] == field) return false;
+                    }
+                    recordFields[fieldsCount++] = field;
+                    recordEqual[field] = false;
+                    recordAverage[field] = false;
+                    recordInvalid[field] = false;
+                    if (!subscriptions) {
+                        // publication: the next token is the value
+                        token++;
+                        int valueOpen = indexOf(buffer, '"', i, to);
+                        if (valueOpen < 0) return false;
+                        int valueClose = indexOf(buffer, '"', valueOpen + 1, to);
+                        if (valueClose < 0) return false;
+                        recordInvalid[field] = !isValid(FIELD_NAMES[field], buffer, valueOpen + 1, valueClose);
+                        i = valueClose + 1;
+                    }
+                }
+                case 1 -> {
+                    if (!equals(buffer, start, close, OPERATOR_KEY)) return false;
+                }
+                case 2 -> {
+                    int operator = match(buffer, start, close, OPERATORS);
+                    if (operator < 0) return false;
+                    recordEqual[field] = operator == Operator.EQ.ordinal();
+                }
+                case 3 -> {
+                    if (!equals(buffer, start, close, VALUE_KEY)) return false;
+                }
+                case 4 -> recordInvalid[field] = !isValid(FIELD_NAMES[field], buffer, start, close);
+                case 5 -> {
+                    if (!equals(buffer, start, close, AVERAGE_KEY)) return false;
+                }
+                case 6 -> {
+                    if (equals(buffer, start, close, TRUE)) {
+                        recordAverage[field] = true;
+                    } else if (!equals(buffer, start, close, FALSE)) {
+                        return false;
+                    }
+                }
+            }
+            token++;
+        }
+
+        if (token != fieldsCount * tokensPerField) {
+            return false;
+        }
+
+        if (fieldsCount == 0) {
+            emptyRecords++;
+        }
+        for (int f = 0; f < fieldsCount; f++) {
+            int ordinal = recordFields[f];
+            fieldCounts[ordinal]++;
+            if (recordEqual[ordinal]) equalCounts[ordinal]++;
+            if (recordAverage[ordinal]) averageCounts[ordinal]++;
+            if (recordInvalid[ordinal]) invalidValues[ordinal]++;
+        }
+        return true;
+    }
+
+    private static boolean isValid(SchemaFieldNames field, MappedByteBuffer buffer, int from, int to) {
+        return switch (field) {
+            case Station -> isIntegerIn(buffer, from, to, GeneratorsParams.stationLimit.min, GeneratorsParams.stationLimit.max);
+            case Temp -> isIntegerIn(buffer, from, to, GeneratorsParams.tempLimit.min, GeneratorsParams.tempLimit.max);
+            case Wind -> isIntegerIn(buffer, from, to, GeneratorsParams.windLimit.min, GeneratorsParams.windLimit.max);
+            case Rain -> isDecimalIn(buffer, from, to, GeneratorsParams.rainLimit.min, GeneratorsParams.rainLimit.max);
+            case City -> match(buffer, from, to, CITIES) >= 0;
+            case Direction -> match(buffer, from, to, DIRECTIONS) >= 0;
+            case Date -> isDateIn(buffer, from, to);
+        };
+    }
+
+    private static boolean isIntegerIn(MappedByteBuffer buffer, int from, int to, int min, int max) {
+        boolean negative = from < to && buffer.get(from) == '-';
+        int i = negative ? from + 1 : from;
+        if (i == to || to - i > 10) return false;
+
+        long value = 0;
+        for (; i < to; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) return false;
+            value = value * 10 + digit;
+        }
+        if (negative) value = -value;
+        return value >= min && value <= max;
+    }
+
+    private static boolean isDecimalIn(MappedByteBuffer buffer, int from, int to, double min, double max) {
+        boolean negative = from < to && buffer.get(from) == '-';
+        int i = negative ? from + 1 : from;
+        if (i == to || to - i > 18) return false;
+
+        long mantissa = 0;
+        int scale = 0;
+        boolean dot = false;
+        boolean digits = false;
+        for (; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b == '.' && !dot) {
+                dot = true;
+                continue;
+            }
+            int digit = b - '0';
+            if (digit < 0 || digit > 9) return false;
+            mantissa = mantissa * 10 + digit;
+            digits = true;
+            if (dot) scale++;
+        }
+        if (!digits) return false;
+
+        double value = mantissa / Math.pow(10, scale);
+        if (negative) value = -value;
+        return value >= min && value <= max;
+    }
+
+    private static boolean isDateIn(MappedByteBuffer buffer, int from, int to) {
+        if (to - from != DateCodec.FORMATTED_LENGTH || buffer.get(from + 2) != '.' || buffer.get(from + 5) != '.') {
+            return false;
+        }
+        int day = digits(buffer, from, 2);
+        int month = digits(buffer, from + 3, 2);
+        int year = digits(buffer, from + 6, 4);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return false;
+        }
+        long epochDay = DateCodec.toEpochDay(year, month, day);
+        return epochDay >= GeneratorsParams.dateLimit.minEpochDay && epochDay <= GeneratorsParams.dateLimit.maxEpochDay;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && year % 100 != 0) || year % 400 == 0 ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static int digits(MappedByteBuffer buffer, int from, int count) {
+        int result = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) return -1;
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
+    private static int indexOf(MappedByteBuffer buffer, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == c) return i;
+        }
+        return -1;
+    }
+
+    private static int match(MappedByteBuffer buffer, int from, int to, byte[][] candidates) {
+        for (int c = 0; c < candidates.length; c++) {
+            if (equals(buffer, from, to, candidates[c])) return c;
+        }
+        return -1;
+    }
+
+    private static boolean equals(MappedByteBuffer buffer, int from, int to, byte[] expected) {
+        if (to - from != expected.length) return false;
+        for (int i = 0; i < expected.length; i++) {
+            if (buffer.get(from + i) != expected[i]) return false;
+        }
+        return true;
+    }
+
+    private static byte[][] encodeAll(List<String> values) {
+        byte[][] encoded = new byte[values.size()][];
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = values.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+        return encoded;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
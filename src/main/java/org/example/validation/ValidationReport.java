@@ -0,0 +1,29 @@
+package org.example.validation;
+
+import org.example.schema.SchemaFieldNames;
+
+// Counts recomputed from an output file; the per-field arrays are indexed by SchemaFieldNames ordinal
+public record ValidationReport(long records, long malformedRecords, long emptyRecords, long bytes,
+                               long[] fieldCounts, long[] equalCounts, long[] averageCounts,
+                               long[] invalidValues, long totalTimeInMillis) {
+
+    public long fieldCount(SchemaFieldNames field) {
+        return fieldCounts[field.ordinal()];
+    }
+
+    public long equalCount(SchemaFieldNames field) {
+        return equalCounts[field.ordinal()];
+    }
+
+    public long averageCount(SchemaFieldNames field) {
+        return averageCounts[field.ordinal()];
+    }
+
+    public long invalidValues(SchemaFieldNames field) {
+        return invalidValues[field.ordinal()];
+    }
+
+    public double megabytesPerSecond() {
+        return totalTimeInMillis == 0 ? 0.0 : bytes / 1_048_576.0 * 1000.0 / totalTimeInMillis;
+    }
+}
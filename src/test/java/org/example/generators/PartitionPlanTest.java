@@ -0,0 +1,179 @@
+package org.example.generators;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.example.generators.PartitionPlan.UNRESTRICTED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionPlanTest {
+
+    // The properties ParallelSubscriptionsGenerator relies on
+    private static void assertInvariants(PartitionPlan plan, int[] fieldQuotas, int[] equalQuotas) {
+        long subscriptionsTotal = 0;
+        for (int p = 0; p < plan.numberOfPartitions; p++) {
+            int subscriptions = plan.subscriptions(p);
+            // contiguous chunks, sizes differ by at most one
+            assertTrue(Math.abs(subscriptions - plan.numberOfSubscriptions / plan.numberOfPartitions) <= 1);
+            subscriptionsTotal += subscriptions;
+        }
+        assertEquals(plan.numberOfSubscriptions, subscriptionsTotal);
+
+        long quotasTotal = 0;
+        boolean allRestricted = true;
+        for (int f = 0; f < fieldQuotas.length; f++) {
+            if (fieldQuotas[f] == UNRESTRICTED) {
+                allRestricted = false;
+                for (int p = 0; p < plan.numberOfPartitions; p++) {
+                    assertEquals(UNRESTRICTED, plan.fieldQuota(p, f));
+                    assertEquals(UNRESTRICTED, plan.equalQuota(p, f));
+                }
+                continue;
+            }
+            quotasTotal += fieldQuotas[f];
+
+            long fieldSum = 0;
+            long equalSum = 0;
+            for (int p = 0; p < plan.numberOfPartitions; p++) {
+                int quota = plan.fieldQuota(p, f);
+                int equalQuota = plan.equalQuota(p, f);
+                assertTrue(quota >= 0 && quota <= plan.subscriptions(p),
+                        "partition " + p + " has " + quota + " occurrences of field " + f);
+                if (equalQuotas[f] == UNRESTRICTED) {
+                    assertEquals(UNRESTRICTED, equalQuota);
+                } else {
+                    assertTrue(equalQuota >= 0 && equalQuota <= quota,
+                            "partition " + p + " has " + equalQuota + " EQ operators for " + quota + " occurrences");
+                    equalSum += equalQuota;
+                }
+                fieldSum += quota;
+            }
+            assertEquals(fieldQuotas[f], fieldSum, "occurrences of field " + f);
+            if (equalQuotas[f] != UNRESTRICTED) {
+                assertEquals(equalQuotas[f], equalSum, "EQ operators of field " + f);
+            }
+        }
+
+        for (int p = 0; p < plan.numberOfPartitions; p++) {
+            long fieldsTotal = 0;
+            for (int f = 0; f < fieldQuotas.length; f++) {
+                fieldsTotal += Math.max(plan.fieldQuota(p, f), 0);
+            }
+            assertEquals(fieldsTotal, plan.fieldsTotal(p));
+            // no partition is left with subscriptions it cannot fill
+            if (allRestricted && quotasTotal >= plan.numberOfSubscriptions) {
+                assertTrue(plan.fieldsTotal(p) >= plan.subscriptions(p),
+                        "partition " + p + " has " + plan.fieldsTotal(p) + " fields for " + plan.subscriptions(p));
+            }
+        }
+    }
+
+    private static PartitionPlan createAndCheck(int subscriptions, int partitions, int[] fieldQuotas, int[] equalQuotas) {
+        PartitionPlan plan = PartitionPlan.create(subscriptions, partitions, fieldQuotas, equalQuotas);
+        assertInvariants(plan, fieldQuotas, equalQuotas);
+        return plan;
+    }
+
+    @Test
+    void randomPlansKeepTheInvariants() {
+        SplittableRandom random = new SplittableRandom(2025);
+        for (int i = 0; i < 2000; i++) {
+            int subscriptions = random.nextInt(0, 100_001);
+            int partitions = random.nextInt(1, 4097);
+            int fields = random.nextInt(1, 11);
+
+            int[] fieldQuotas = new int[fields];
+            int[] equalQuotas = new int[fields];
+            for (int f = 0; f < fields; f++) {
+                fieldQuotas[f] = random.nextInt(5) == 0 ? UNRESTRICTED : random.nextInt(subscriptions + 1);
+                equalQuotas[f] = fieldQuotas[f] == UNRESTRICTED || random.nextInt(5) == 0
+                        ? UNRESTRICTED
+                        : random.nextInt(fieldQuotas[f] + 1);
+            }
+
+            createAndCheck(subscriptions, partitions, fieldQuotas, equalQuotas);
+        }
+    }
+
+    @Test
+    void quotasAddingUpToTheSubscriptionsCoverEveryPartition() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 500; i++) {
+            int subscriptions = random.nextInt(1, 20_001);
+            int partitions = random.nextInt(1, 2049);
+            int fields = random.nextInt(1, 8);
+
+            // the quotas sum exactly to the number of subscriptions: one field per subscription
+            int[] fieldQuotas = new int[fields];
+            int left = subscriptions;
+            for (int f = 0; f < fields - 1; f++) {
+                fieldQuotas[f] = random.nextInt(left + 1);
+                left -= fieldQuotas[f];
+            }
+            fieldQuotas[fields - 1] = left;
+            int[] equalQuotas = Arrays.stream(fieldQuotas).map(quota -> quota / 2).toArray();
+
+            PartitionPlan plan = createAndCheck(subscriptions, partitions, fieldQuotas, equalQuotas);
+            for (int p = 0; p < partitions; p++) {
+                assertEquals(plan.subscriptions(p), plan.fieldsTotal(p));
+            }
+        }
+    }
+
+    @Test
+    void fieldInEverySubscriptionFillsEveryPartition() {
+        int[] fieldQuotas = {1000, 1000, 0};
+        int[] equalQuotas = {1000, 0, 0};
+        PartitionPlan plan = createAndCheck(1000, 7, fieldQuotas, equalQuotas);
+        for (int p = 0; p < 7; p++) {
+            assertEquals(plan.subscriptions(p), plan.fieldQuota(p, 0));
+            assertEquals(plan.subscriptions(p), plan.equalQuota(p, 0));
+            assertEquals(0, plan.equalQuota(p, 1));
+            assertEquals(0, plan.fieldQuota(p, 2));
+        }
+    }
+
+    @Test
+    void noSubscriptions() {
+        PartitionPlan plan = createAndCheck(0, 4, new int[]{0, UNRESTRICTED}, new int[]{0, UNRESTRICTED});
+        for (int p = 0; p < 4; p++) {
+            assertEquals(0, plan.subscriptions(p));
+            assertEquals(0, plan.fieldsTotal(p));
+        }
+    }
+
+    @Test
+    void singlePartitionGetsTheGlobalQuotas() {
+        int[] fieldQuotas = {70, 30, UNRESTRICTED, 100};
+        int[] equalQuotas = {42, UNRESTRICTED, UNRESTRICTED, 0};
+        PartitionPlan plan = createAndCheck(100, 1, fieldQuotas, equalQuotas);
+        for (int f = 0; f < fieldQuotas.length; f++) {
+            assertEquals(fieldQuotas[f], plan.fieldQuota(0, f));
+            assertEquals(equalQuotas[f], plan.equalQuota(0, f));
+        }
+        assertEquals(200, plan.fieldsTotal(0));
+    }
+
+    @Test
+    void morePartitionsThanSubscriptions() {
+        PartitionPlan plan = createAndCheck(3, 10, new int[]{3, 2, 1}, new int[]{1, 2, UNRESTRICTED});
+        for (int p = 3; p < 10; p++) {
+            assertEquals(0, plan.subscriptions(p));
+            assertEquals(0, plan.fieldsTotal(p));
+        }
+    }
+
+    @Test
+    void impossibleQuotasAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PartitionPlan.create(10, 0, new int[]{5}, new int[]{5}));
+        assertThrows(IllegalArgumentException.class,
+                () -> PartitionPlan.create(10, 2, new int[]{11}, new int[]{0}));
+        assertThrows(IllegalArgumentException.class,
+                () -> PartitionPlan.create(10, 2, new int[]{5}, new int[]{6}));
+    }
+}